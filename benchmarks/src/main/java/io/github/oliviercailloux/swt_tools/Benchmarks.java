@@ -0,0 +1,31 @@
+package io.github.oliviercailloux.swt_tools;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler (which reports the allocation rate,
+ * among others), and writes the results as JSON (to
+ * <code>jmh-result.json</code> by default), so that releases can be compared.
+ * Accepts the usual JMH command line options, for example a regular expression
+ * selecting the benchmarks to run.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+public class Benchmarks {
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		final CommandLineOptions commandLine = new CommandLineOptions(args);
+		final ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+		if (!commandLine.getResult().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON).result("jmh-result.json");
+		}
+		new Runner(builder.build()).run();
+	}
+}
@@ -0,0 +1,91 @@
+package io.github.oliviercailloux.swt_tools;
+
+import org.eclipse.jface.viewers.CellEditor;
+import org.eclipse.jface.viewers.ColumnViewer;
+
+/**
+ * Editing supports over {@link Row} elements, created on a
+ * {@link HeadlessColumnViewer} with {@link HeadlessCellEditor} editors, thus
+ * usable without a display.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+class Columns {
+	/**
+	 * A (non-widget) equivalent of a {@link TextEditingSupport} over the names of
+	 * rows.
+	 */
+	static TypedEditingSupportConstantEditor<Row, String> name(ColumnViewer viewer) {
+		final TypedEditingSupportConstantEditor<Row, String> support = new TypedEditingSupportConstantEditor<Row, String>(
+				viewer, Row.class, String.class) {
+			@Override
+			public String getValueTyped(Row element) {
+				return element.name;
+			}
+
+			@Override
+			public void setValueTyped(Row element, String value) {
+				element.name = value;
+			}
+		};
+		support.setCellEditor(new HeadlessCellEditor());
+		return support;
+	}
+
+	/**
+	 * A (non-widget) equivalent of an {@link IntEditingSupport} over the
+	 * quantities of rows.
+	 */
+	static TypedEditingSupportConstantEditor<Row, String> quantity(ColumnViewer viewer) {
+		final TypedEditingSupportConstantEditor<Row, String> support = new TypedEditingSupportConstantEditor<Row, String>(
+				viewer, Row.class, String.class) {
+			@Override
+			public String getValueTyped(Row element) {
+				return Integer.toString(element.quantity);
+			}
+
+			@Override
+			public void setValueTyped(Row element, String value) {
+				element.quantity = (int) IntEditingSupport.parseInt(value);
+			}
+		};
+		final CellEditor editor = new HeadlessCellEditor();
+		support.setCellEditor(editor);
+		support.setFirstLevelValidator((v) -> IntEditingSupport.validateInteger(IntEditingSupport.parseInt(v)));
+		support.setValidator((v) -> IntEditingSupport.parseInt(v) < 0 ? "Must be non-negative." : null);
+		return support;
+	}
+
+	/**
+	 * A (non-widget) equivalent of a {@link ComboBoxEditingSupport} over the
+	 * prices of rows.
+	 */
+	static TypedEditingSupportConstantEditor<Row, Double> price(ColumnViewer viewer) {
+		final TypedEditingSupportConstantEditor<Row, Double> support = new TypedEditingSupportConstantEditor<Row, Double>(
+				viewer, Row.class, Double.class) {
+			@Override
+			public String getLabelTyped(Row element) {
+				return "Price: " + readValue(element);
+			}
+
+			@Override
+			public Double getValueTyped(Row element) {
+				return element.price;
+			}
+
+			@Override
+			public void setValueTyped(Row element, Double value) {
+				element.price = value;
+			}
+		};
+		support.setCellEditor(new HeadlessCellEditor());
+		support.setFirstLevelValidator(
+				(v) -> v == null ? "The selection must be one of the provided choices." : null);
+		return support;
+	}
+
+	private Columns() {
+		/** Static methods only. */
+	}
+}
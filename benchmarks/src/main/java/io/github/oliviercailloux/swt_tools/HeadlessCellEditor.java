@@ -0,0 +1,41 @@
+package io.github.oliviercailloux.swt_tools;
+
+import org.eclipse.jface.viewers.CellEditor;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+
+/**
+ * A cell editor without any underlying control, that simply holds its value.
+ * Permits to exercise the validators installed on cell editors without a
+ * display.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+class HeadlessCellEditor extends CellEditor {
+	private Object value;
+
+	public HeadlessCellEditor() {
+		value = null;
+	}
+
+	@Override
+	protected Control createControl(Composite parent) {
+		return null;
+	}
+
+	@Override
+	protected Object doGetValue() {
+		return value;
+	}
+
+	@Override
+	protected void doSetFocus() {
+		/** No control to focus. */
+	}
+
+	@Override
+	protected void doSetValue(Object newValue) {
+		value = newValue;
+	}
+}
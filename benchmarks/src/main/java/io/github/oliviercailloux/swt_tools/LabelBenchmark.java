@@ -0,0 +1,69 @@
+package io.github.oliviercailloux.swt_tools;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the label path of the column label providers created by
+ * {@link JFace}, as invoked at each repaint of a cell.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LabelBenchmark {
+	private TypedColumnLabelProvider<Row> cachedPrice;
+
+	private TypedColumnLabelProvider<Row> name;
+
+	private TypedColumnLabelProvider<Row> price;
+
+	private TypedColumnLabelProvider<Row> recordedPrice;
+
+	@Benchmark
+	public String cachedPrice(RowsState rows) {
+		return cachedPrice.getText(rows.next());
+	}
+
+	@Benchmark
+	public String name(RowsState rows) {
+		return name.getText(rows.next());
+	}
+
+	@Benchmark
+	public String price(RowsState rows) {
+		return price.getText(rows.next());
+	}
+
+	@Benchmark
+	public String recordedPrice(RowsState rows) {
+		return recordedPrice.getText(rows.next());
+	}
+
+	@Setup
+	public void setUp() {
+		final HeadlessColumnViewer viewer = new HeadlessColumnViewer();
+		name = new TypedColumnLabelProvider<>("name", Columns.name(viewer), null, true);
+		price = new TypedColumnLabelProvider<>("price", Columns.price(viewer), null, false);
+		cachedPrice = new TypedColumnLabelProvider<>("price", Columns.price(viewer),
+				LabelCache.withMaximumSize(4096), false);
+		final TypedEditingSupportConstantEditor<Row, Double> recorded = Columns.price(viewer);
+		recorded.setRecorder(new ColumnStatistics("price"));
+		recordedPrice = new TypedColumnLabelProvider<>("price", recorded, null, false);
+	}
+}
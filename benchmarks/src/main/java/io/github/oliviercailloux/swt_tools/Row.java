@@ -0,0 +1,21 @@
+package io.github.oliviercailloux.swt_tools;
+
+/**
+ * A model element, as shown in a table row.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+class Row {
+	String name;
+
+	Double price;
+
+	int quantity;
+
+	public Row(int i) {
+		name = "Row " + i;
+		price = Double.valueOf(i * 1.5d);
+		quantity = i;
+	}
+}
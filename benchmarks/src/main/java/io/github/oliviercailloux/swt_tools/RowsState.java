@@ -0,0 +1,35 @@
+package io.github.oliviercailloux.swt_tools;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A set of rows, and a cursor that cycles through them, so that the benchmarks
+ * do not always hit the same element.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+@State(Scope.Thread)
+public class RowsState {
+	private static final int NB_ROWS = 1024;
+
+	private int cursor;
+
+	private Object[] rows;
+
+	public Object next() {
+		cursor = (cursor + 1) & (NB_ROWS - 1);
+		return rows[cursor];
+	}
+
+	@Setup
+	public void setUp() {
+		rows = new Object[NB_ROWS];
+		for (int i = 0; i < NB_ROWS; ++i) {
+			rows[i] = new Row(i);
+		}
+		cursor = 0;
+	}
+}
@@ -0,0 +1,72 @@
+package io.github.oliviercailloux.swt_tools;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the conversions (casts) from untyped to typed elements and values,
+ * and the typed value and label accessors.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TypedEditingSupportBenchmark {
+	private TypedEditingSupportConstantEditor<Row, String> name;
+
+	private TypedEditingSupportConstantEditor<Row, Double> price;
+
+	private TypedEditingSupportConstantEditor<Row, Double> recordedPrice;
+
+	private Object untypedPrice;
+
+	@Benchmark
+	public String getLabelTyped(RowsState rows) {
+		return price.getLabelTyped(price.getTypedElement(rows.next()));
+	}
+
+	@Benchmark
+	public String getLabelTypedRecorded(RowsState rows) {
+		return recordedPrice.getLabelTyped(recordedPrice.getTypedElement(rows.next()));
+	}
+
+	@Benchmark
+	public Row getTypedElement(RowsState rows) {
+		return name.getTypedElement(rows.next());
+	}
+
+	@Benchmark
+	public Double getTypedValue() {
+		return price.getTypedValue(untypedPrice);
+	}
+
+	@Benchmark
+	public Object getValue(RowsState rows) {
+		return name.getValue(rows.next());
+	}
+
+	@Setup
+	public void setUp() {
+		final HeadlessColumnViewer viewer = new HeadlessColumnViewer();
+		name = Columns.name(viewer);
+		price = Columns.price(viewer);
+		recordedPrice = Columns.price(viewer);
+		recordedPrice.setRecorder(new ColumnStatistics("price"));
+		untypedPrice = Double.valueOf(3.5d);
+	}
+}
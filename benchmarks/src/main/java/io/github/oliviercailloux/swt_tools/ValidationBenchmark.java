@@ -0,0 +1,72 @@
+package io.github.oliviercailloux.swt_tools;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.viewers.ICellEditorValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the integer validation and parsing done by
+ * {@link IntEditingSupport}, and the validator composed by
+ * {@link TypedEditingSupportConstantEditor}, as invoked by the cell editor at
+ * each keystroke.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+	@Param({ "12345", "-42", "12a45", "99999999999" })
+	public String input;
+
+	private ICellEditorValidator recordedValidator;
+
+	private ICellEditorValidator validator;
+
+	@Benchmark
+	public String composedValidator() {
+		return validator.isValid(input);
+	}
+
+	@Benchmark
+	public String composedValidatorRecorded() {
+		return recordedValidator.isValid(input);
+	}
+
+	@Setup
+	public void setUp() {
+		final HeadlessColumnViewer viewer = new HeadlessColumnViewer();
+		validator = Columns.quantity(viewer).getCellEditor().getValidator();
+		final TypedEditingSupportConstantEditor<Row, String> recorded = Columns.quantity(viewer);
+		recorded.setRecorder(new ColumnStatistics("quantity"));
+		recordedValidator = recorded.getCellEditor().getValidator();
+	}
+
+	/**
+	 * The path of a commit: validation and parsing, done in a single pass.
+	 */
+	@Benchmark
+	public long validateAndParse() {
+		return IntEditingSupport.parseInt(input);
+	}
+
+	@Benchmark
+	public String validateInteger() {
+		return IntEditingSupport.validateInteger(IntEditingSupport.parseInt(input));
+	}
+}
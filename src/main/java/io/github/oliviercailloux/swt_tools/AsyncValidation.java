@@ -0,0 +1,263 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * <p>
+ * Runs an asynchronous validator on the values typed by the end-user, for
+ * {@link TypedEditingSupportConstantEditor#setAsyncValidator(Function, long)}.
+ * </p>
+ * <p>
+ * A check starts only once the value has not changed during the debounce
+ * delay. A check in progress is cancelled when a different value is asked for,
+ * unless actions wait for its result (see
+ * {@link #whenResolved(Object, Consumer)}): it then goes on, in the background,
+ * until its result comes. The results are cached per value. The results are handed back through a UI
+ * executor (typically {@link org.eclipse.swt.widgets.Display#asyncExec}),
+ * which then runs a given callback and the actions waiting for the result.
+ * </p>
+ * <p>
+ * The methods of this object must be called from the UI thread (the thread of
+ * the UI executor).
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <V>
+ *            the type of values.
+ */
+class AsyncValidation<V> {
+	/**
+	 * A check of one value. The fields that the scheduler thread accesses are
+	 * volatile; the waiters are only accessed from the UI thread.
+	 */
+	private class Check implements Runnable {
+		private volatile boolean cancelled;
+
+		private volatile CompletableFuture<String> future;
+
+		private ScheduledFuture<?> scheduled;
+
+		private final V value;
+
+		private final List<Consumer<String>> waiters;
+
+		public Check(V value) {
+			this.value = value;
+			cancelled = false;
+			future = null;
+			scheduled = null;
+			waiters = new ArrayList<>();
+		}
+
+		public void cancel() {
+			cancelled = true;
+			scheduled.cancel(false);
+			final CompletableFuture<String> f = future;
+			if (f != null) {
+				f.cancel(true);
+			}
+		}
+
+		@Override
+		public void run() {
+			if (cancelled) {
+				return;
+			}
+			final CompletableFuture<String> f = validator.apply(value);
+			future = f;
+			if (cancelled) {
+				f.cancel(true);
+				return;
+			}
+			f.whenComplete((message, throwable) -> {
+				if (throwable == null) {
+					cache.put(value, Optional.ofNullable(message));
+				} else if (!f.isCancelled()) {
+					LOGGER.warn("Checking {} failed.", value, throwable);
+				}
+				if (!f.isCancelled()) {
+					uiExecutor.execute(() -> resolved(this, throwable == null, message));
+				}
+			});
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(AsyncValidation.class);
+
+	static final String CHECK_FAILED_MESSAGE = "The value could not be checked.";
+
+	static final String PENDING_MESSAGE = "Checking…";
+
+	private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder().setDaemon(true).setNameFormat("swt-tools-async-validation-%d").build());
+
+	private final Cache<V, Optional<String>> cache;
+
+	/**
+	 * The check in progress (scheduled or running), <code>null</code> if none.
+	 */
+	private Check current;
+
+	private final long debounceMillis;
+
+	/**
+	 * The value whose last check failed, <code>null</code> if none. Failures
+	 * are not cached, but are remembered until another value is checked, so that
+	 * the failed check is not restarted immediately.
+	 */
+	private V failed;
+
+	private final Runnable onResult;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final Executor uiExecutor;
+
+	private final Function<V, CompletableFuture<String>> validator;
+
+	/**
+	 * @param validator
+	 *            is given the value to check, and returns a future completing
+	 *            with <code>null</code> if the value is valid and with an error
+	 *            message otherwise. It should return promptly, and do the check
+	 *            asynchronously.
+	 * @param debounceMillis
+	 *            the delay during which the value must not change before the
+	 *            validator is invoked, non-negative.
+	 * @param uiExecutor
+	 *            the executor of the UI thread.
+	 * @param onResult
+	 *            run (through the UI executor) each time a result (or a
+	 *            failure) comes.
+	 */
+	public AsyncValidation(Function<V, CompletableFuture<String>> validator, long debounceMillis, Executor uiExecutor,
+			Runnable onResult) {
+		this(validator, debounceMillis, SCHEDULER, uiExecutor, onResult);
+	}
+
+	AsyncValidation(Function<V, CompletableFuture<String>> validator, long debounceMillis,
+			ScheduledExecutorService scheduler, Executor uiExecutor, Runnable onResult) {
+		checkArgument(debounceMillis >= 0);
+		this.validator = requireNonNull(validator);
+		this.debounceMillis = debounceMillis;
+		this.scheduler = requireNonNull(scheduler);
+		this.uiExecutor = requireNonNull(uiExecutor);
+		this.onResult = requireNonNull(onResult);
+		cache = CacheBuilder.newBuilder().maximumSize(1000).build();
+		current = null;
+		failed = null;
+	}
+
+	/**
+	 * Stops following the check in progress, if any: cancels it if no action
+	 * waits for its result, and otherwise lets it go on in the background, so
+	 * that the waiting actions run when the result comes.
+	 */
+	public void cancel() {
+		if (current != null) {
+			if (current.waiters.isEmpty()) {
+				current.cancel();
+			}
+			current = null;
+		}
+	}
+
+	/**
+	 * @return the value being checked, or <code>null</code> if no check is in
+	 *         progress.
+	 */
+	public V getPendingValue() {
+		return current == null ? null : current.value;
+	}
+
+	/**
+	 * Returns the result for the given value if known, and otherwise starts
+	 * checking it (after the debounce delay, cancelling the check in progress
+	 * for any other value) and returns {@link #PENDING_MESSAGE}.
+	 *
+	 * @param value
+	 *            <code>null</code> is considered valid.
+	 * @return <code>null</code> iff the value is known to be valid.
+	 */
+	public String validate(V value) {
+		if (current != null && !current.value.equals(value)) {
+			cancel();
+		}
+		if (value == null) {
+			return null;
+		}
+		final Optional<String> known = cache.getIfPresent(value);
+		if (known != null) {
+			return known.orElse(null);
+		}
+		if (current != null) {
+			return PENDING_MESSAGE;
+		}
+		if (value.equals(failed)) {
+			return CHECK_FAILED_MESSAGE;
+		}
+		failed = null;
+		final Check check = new Check(value);
+		current = check;
+		check.scheduled = scheduler.schedule(check, debounceMillis, TimeUnit.MILLISECONDS);
+		return PENDING_MESSAGE;
+	}
+
+	/**
+	 * Runs the given action with the result for the given value, immediately if
+	 * it is known, and otherwise when the result of the check in progress for
+	 * that value comes, even if an other value is asked for in the meantime.
+	 * Does nothing if no result is known and the value is not being checked.
+	 *
+	 * @param action
+	 *            is given <code>null</code> if the value is valid and the error
+	 *            message otherwise ({@link #CHECK_FAILED_MESSAGE} if the check
+	 *            failed).
+	 */
+	public void whenResolved(V value, Consumer<String> action) {
+		final Optional<String> known = value == null ? Optional.empty() : cache.getIfPresent(value);
+		if (known != null) {
+			action.accept(known.orElse(null));
+		} else if (current != null && current.value.equals(value)) {
+			current.waiters.add(action);
+		}
+	}
+
+	private void resolved(Check check, boolean succeeded, String message) {
+		if (check == current) {
+			current = null;
+		}
+		if (check.cancelled) {
+			return;
+		}
+		if (!succeeded) {
+			failed = check.value;
+		}
+		for (Consumer<String> waiter : check.waiters) {
+			waiter.accept(succeeded ? message : CHECK_FAILED_MESSAGE);
+		}
+		onResult.run();
+	}
+}
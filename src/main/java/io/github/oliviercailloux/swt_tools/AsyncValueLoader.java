@@ -0,0 +1,177 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * <p>
+ * Computes the labels of a column off the UI thread, for values that require
+ * I/O or heavy computation. Give an object of this type to
+ * {@link JFace#addAsyncTextTableViewerColumn(org.eclipse.jface.viewers.TableViewer, org.eclipse.swt.widgets.TableColumn, TextEditingSupport, AsyncValueLoader)}
+ * or
+ * {@link JFace#addAsyncComboBoxTableViewerColumn(org.eclipse.jface.viewers.TableViewer, org.eclipse.swt.widgets.TableColumn, ComboBoxEditingSupport, AsyncValueLoader)}.
+ * </p>
+ * <p>
+ * The first time the label of an element is asked for, this object returns a
+ * placeholder text, and computes the label (using
+ * {@link TypedEditingSupport#getLabelTyped(Object) getLabelTyped}, thus
+ * {@link TypedEditingSupport#getValueTyped(Object) getValueTyped}) on a worker
+ * executor. The labels computed are kept (up to a maximum number), and the
+ * corresponding elements are updated in the viewer in batches, at most once
+ * per frame, whatever the number of labels computed in the meantime.
+ * </p>
+ * <p>
+ * The editing support must therefore permit to obtain values from a worker
+ * thread. The label of an element is forgotten (and computed again) when a
+ * value of that element is sent to the model through the editing support, and
+ * when {@link #invalidate(Object)} or {@link #invalidateAll()} is called.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements returned by the underlying column viewer.
+ */
+public class AsyncValueLoader<E> {
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(AsyncValueLoader.class);
+
+	private final TypedEditingSupport<E, ?> editingSupport;
+
+	/**
+	 * The elements whose label is being computed, associated to a token
+	 * identifying the computation. Invalidating an element removes it, so that
+	 * the computation in progress, which may have read an obsolete value, is
+	 * discarded.
+	 */
+	private final ConcurrentHashMap<Object, Object> loading;
+
+	private final Cache<Object, String> labels;
+
+	private final String placeholder;
+
+	private final ViewerUpdateScheduler updater;
+
+	private final Executor workers;
+
+	/**
+	 * Must be called from the UI thread.
+	 *
+	 * @param editingSupport
+	 *            gives the labels, from the worker threads.
+	 * @param workers
+	 *            the executor computing the labels.
+	 * @param placeholder
+	 *            the text shown while the label of an element is being
+	 *            computed, not <code>null</code>.
+	 * @param maximumSize
+	 *            the maximal number of labels kept, must be positive.
+	 */
+	public AsyncValueLoader(TypedEditingSupport<E, ?> editingSupport, Executor workers, String placeholder,
+			long maximumSize) {
+		checkArgument(maximumSize > 0);
+		this.editingSupport = requireNonNull(editingSupport);
+		this.workers = requireNonNull(workers);
+		this.placeholder = requireNonNull(placeholder);
+		labels = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+		loading = new ConcurrentHashMap<>();
+		updater = ViewerUpdateScheduler.of(editingSupport.getViewer());
+		editingSupport.addInvalidationListener((e) -> {
+			if (e != null) {
+				invalidate(e);
+			}
+		});
+	}
+
+	public TypedEditingSupport<E, ?> getEditingSupport() {
+		return editingSupport;
+	}
+
+	/**
+	 * Returns the label of the given element if it has been computed, and
+	 * otherwise starts computing it, if not already started, and returns the
+	 * placeholder.
+	 *
+	 * @param element
+	 *            not <code>null</code>.
+	 */
+	public String getLabel(E element) {
+		final String label = labels.getIfPresent(element);
+		if (label != null) {
+			return label;
+		}
+		final Object token = new Object();
+		if (loading.putIfAbsent(element, token) == null) {
+			workers.execute(() -> load(element, token));
+		}
+		return placeholder;
+	}
+
+	public String getPlaceholder() {
+		return placeholder;
+	}
+
+	/**
+	 * Forgets the label of the given element, which will be computed again when
+	 * asked for.
+	 *
+	 * @param element
+	 *            not <code>null</code>.
+	 */
+	public void invalidate(Object element) {
+		requireNonNull(element);
+		loading.remove(element);
+		labels.invalidate(element);
+	}
+
+	/**
+	 * Forgets all the labels.
+	 */
+	public void invalidateAll() {
+		loading.clear();
+		labels.invalidateAll();
+	}
+
+	private void load(E element, Object token) {
+		final String label;
+		try {
+			label = editingSupport.getLabelTyped(element);
+		} catch (RuntimeException e) {
+			loading.remove(element, token);
+			LOGGER.warn("Could not load the label of {}.", element, e);
+			return;
+		}
+		final String published = label == null ? "" : label;
+		/**
+		 * Publishes the label only if the element has not been invalidated in
+		 * the meantime, atomically with respect to invalidate, which removes the
+		 * token: otherwise, the label may be obsolete.
+		 */
+		loading.computeIfPresent(element, (e, t) -> {
+			if (t != token) {
+				return t;
+			}
+			labels.put(element, published);
+			return null;
+		});
+		/**
+		 * If the label has not been published, the element is updated anyway, so
+		 * that its label is asked for (and computed) again.
+		 */
+		final String property = editingSupport.getProperty();
+		if (property == null) {
+			updater.update(element);
+		} else {
+			updater.update(element, property);
+		}
+	}
+}
@@ -0,0 +1,461 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.eclipse.jface.viewers.ColumnViewer;
+import org.eclipse.swt.widgets.Control;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Sends many values at once to the model, through the editing supports of the
+ * columns of a viewer: pastes a block of text copied from a spreadsheet
+ * (tab-separated values), or fills a column with a given value.
+ * </p>
+ * <p>
+ * Each cell is read from text (see
+ * {@link #addColumn(TypedEditingSupportConstantEditor, Function)}), then
+ * checked by the first-level and unqualified validators of its editing
+ * support, as if the end-user had typed it in the cell editor. The valid
+ * values are then all sent to the model through the editing supports (thus,
+ * the invalidation listeners and recorders see them as usual), while the
+ * viewer control does not redraw. The elements changed are then updated in the
+ * viewer in a single call per property (see
+ * {@link TypedEditingSupport#setProperty(String)}), scoped to that property,
+ * and in a single unscoped call for the editing supports that have no
+ * property. The updates that the implementers of editing supports without a
+ * property issue themselves, in
+ * {@link TypedEditingSupport#setValueTyped(Object, Object) setValueTyped} (as
+ * they must for interactive edits), are not suppressed, thus still happen once
+ * per cell, though without redrawing: set a property on such editing supports
+ * (and stop updating in <code>setValueTyped</code>) to have a single update
+ * per column. The invalid cells are left unchanged and reported. Asynchronous
+ * validators (see
+ * {@link TypedEditingSupportConstantEditor#setAsyncValidator(Function, long)})
+ * are not invoked: they are meant for interactive editing.
+ * </p>
+ * <p>
+ * The columns are numbered from zero, in the order in which they are added to
+ * this object, which should be the order in which the end-user sees them.
+ * This object must be used from the UI thread.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements returned by the underlying column viewer.
+ */
+public class BulkEditor<E> {
+	/**
+	 * A cell whose text has not been sent to the model.
+	 */
+	public static class CellError {
+		private final int column;
+
+		private final String message;
+
+		private final int row;
+
+		private final String text;
+
+		CellError(int row, int column, String text, String message) {
+			this.row = row;
+			this.column = column;
+			this.text = requireNonNull(text);
+			this.message = requireNonNull(message);
+		}
+
+		/**
+		 * @return the column of the cell, among the columns of the bulk editor.
+		 */
+		public int getColumn() {
+			return column;
+		}
+
+		/**
+		 * @return the error message to display to the end user.
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+		/**
+		 * @return the position of the element of the cell, among the elements
+		 *         given to the bulk editor.
+		 */
+		public int getRow() {
+			return row;
+		}
+
+		/**
+		 * @return the text that was to be sent to the cell.
+		 */
+		public String getText() {
+			return text;
+		}
+
+		@Override
+		public String toString() {
+			return "(" + row + ", " + column + ") " + text + ": " + message;
+		}
+	}
+
+	/**
+	 * The edits to send to the model, and the elements they concern that must
+	 * be updated in the viewer.
+	 */
+	private static class Batch {
+		/**
+		 * The elements to update fully.
+		 */
+		final Set<Object> changed = new LinkedHashSet<>();
+
+		/**
+		 * The elements to update, by property.
+		 */
+		final Map<String, Set<Object>> changedByProperty = new LinkedHashMap<>();
+
+		final List<Runnable> edits = new ArrayList<>();
+	}
+
+	/**
+	 * An editing support with the function reading its values from text.
+	 */
+	private static class Column<E, V> {
+		final TypedEditingSupportConstantEditor<E, V> editingSupport;
+
+		final String parseErrorMessage;
+
+		final Function<String, V> parser;
+
+		Column(TypedEditingSupportConstantEditor<E, V> editingSupport, Function<String, V> parser,
+				String parseErrorMessage) {
+			this.editingSupport = requireNonNull(editingSupport);
+			this.parser = requireNonNull(parser);
+			this.parseErrorMessage = requireNonNull(parseErrorMessage);
+		}
+
+		/**
+		 * Reads and validates the given text, and if valid, adds the value to
+		 * the given batch.
+		 *
+		 * @return <code>null</code> iff valid.
+		 */
+		String prepare(E element, String text, Batch batch) {
+			final V value = parser.apply(text);
+			final String message = validate(value);
+			return message == null ? prepareValid(element, value, batch) : message;
+		}
+
+		/**
+		 * Adds the given value, which must be valid, to the given batch, if the
+		 * element is editable.
+		 *
+		 * @return <code>null</code> iff the element is editable.
+		 */
+		String prepareValid(E element, V value, Batch batch) {
+			if (!editingSupport.canEditTyped(element)) {
+				return "The cell can't be edited.";
+			}
+			batch.edits.add(() -> editingSupport.setValue(element, value, false));
+			final String property = editingSupport.getProperty();
+			if (property == null) {
+				batch.changed.add(element);
+			} else {
+				batch.changedByProperty.computeIfAbsent(property, (p) -> new LinkedHashSet<>()).add(element);
+			}
+			return null;
+		}
+
+		/**
+		 * @param value
+		 *            the value read, or <code>null</code> if the text could not
+		 *            be read.
+		 * @return <code>null</code> iff valid.
+		 */
+		String validate(V value) {
+			return value == null ? parseErrorMessage : editingSupport.validate(value);
+		}
+	}
+
+	/**
+	 * Finds the item whose label is a given text, among the items of a combo
+	 * box editing support, indexing them by label the first time it is used
+	 * with a given list of items; or, when the editing support uses an item
+	 * source, among the first page of the items matching that text.
+	 */
+	private static class LabelLookup<V> implements Function<String, V> {
+		private Map<String, V> byLabel;
+
+		private final ComboBoxEditingSupport<?, V> editingSupport;
+
+		private List<V> items;
+
+		LabelLookup(ComboBoxEditingSupport<?, V> editingSupport) {
+			this.editingSupport = requireNonNull(editingSupport);
+			items = null;
+			byLabel = null;
+		}
+
+		@Override
+		public V apply(String text) {
+			final PagedItemSource<V> source = editingSupport.getItemSource();
+			if (source != null) {
+				for (V item : source.getPage(text, 0)) {
+					if (editingSupport.toString(item).equals(text)) {
+						return item;
+					}
+				}
+				return null;
+			}
+			final List<V> current = editingSupport.getItems();
+			if (current != items) {
+				items = current;
+				byLabel = new HashMap<>();
+				for (V item : current) {
+					byLabel.putIfAbsent(editingSupport.toString(item), item);
+				}
+			}
+			return byLabel.get(text);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(BulkEditor.class);
+
+	/**
+	 * Reads a block of tab-separated values, as copied from a spreadsheet: rows
+	 * are separated by line breaks (<code>\n</code> or <code>\r\n</code>), cells
+	 * by tabs. A cell starting with a double quote extends to the next lone
+	 * double quote, and may thus contain tabs and line breaks; two successive
+	 * double quotes within it stand for one. A final line break does not start
+	 * a new row.
+	 *
+	 * @return the rows, each one being a non-empty list of cells.
+	 */
+	static List<List<String>> parseTsv(CharSequence text) {
+		final List<List<String>> rows = new ArrayList<>();
+		final int length = text.length();
+		List<String> row = new ArrayList<>();
+		final StringBuilder cell = new StringBuilder();
+		int i = 0;
+		while (i < length) {
+			final boolean quoted = text.charAt(i) == '"';
+			if (quoted) {
+				++i;
+				while (i < length) {
+					final char c = text.charAt(i);
+					++i;
+					if (c != '"') {
+						cell.append(c);
+					} else if (i < length && text.charAt(i) == '"') {
+						cell.append('"');
+						++i;
+					} else {
+						break;
+					}
+				}
+			}
+			while (i < length && text.charAt(i) != '\t' && text.charAt(i) != '\n') {
+				final char c = text.charAt(i);
+				++i;
+				final boolean lineEnd = c == '\r' && (i == length || text.charAt(i) == '\n');
+				if (!lineEnd) {
+					cell.append(c);
+				}
+			}
+			row.add(cell.toString());
+			cell.setLength(0);
+			if (i == length || text.charAt(i) == '\n') {
+				rows.add(row);
+				row = new ArrayList<>();
+			}
+			++i;
+		}
+		if (length > 0 && text.charAt(length - 1) == '\t') {
+			/** The last cell, empty, and its row, have not been read. */
+			row.add("");
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	private final List<Column<E, ?>> columns;
+
+	private final ColumnViewer viewer;
+
+	/**
+	 * @param viewer
+	 *            the viewer showing the columns that will be added to this
+	 *            object.
+	 */
+	public BulkEditor(ColumnViewer viewer) {
+		this.viewer = requireNonNull(viewer);
+		columns = new ArrayList<>();
+	}
+
+	/**
+	 * Adds a column whose values are read from the text pasted using the labels
+	 * of the items of the given editing support (see
+	 * {@link ComboBoxEditingSupport#toString(Object)}): a text is valid only if
+	 * it is the label of one of the provided choices. When the editing support
+	 * uses an item source (see
+	 * {@link ComboBoxEditingSupport#setItemSource(PagedItemSource)}), the item
+	 * whose label is the text is looked for in the first page of the items
+	 * matching that text, fetched from the calling thread if not kept; thus, the
+	 * source must give that item in its first page, as a source matching the
+	 * start of the labels in the order of the labels does.
+	 *
+	 * @return the number of the column added.
+	 */
+	public <V> int addColumn(ComboBoxEditingSupport<E, V> editingSupport) {
+		return addColumn(new Column<>(editingSupport, new LabelLookup<>(editingSupport),
+				"The text must be one of the provided choices."));
+	}
+
+	/**
+	 * Adds a column whose values are the texts pasted, as typed by the end-user
+	 * in the text cell editor of the given editing support.
+	 *
+	 * @return the number of the column added.
+	 */
+	public int addColumn(TextEditingSupport<E> editingSupport) {
+		return addColumn(new Column<>(editingSupport, Function.identity(), "Invalid text."));
+	}
+
+	/**
+	 * Adds a column whose values are read from text using the given parser.
+	 *
+	 * @param parser
+	 *            returns <code>null</code> if the given text can't be read as a
+	 *            value.
+	 * @return the number of the column added.
+	 */
+	public <V> int addColumn(TypedEditingSupportConstantEditor<E, V> editingSupport, Function<String, V> parser) {
+		return addColumn(new Column<>(editingSupport, parser, "Invalid text."));
+	}
+
+	/**
+	 * Sends the given text to the given column of all the given elements. The
+	 * text is read and validated once, and the error, if any, is reported for
+	 * each element.
+	 *
+	 * @param elements
+	 *            the elements to change, typically the selected ones.
+	 * @param column
+	 *            the number of a column of this object.
+	 * @param text
+	 *            the text to send, not <code>null</code>.
+	 * @return the cells that have not been changed, in the order of the
+	 *         elements.
+	 */
+	public List<CellError> fillDown(List<? extends E> elements, int column, String text) {
+		requireNonNull(text);
+		return fillDown(columns.get(column), elements, column, text);
+	}
+
+	public int getColumnCount() {
+		return columns.size();
+	}
+
+	/**
+	 * Sends a block of tab-separated values (see {@link #parseTsv}) to the
+	 * given elements: the first row of the block goes to the first element,
+	 * starting at the given column, and so on. The cells that fall beyond the
+	 * elements or the columns are reported as errors.
+	 *
+	 * @param elements
+	 *            the elements to change, in the order in which they are shown.
+	 * @param firstColumn
+	 *            the number of a column of this object.
+	 * @param tsv
+	 *            the text to read, not <code>null</code>.
+	 * @return the cells that have not been changed, by row then by column.
+	 */
+	public List<CellError> paste(List<? extends E> elements, int firstColumn, CharSequence tsv) {
+		checkArgument(firstColumn >= 0 && firstColumn < columns.size());
+		final List<List<String>> block = parseTsv(tsv);
+		final Batch batch = new Batch();
+		final List<CellError> errors = new ArrayList<>();
+		for (int row = 0; row < block.size(); ++row) {
+			final List<String> cells = block.get(row);
+			for (int offset = 0; offset < cells.size(); ++offset) {
+				final int column = firstColumn + offset;
+				final String text = cells.get(offset);
+				final String message;
+				if (row >= elements.size() || column >= columns.size()) {
+					message = "Beyond the table.";
+				} else {
+					message = columns.get(column).prepare(elements.get(row), text, batch);
+				}
+				if (message != null) {
+					errors.add(new CellError(row, column, text, message));
+				}
+			}
+		}
+		apply(batch);
+		return errors;
+	}
+
+	private int addColumn(Column<E, ?> column) {
+		checkArgument(column.editingSupport.getViewer() == viewer);
+		columns.add(column);
+		return columns.size() - 1;
+	}
+
+	/**
+	 * Sends the edits of the given batch to the model while the viewer does not
+	 * redraw, then updates the elements changed, in a single call per property.
+	 */
+	private void apply(Batch batch) {
+		if (batch.edits.isEmpty()) {
+			return;
+		}
+		final Control control = viewer.getControl();
+		control.setRedraw(false);
+		try {
+			for (Runnable edit : batch.edits) {
+				edit.run();
+			}
+			if (!batch.changed.isEmpty()) {
+				viewer.update(batch.changed.toArray(), null);
+			}
+			for (Map.Entry<String, Set<Object>> entry : batch.changedByProperty.entrySet()) {
+				final Set<Object> elements = entry.getValue();
+				/** The elements fully updated need not be updated again. */
+				elements.removeAll(batch.changed);
+				if (!elements.isEmpty()) {
+					JFace.update(viewer, elements.toArray(), entry.getKey());
+				}
+			}
+		} finally {
+			control.setRedraw(true);
+		}
+	}
+
+	private <V> List<CellError> fillDown(Column<E, V> col, List<? extends E> elements, int column, String text) {
+		final V value = col.parser.apply(text);
+		final String message = col.validate(value);
+		final Batch batch = new Batch();
+		final List<CellError> errors = new ArrayList<>();
+		for (int row = 0; row < elements.size(); ++row) {
+			final String rowMessage = message == null ? col.prepareValid(elements.get(row), value, batch) : message;
+			if (rowMessage != null) {
+				errors.add(new CellError(row, column, text, rowMessage));
+			}
+		}
+		apply(batch);
+		return errors;
+	}
+}
@@ -0,0 +1,278 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Validates all the cells of some columns at once (for example, before saving
+ * or after importing data), with the rules that their cell editors apply
+ * interactively: the first-level validator (such as the integer check of
+ * {@link IntEditingSupport}) and the validator set by the user, as composed by
+ * {@link TypedEditingSupportConstantEditor}. The value of each cell is given
+ * by {@link TypedEditingSupport#getValueTyped(Object) getValueTyped}. The
+ * asynchronous validators are not used.
+ * </p>
+ * <p>
+ * The rows are validated in parallel, using a fork-join pool, by ranges of
+ * rows; thus the value getters and the validators set by the user must permit
+ * to be called from several threads concurrently (the editing supports of
+ * this library that cache the value parsed when validating, to reuse it when
+ * committing, do not use their caches here). The result is an index of the
+ * invalid cells, made of one bit per cell, which can be queried (see
+ * {@link #isInvalid(int, int)}), for example by label providers to decorate
+ * the invalid cells. The error message of a cell is computed again when asked
+ * for.
+ * </p>
+ * <p>
+ * This object then follows the edits sent through the editing supports of the
+ * columns, and {@link #revalidateChanged()} validates again only the cells
+ * edited since (and those marked as changed by the user, see
+ * {@link #markChanged(int)}).
+ * </p>
+ * <p>
+ * The methods of this object must be called from a single thread (typically
+ * the UI thread), and the model must not be changed during a validation.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of rows.
+ */
+public class BulkValidator<E> {
+	private static class Column<E, V> {
+		/**
+		 * One bit per row that has changed since validated.
+		 */
+		long[] changed;
+
+		final TypedEditingSupportConstantEditor<E, V> editingSupport;
+
+		/**
+		 * One bit per invalid row.
+		 */
+		long[] invalid;
+
+		Column(TypedEditingSupportConstantEditor<E, V> editingSupport) {
+			this.editingSupport = editingSupport;
+			changed = new long[0];
+			invalid = new long[0];
+		}
+
+		String validate(E row) {
+			return editingSupport.validateConcurrently(editingSupport.getValueTyped(row));
+		}
+	}
+
+	/**
+	 * Validates a range of rows, whose bounds are multiples of 64 (except the
+	 * end of the table), so that the ranges validated concurrently write to
+	 * distinct words of the index.
+	 */
+	private class ValidateRange extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+
+		private final int to;
+
+		ValidateRange(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= LEAF_ROWS) {
+				for (Column<E, ?> column : columns) {
+					for (int row = from; row < to; ++row) {
+						setInvalid(column, row, column.validate(rows.get(row)) != null);
+					}
+				}
+			} else {
+				final int middle = ((from + (to - from) / 2) >>> 6) << 6;
+				invokeAll(new ValidateRange(from, middle), new ValidateRange(middle, to));
+			}
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(BulkValidator.class);
+
+	/**
+	 * The number of rows validated by a single task; a multiple of 64.
+	 */
+	private static final int LEAF_ROWS = 4096;
+
+	private static boolean get(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private static void setInvalid(Column<?, ?> column, int row, boolean invalid) {
+		if (invalid) {
+			column.invalid[row >>> 6] |= 1L << row;
+		} else {
+			column.invalid[row >>> 6] &= ~(1L << row);
+		}
+	}
+
+	private final List<Column<E, ?>> columns;
+
+	private final ForkJoinPool pool;
+
+	private final ToIntFunction<? super E> positionOf;
+
+	private final List<? extends E> rows;
+
+	/**
+	 * Whether {@link #validateAll()} has been called.
+	 */
+	private boolean validated;
+
+	/**
+	 * @param rows
+	 *            should support fast random access; its size must not change.
+	 * @param positionOf
+	 *            gives the position of a row in the list, to follow the edits;
+	 *            the edits of the rows whose position is out of the list (such
+	 *            as -1 for a row not found) are ignored.
+	 * @param pool
+	 *            the pool validating the rows, typically
+	 *            {@link ForkJoinPool#commonPool()}.
+	 */
+	public BulkValidator(List<? extends E> rows, ToIntFunction<? super E> positionOf, ForkJoinPool pool) {
+		this.rows = requireNonNull(rows);
+		this.positionOf = requireNonNull(positionOf);
+		this.pool = requireNonNull(pool);
+		columns = new ArrayList<>();
+		validated = false;
+	}
+
+	/**
+	 * Adds a column to validate, before the first validation.
+	 *
+	 * @return the index of the column in this object.
+	 */
+	public <V> int addColumn(TypedEditingSupportConstantEditor<E, V> editingSupport) {
+		checkState(!validated);
+		final Column<E, V> column = new Column<>(editingSupport);
+		columns.add(column);
+		editingSupport.addEditListener((e, oldValue, newValue) -> {
+			if (validated) {
+				final int row = positionOf.applyAsInt(e);
+				if (row >= 0 && row < rows.size()) {
+					column.changed[row >>> 6] |= 1L << row;
+				}
+			}
+		});
+		return columns.size() - 1;
+	}
+
+	/**
+	 * Returns the number of invalid cells, as of the last validation.
+	 */
+	public int getInvalidCount() {
+		int count = 0;
+		for (Column<E, ?> column : columns) {
+			for (long word : column.invalid) {
+				count += Long.bitCount(word);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the positions of the invalid rows of the given column, as of the
+	 * last validation, in a new bit set.
+	 */
+	public BitSet getInvalidRows(int column) {
+		checkElementIndex(column, columns.size());
+		return BitSet.valueOf(columns.get(column).invalid);
+	}
+
+	/**
+	 * Validates again the given cell, and returns its error message.
+	 *
+	 * @return <code>null</code> iff the cell is valid.
+	 */
+	public String getMessage(int row, int column) {
+		checkElementIndex(column, columns.size());
+		checkElementIndex(row, rows.size());
+		return columns.get(column).validate(rows.get(row));
+	}
+
+	/**
+	 * Returns whether the given cell was invalid at the last validation.
+	 */
+	public boolean isInvalid(int row, int column) {
+		checkState(validated);
+		checkElementIndex(column, columns.size());
+		checkElementIndex(row, rows.size());
+		return get(columns.get(column).invalid, row);
+	}
+
+	/**
+	 * Marks the cells of the given row as changed, so that they are validated
+	 * again by {@link #revalidateChanged()}; for changes to the model that do
+	 * not go through the editing supports of the columns.
+	 */
+	public void markChanged(int row) {
+		checkState(validated);
+		checkElementIndex(row, rows.size());
+		for (Column<E, ?> column : columns) {
+			column.changed[row >>> 6] |= 1L << row;
+		}
+	}
+
+	/**
+	 * Validates again the cells changed since the last validation.
+	 *
+	 * @return the number of cells validated.
+	 */
+	public int revalidateChanged() {
+		checkState(validated);
+		int count = 0;
+		for (Column<E, ?> column : columns) {
+			final long[] changed = column.changed;
+			for (int w = 0; w < changed.length; ++w) {
+				long word = changed[w];
+				changed[w] = 0;
+				while (word != 0) {
+					final int row = (w << 6) + Long.numberOfTrailingZeros(word);
+					word &= word - 1;
+					setInvalid(column, row, column.validate(rows.get(row)) != null);
+					++count;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Validates all the cells, using the pool, and waits for the result.
+	 *
+	 * @return the number of invalid cells.
+	 */
+	public int validateAll() {
+		final int words = (rows.size() + 63) >>> 6;
+		for (Column<E, ?> column : columns) {
+			column.invalid = new long[words];
+			column.changed = new long[words];
+		}
+		pool.invoke(new ValidateRange(0, rows.size()));
+		validated = true;
+		return getInvalidCount();
+	}
+}
@@ -0,0 +1,270 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * <p>
+ * Sets the widths of the columns of a table viewer to fit their content, as
+ * {@link TableColumn#pack()} does, but measuring only a sample of the rows:
+ * the rows that the end-user can see, plus rows evenly spread over the whole
+ * input. The rows need not be materialized in the table, thus this works with
+ * virtual tables: the input of the viewer must be a {@link List} (as set by
+ * {@link JFace#setVirtualInput(TableViewer, List)}), and the labels are
+ * obtained through the typed label path of each column
+ * ({@link TypedEditingSupport#getLabelTyped(Object)}), as the label providers
+ * created by {@link JFace} do.
+ * </p>
+ * <p>
+ * The widths of the texts measured are cached, per font and text, so that
+ * measuring again a column whose labels take few distinct values is cheap.
+ * After {@link #pack()}, the edits sent to the model through the editing
+ * supports of the columns are measured as they come (from the UI thread, once
+ * the current event is processed), and widen their column if necessary;
+ * columns are never narrowed by edits.
+ * </p>
+ * <p>
+ * This object must be used from the UI thread.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements returned by the underlying column viewer.
+ */
+public class ColumnAutoSizer<E> {
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(ColumnAutoSizer.class);
+
+	/**
+	 * The space added to the widest text of a column, for the margins of the
+	 * cells.
+	 */
+	static final int MARGIN = 12;
+
+	/**
+	 * The maximal number of texts whose width is cached, per font.
+	 */
+	private static final int TEXT_WIDTHS_SIZE = 10_000;
+
+	/**
+	 * Returns the positions of the rows to measure among the given number of
+	 * rows, in increasing order, without duplicates: the visible ones, and the
+	 * given number of others, evenly spread (including the first and the last
+	 * rows).
+	 *
+	 * @param top
+	 *            the position of the first visible row.
+	 * @param visible
+	 *            the number of visible rows.
+	 */
+	static int[] sample(int size, int top, int visible, int sampleSize) {
+		checkArgument(size >= 0 && top >= 0 && visible >= 0 && sampleSize >= 0);
+		final int[] positions = new int[Math.min(size, visible) + Math.min(size, sampleSize)];
+		int count = 0;
+		for (int i = top; i < Math.min(size, top + visible); ++i) {
+			positions[count++] = i;
+		}
+		final int spread = Math.min(size, sampleSize);
+		for (int i = 0; i < spread; ++i) {
+			positions[count++] = spread == 1 ? 0 : (int) ((long) i * (size - 1) / (spread - 1));
+		}
+		final int[] sorted = Arrays.copyOf(positions, count);
+		Arrays.sort(sorted);
+		int distinct = 0;
+		for (int i = 0; i < sorted.length; ++i) {
+			if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+				sorted[distinct++] = sorted[i];
+			}
+		}
+		return Arrays.copyOf(sorted, distinct);
+	}
+
+	/**
+	 * The columns and their editing supports, in the order added.
+	 */
+	private final Map<TableColumn, TypedEditingSupport<E, ?>> columns;
+
+	/**
+	 * The elements edited since the last measure, by column.
+	 */
+	private final Map<TableColumn, Set<E>> edited;
+
+	private boolean packed;
+
+	private final int sampleSize;
+
+	/**
+	 * The widths of the texts, per font.
+	 */
+	private final Map<Font, Cache<String, Integer>> textWidths;
+
+	private final TableViewer viewer;
+
+	/**
+	 * @param sampleSize
+	 *            the number of rows to measure in addition to the visible
+	 *            ones.
+	 */
+	public ColumnAutoSizer(TableViewer viewer, int sampleSize) {
+		checkArgument(sampleSize >= 0);
+		this.viewer = requireNonNull(viewer);
+		this.sampleSize = sampleSize;
+		columns = new LinkedHashMap<>();
+		edited = new HashMap<>();
+		textWidths = new HashMap<>();
+		packed = false;
+	}
+
+	/**
+	 * Adds a column to be sized by this object, whose labels are given by the
+	 * given editing support.
+	 */
+	public void addColumn(TableColumn column, TypedEditingSupport<E, ?> editingSupport) {
+		checkArgument(column.getParent() == viewer.getTable());
+		requireNonNull(editingSupport);
+		checkArgument(!columns.containsKey(column));
+		columns.put(column, editingSupport);
+		editingSupport.addInvalidationListener((e) -> edited(column, e));
+	}
+
+	/**
+	 * Returns the width that fits the header and the labels of the sampled rows
+	 * of the given column.
+	 */
+	public int computeWidth(TableColumn column) {
+		final TypedEditingSupport<E, ?> editingSupport = columns.get(column);
+		checkArgument(editingSupport != null);
+		final List<E> rows = getRows();
+		final Table table = viewer.getTable();
+		final int itemHeight = Math.max(1, table.getItemHeight());
+		final int visible = table.getClientArea().height / itemHeight + 1;
+		final int[] positions = sample(rows.size(), table.getTopIndex(), visible, sampleSize);
+		final GC gc = new GC(table);
+		try {
+			int widest = measure(gc, column.getText());
+			for (int position : positions) {
+				widest = Math.max(widest, measure(gc, editingSupport.getLabelTyped(rows.get(position))));
+			}
+			return widest + MARGIN;
+		} finally {
+			gc.dispose();
+		}
+	}
+
+	/**
+	 * Forgets the cached widths of texts (for example, because the fonts have
+	 * been disposed).
+	 */
+	public void invalidateTextWidths() {
+		textWidths.clear();
+	}
+
+	/**
+	 * Sets the width of each column to the width computed by
+	 * {@link #computeWidth(TableColumn)}, and starts following the edits.
+	 */
+	public void pack() {
+		edited.clear();
+		for (TableColumn column : columns.keySet()) {
+			if (!column.isDisposed()) {
+				column.setWidth(computeWidth(column));
+			}
+		}
+		packed = true;
+	}
+
+	/**
+	 * @return the number of texts whose width is cached for the given font.
+	 */
+	long getCachedWidthCount(Font font) {
+		final Cache<String, Integer> widths = textWidths.get(font);
+		return widths == null ? 0 : widths.size();
+	}
+
+	private void edited(TableColumn column, E element) {
+		if (!packed || element == null) {
+			return;
+		}
+		final boolean first = edited.isEmpty();
+		edited.computeIfAbsent(column, (c) -> new LinkedHashSet<>()).add(element);
+		if (first) {
+			/** The new value is only known once the model has been changed. */
+			viewer.getControl().getDisplay().asyncExec(this::widen);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<E> getRows() {
+		final Object input = viewer.getInput();
+		checkArgument(input instanceof List, "The input must be a list.");
+		return (List<E>) input;
+	}
+
+	private int measure(GC gc, String text) {
+		if (text == null || text.isEmpty()) {
+			return 0;
+		}
+		final Cache<String, Integer> widths = textWidths.computeIfAbsent(gc.getFont(),
+				(f) -> CacheBuilder.newBuilder().maximumSize(TEXT_WIDTHS_SIZE).build());
+		final Integer known = widths.getIfPresent(text);
+		if (known != null) {
+			return known;
+		}
+		final int width = gc.textExtent(text).x;
+		widths.put(text, width);
+		return width;
+	}
+
+	/**
+	 * Widens the columns whose edited labels do not fit.
+	 */
+	private void widen() {
+		final Table table = viewer.getTable();
+		if (table.isDisposed()) {
+			edited.clear();
+			return;
+		}
+		final List<Map.Entry<TableColumn, Set<E>>> entries = new ArrayList<>(edited.entrySet());
+		edited.clear();
+		final GC gc = new GC(table);
+		try {
+			for (Map.Entry<TableColumn, Set<E>> entry : entries) {
+				final TableColumn column = entry.getKey();
+				if (column.isDisposed()) {
+					continue;
+				}
+				final TypedEditingSupport<E, ?> editingSupport = columns.get(column);
+				int widest = 0;
+				for (E element : entry.getValue()) {
+					widest = Math.max(widest, measure(gc, editingSupport.getLabelTyped(element)));
+				}
+				if (widest + MARGIN > column.getWidth()) {
+					column.setWidth(widest + MARGIN);
+				}
+			}
+		} finally {
+			gc.dispose();
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A {@link HotPathRecorder} that keeps, for each {@link HotPath}, a counter and
+ * a latency histogram. The histogram has one bucket per power of two
+ * nanoseconds, thus percentiles are approximated within a factor of two.
+ * </p>
+ * <p>
+ * Install one object of this type per column of interest, using
+ * {@link TypedEditingSupport#setRecorder(HotPathRecorder)}. The statistics may
+ * also be exposed through JMX, using {@link #registerMBean()}.
+ * </p>
+ * <p>
+ * Objects of this type are thread-safe.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ */
+public class ColumnStatistics implements HotPathRecorder, ColumnStatisticsMXBean {
+	private static class PathStatistics {
+		private final LongAdder[] buckets;
+
+		private final LongAdder count;
+
+		private final LongAccumulator max;
+
+		private final LongAdder total;
+
+		public PathStatistics() {
+			count = new LongAdder();
+			total = new LongAdder();
+			max = new LongAccumulator(Math::max, 0);
+			buckets = new LongAdder[NB_BUCKETS];
+			for (int i = 0; i < NB_BUCKETS; ++i) {
+				buckets[i] = new LongAdder();
+			}
+		}
+
+		public void record(long elapsedNanos) {
+			final long nanos = Math.max(elapsedNanos, 0);
+			count.increment();
+			total.add(nanos);
+			max.accumulate(nanos);
+			buckets[bucketOf(nanos)].increment();
+		}
+
+		public void reset() {
+			count.reset();
+			total.reset();
+			max.reset();
+			for (LongAdder bucket : buckets) {
+				bucket.reset();
+			}
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(ColumnStatistics.class);
+
+	private static final int NB_BUCKETS = Long.SIZE;
+
+	/**
+	 * @return the index of the bucket containing durations in [2^(i-1), 2^i),
+	 *         with bucket zero containing zero only.
+	 */
+	static int bucketOf(long nanos) {
+		return Long.SIZE - Long.numberOfLeadingZeros(nanos);
+	}
+
+	private final String columnName;
+
+	private ObjectName objectName;
+
+	private final EnumMap<HotPath, PathStatistics> statistics;
+
+	/**
+	 * @param columnName
+	 *            the name under which these statistics are reported, not
+	 *            <code>null</code>.
+	 */
+	public ColumnStatistics(String columnName) {
+		this.columnName = requireNonNull(columnName);
+		statistics = new EnumMap<>(HotPath.class);
+		for (HotPath path : HotPath.values()) {
+			statistics.put(path, new PathStatistics());
+		}
+		objectName = null;
+	}
+
+	@Override
+	public String getColumnName() {
+		return columnName;
+	}
+
+	public long getCount(HotPath path) {
+		return statistics.get(path).count.sum();
+	}
+
+	@Override
+	public Map<String, Long> getCounts() {
+		return toMap(this::getCount);
+	}
+
+	/**
+	 * Returns a copy of the histogram of the given operation: the bucket at
+	 * index zero counts the executions of duration zero, and the one at index
+	 * <code>i</code> &gt; 0 counts the executions whose duration in nanoseconds
+	 * is in [2<sup>i-1</sup>, 2<sup>i</sup>).
+	 *
+	 * @param path
+	 *            not <code>null</code>.
+	 * @return an array of length 64.
+	 */
+	public long[] getHistogram(HotPath path) {
+		final LongAdder[] buckets = statistics.get(path).buckets;
+		final long[] histogram = new long[NB_BUCKETS];
+		for (int i = 0; i < NB_BUCKETS; ++i) {
+			histogram[i] = buckets[i].sum();
+		}
+		return histogram;
+	}
+
+	public long getMaxNanos(HotPath path) {
+		return statistics.get(path).max.get();
+	}
+
+	@Override
+	public Map<String, Long> getMaxNanos() {
+		return toMap(this::getMaxNanos);
+	}
+
+	/**
+	 * @return the mean duration, or zero if the operation has not been
+	 *         recorded.
+	 */
+	public double getMeanNanos(HotPath path) {
+		final PathStatistics pathStatistics = statistics.get(path);
+		final long count = pathStatistics.count.sum();
+		return count == 0 ? 0d : (double) pathStatistics.total.sum() / count;
+	}
+
+	@Override
+	public Map<String, Double> getMeanNanos() {
+		return toMap(this::getMeanNanos);
+	}
+
+	@Override
+	public Map<String, Long> getMedianNanos() {
+		return toMap((p) -> getPercentileNanos(p, 50d));
+	}
+
+	@Override
+	public Map<String, Long> getPercentile99Nanos() {
+		return toMap((p) -> getPercentileNanos(p, 99d));
+	}
+
+	/**
+	 * Returns an upper bound of the given percentile of the durations of the
+	 * given operation, namely, the upper limit of the histogram bucket where
+	 * that percentile falls (or the maximal duration recorded, if smaller).
+	 *
+	 * @param percentile
+	 *            in [0, 100].
+	 * @return zero if the operation has not been recorded.
+	 */
+	public long getPercentileNanos(HotPath path, double percentile) {
+		checkArgument(percentile >= 0d && percentile <= 100d);
+		final long[] histogram = getHistogram(path);
+		long count = 0;
+		for (long bucketCount : histogram) {
+			count += bucketCount;
+		}
+		if (count == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(percentile / 100d * count));
+		long seen = 0;
+		int bucket = 0;
+		while (seen + histogram[bucket] < rank) {
+			seen += histogram[bucket];
+			++bucket;
+		}
+		final long upper = bucket == 0 ? 0 : (1L << bucket) - 1;
+		return Math.min(upper, getMaxNanos(path));
+	}
+
+	public long getTotalNanos(HotPath path) {
+		return statistics.get(path).total.sum();
+	}
+
+	@Override
+	public void record(HotPath path, long elapsedNanos) {
+		statistics.get(path).record(elapsedNanos);
+	}
+
+	/**
+	 * Registers this object to the platform MBean server, under the domain of
+	 * this package, with type <code>ColumnStatistics</code> and the column name
+	 * of this object as name.
+	 *
+	 * @return the name this object is registered under.
+	 * @throws JMException
+	 *             if the registration fails, for example because some object
+	 *             is already registered under that name.
+	 */
+	public synchronized ObjectName registerMBean() throws JMException {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName name = new ObjectName(ColumnStatistics.class.getPackage().getName() + ":type="
+				+ ColumnStatistics.class.getSimpleName() + ",name=" + ObjectName.quote(columnName));
+		server.registerMBean(this, name);
+		objectName = name;
+		return name;
+	}
+
+	@Override
+	public void reset() {
+		for (PathStatistics pathStatistics : statistics.values()) {
+			pathStatistics.reset();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return columnName + ": " + getCounts();
+	}
+
+	/**
+	 * Unregisters this object from the platform MBean server, if it has been
+	 * registered using {@link #registerMBean()}.
+	 *
+	 * @throws JMException
+	 *             if the unregistration fails.
+	 */
+	public synchronized void unregisterMBean() throws JMException {
+		if (objectName != null) {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			objectName = null;
+		}
+	}
+
+	private <T> Map<String, T> toMap(Function<HotPath, T> function) {
+		final Map<String, T> map = new LinkedHashMap<>();
+		for (HotPath path : HotPath.values()) {
+			map.put(path.name(), function.apply(path));
+		}
+		return map;
+	}
+}
@@ -0,0 +1,26 @@
+package io.github.oliviercailloux.swt_tools;
+
+import java.util.Map;
+
+/**
+ * The JMX view of a {@link ColumnStatistics}. The maps are indexed by the names
+ * of the {@link HotPath} constants.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+public interface ColumnStatisticsMXBean {
+	public String getColumnName();
+
+	public Map<String, Long> getCounts();
+
+	public Map<String, Long> getMaxNanos();
+
+	public Map<String, Double> getMeanNanos();
+
+	public Map<String, Long> getMedianNanos();
+
+	public Map<String, Long> getPercentile99Nanos();
+
+	public void reset();
+}
@@ -0,0 +1,320 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.eclipse.jface.viewers.ColumnViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A table model storing its columns as arrays of primitive values, rather than
+ * as one object per row. The rows are identified by their index, and the
+ * viewer elements are these indices (see {@link #getRows()}), thus a table
+ * holding many numeric cells takes about the memory of the raw values.
+ * </p>
+ * <p>
+ * Each column stores its values in chunks of {@link #CHUNK_SIZE} values,
+ * allocated as rows are added, so that adding rows never copies the values
+ * already stored. Columns added when the table already has rows, and rows
+ * added, start with zero values.
+ * </p>
+ * <p>
+ * The columns give editing supports that read and write their arrays directly
+ * (for example, {@link IntColumn#newEditingSupport(ColumnViewer)}), to be used
+ * with the usual methods of {@link JFace}, typically on a virtual table viewer
+ * whose input is set with
+ * {@link JFace#setVirtualInput(TableViewer, List) JFace.setVirtualInput(viewer, table.getRows())}.
+ * </p>
+ * <p>
+ * Objects of this type are not thread-safe.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ */
+public class ColumnarTable {
+	/**
+	 * A column of this table.
+	 */
+	public abstract class Column {
+		Column() {
+			/** Subclassed only in this class. */
+		}
+
+		/**
+		 * Returns the table this column belongs to.
+		 */
+		public ColumnarTable getTable() {
+			return ColumnarTable.this;
+		}
+
+		/**
+		 * Ensures that this column has at least the given number of chunks.
+		 */
+		abstract void grow(int chunkCount);
+	}
+
+	/**
+	 * A column of <code>double</code> values.
+	 */
+	public class DoubleColumn extends Column {
+		private double[][] chunks;
+
+		DoubleColumn() {
+			chunks = new double[0][];
+			grow(chunkCount);
+		}
+
+		public double get(int row) {
+			checkElementIndex(row, rowCount);
+			return chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+		}
+
+		/**
+		 * Returns an editing support reading and writing the values of this
+		 * column, whose elements are the rows of this table.
+		 */
+		public DoubleEditingSupport<Integer> newEditingSupport(ColumnViewer viewer) {
+			return new DoubleEditingSupport<Integer>(viewer, Integer.class) {
+				@Override
+				public double getDoubleValue(Integer element) {
+					return get(element);
+				}
+
+				@Override
+				public void setDoubleValue(Integer element, double value) {
+					set(element, value);
+				}
+			};
+		}
+
+		public void set(int row, double value) {
+			checkElementIndex(row, rowCount);
+			chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] = value;
+		}
+
+		@Override
+		void grow(int count) {
+			final int previous = chunks.length;
+			if (count > previous) {
+				chunks = Arrays.copyOf(chunks, count);
+				for (int i = previous; i < count; ++i) {
+					chunks[i] = new double[CHUNK_SIZE];
+				}
+			}
+		}
+	}
+
+	/**
+	 * A column of <code>int</code> values.
+	 */
+	public class IntColumn extends Column {
+		private int[][] chunks;
+
+		IntColumn() {
+			chunks = new int[0][];
+			grow(chunkCount);
+		}
+
+		public int get(int row) {
+			checkElementIndex(row, rowCount);
+			return chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+		}
+
+		/**
+		 * Returns an editing support reading and writing the values of this
+		 * column, whose elements are the rows of this table.
+		 */
+		public IntEditingSupport<Integer> newEditingSupport(ColumnViewer viewer) {
+			return new IntEditingSupport<Integer>(viewer, Integer.class) {
+				@Override
+				public int getIntValue(Integer element) {
+					return get(element);
+				}
+
+				@Override
+				public void setIntValue(Integer element, int value) {
+					set(element, value);
+				}
+			};
+		}
+
+		public void set(int row, int value) {
+			checkElementIndex(row, rowCount);
+			chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] = value;
+		}
+
+		@Override
+		void grow(int count) {
+			final int previous = chunks.length;
+			if (count > previous) {
+				chunks = Arrays.copyOf(chunks, count);
+				for (int i = previous; i < count; ++i) {
+					chunks[i] = new int[CHUNK_SIZE];
+				}
+			}
+		}
+	}
+
+	/**
+	 * A column of <code>long</code> values.
+	 */
+	public class LongColumn extends Column {
+		private long[][] chunks;
+
+		LongColumn() {
+			chunks = new long[0][];
+			grow(chunkCount);
+		}
+
+		public long get(int row) {
+			checkElementIndex(row, rowCount);
+			return chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+		}
+
+		/**
+		 * Returns an editing support reading and writing the values of this
+		 * column, whose elements are the rows of this table.
+		 */
+		public LongEditingSupport<Integer> newEditingSupport(ColumnViewer viewer) {
+			return new LongEditingSupport<Integer>(viewer, Integer.class) {
+				@Override
+				public long getLongValue(Integer element) {
+					return get(element);
+				}
+
+				@Override
+				public void setLongValue(Integer element, long value) {
+					set(element, value);
+				}
+			};
+		}
+
+		public void set(int row, long value) {
+			checkElementIndex(row, rowCount);
+			chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] = value;
+		}
+
+		@Override
+		void grow(int count) {
+			final int previous = chunks.length;
+			if (count > previous) {
+				chunks = Arrays.copyOf(chunks, count);
+				for (int i = previous; i < count; ++i) {
+					chunks[i] = new long[CHUNK_SIZE];
+				}
+			}
+		}
+	}
+
+	/**
+	 * The indices of the rows of the table, computed on demand.
+	 */
+	private class Rows extends AbstractList<Integer> implements RandomAccess {
+		Rows() {
+			/** Nothing to initialize. */
+		}
+
+		@Override
+		public Integer get(int index) {
+			checkElementIndex(index, rowCount);
+			return index;
+		}
+
+		@Override
+		public int size() {
+			return rowCount;
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarTable.class);
+
+	private static final int CHUNK_SHIFT = 14;
+
+	/**
+	 * The number of values per chunk; a power of two.
+	 */
+	public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/**
+	 * The number of chunks of each column.
+	 */
+	private int chunkCount;
+
+	private final List<Column> columns;
+
+	private int rowCount;
+
+	private final Rows rows;
+
+	public ColumnarTable() {
+		columns = new ArrayList<>();
+		rowCount = 0;
+		chunkCount = 0;
+		rows = new Rows();
+	}
+
+	public DoubleColumn addDoubleColumn() {
+		final DoubleColumn column = new DoubleColumn();
+		columns.add(column);
+		return column;
+	}
+
+	public IntColumn addIntColumn() {
+		final IntColumn column = new IntColumn();
+		columns.add(column);
+		return column;
+	}
+
+	public LongColumn addLongColumn() {
+		final LongColumn column = new LongColumn();
+		columns.add(column);
+		return column;
+	}
+
+	/**
+	 * Adds the given number of rows, with zero values, at the end of this
+	 * table.
+	 *
+	 * @return the index of the first row added.
+	 */
+	public int addRows(int count) {
+		checkArgument(count >= 0);
+		checkArgument(count <= Integer.MAX_VALUE - rowCount, "Too many rows.");
+		final int first = rowCount;
+		final int needed = (int) (((long) first + count + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+		if (needed > chunkCount) {
+			for (Column column : columns) {
+				column.grow(needed);
+			}
+			chunkCount = needed;
+		}
+		rowCount = first + count;
+		return first;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns the indices of the rows of this table, from zero, as a read-only
+	 * view: its size follows the number of rows. Its elements are created on
+	 * demand, thus the list takes no memory per row.
+	 */
+	public List<Integer> getRows() {
+		return rows;
+	}
+}
@@ -1,13 +1,25 @@
 package io.github.oliviercailloux.swt_tools;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.CellEditor;
 import org.eclipse.jface.viewers.ColumnViewer;
 import org.eclipse.jface.viewers.ComboBoxViewerCellEditor;
+import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.LabelProvider;
-import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CCombo;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Control;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,6 +62,25 @@ import com.google.common.collect.ImmutableList;
  * uses {@link Object#toString()}). The latter is used to show the entries in
  * the combo box to the end-user.
  * </p>
+ * <p>
+ * The underlying cell editor, with its content and label providers and its
+ * input, is created the first time it is needed. It may be shared with the
+ * other combo box editing supports of the same viewer that share theirs (see
+ * {@link #setSharedCellEditor(boolean)}); this object then sets its label
+ * provider and its items when taking it.
+ * </p>
+ * <p>
+ * When the list of items is large, the user may enable the type-ahead mode
+ * (see {@link #setTypeAhead(int, boolean)}), in which the combo box only shows
+ * a bounded number of items that match the text typed by the end-user.
+ * </p>
+ * <p>
+ * When the items are too many to be held in memory, the user may instead set
+ * an item source (see {@link #setItemSource(PagedItemSource)}), which gives
+ * the items matching the text typed, by pages: the combo box shows the first
+ * page, and the next one each time the end-user presses the Page Down key. The
+ * pages are fetched off the UI thread.
+ * </p>
  *
  * @author Olivier Cailloux
  *
@@ -63,39 +94,124 @@ public abstract class ComboBoxEditingSupport<E, V> extends TypedEditingSupportCo
 	@SuppressWarnings("unused")
 	static final Logger LOGGER = LoggerFactory.getLogger(ComboBoxEditingSupport.class);
 
+	private boolean filtering;
+
+	/**
+	 * <code>null</code> iff the type-ahead mode is not enabled.
+	 */
+	private ItemIndex<V> index;
+
 	private List<V> items;
 
+	private final LabelProvider labelProvider;
+
+	/**
+	 * The cell editors on whose combo box this object listens for the text
+	 * typed, in type-ahead mode.
+	 */
+	private final Set<CellEditor> listened;
+
+	/**
+	 * The page being fetched from the item source, to be shown once fetched;
+	 * <code>null</code> if none. A page fetched that is no more this one has
+	 * been superseded, for example by a page matching a text typed since then,
+	 * and is not shown.
+	 */
+	private CompletableFuture<List<V>> pendingPage;
+
+	/**
+	 * The choices currently shown, when using an item source.
+	 */
+	private List<V> shown;
+
+	/**
+	 * The value of the element being edited, when using an item source and
+	 * shown first because it is not in the first page; otherwise
+	 * <code>null</code>. It is the only choice shown that may also be in a
+	 * next page.
+	 */
+	private V shownCurrent;
+
+	/**
+	 * The number of pages currently shown, when using an item source.
+	 */
+	private int shownPages;
+
+	/**
+	 * The text matched by the choices currently shown, when using an item
+	 * source.
+	 */
+	private String shownText;
+
+	/**
+	 * <code>null</code> iff the items are not given by a source.
+	 */
+	private PagedItemSource<V> source;
+
+	private int typeAheadMaxResults;
+
+	private boolean typeAheadSubstring;
+
 	/**
 	 * @param viewer
 	 *            must have a composite as underlying control.
 	 */
 	public ComboBoxEditingSupport(ColumnViewer viewer, Class<E> classOfElements, Class<V> classOfValues) {
 		super(viewer, classOfElements, classOfValues);
-		setCellEditor(new ComboBoxViewerCellEditor((Composite) viewer.getControl()));
-		/**
-		 * We could implement inputChanged on the array content provider to
-		 * intercept input.
-		 */
-		getComboBoxCellEditor().setContentProvider(ArrayContentProvider.getInstance());
-		getComboBoxCellEditor().setLabelProvider(new LabelProvider() {
+		labelProvider = new LabelProvider() {
 			@Override
 			public String getText(Object value) {
 				final V typedValue = getTypedValue(value);
 				return ComboBoxEditingSupport.this.toString(typedValue);
 			}
-		});
+		};
+		listened = Collections.newSetFromMap(new IdentityHashMap<>());
+		setCellEditorFactory(RevalidatingCellEditor.ComboBox::new, ComboBoxViewerCellEditor.class.getName());
 		setFirstLevelValidator(value -> value == null ? "The selection must be one of the provided choices." : null);
+		index = null;
+		filtering = false;
+		typeAheadMaxResults = 0;
+		typeAheadSubstring = false;
+		source = null;
+		pendingPage = null;
+		shown = ImmutableList.of();
+		shownCurrent = null;
+		shownPages = 0;
+		shownText = "";
 		setItems(null);
 	}
 
+	/**
+	 * Returns the underlying cell editor, binding it to this object if it is
+	 * shared. In type-ahead mode or when using an item source, this first sets
+	 * as choices the first matching items for an empty text, plus the current
+	 * value of the element, so that it can be selected. When using an item
+	 * source, the choices are the current value only until the first page is
+	 * fetched, if it is not kept by the source.
+	 */
 	@Override
 	public CellEditor getCellEditorTyped(E element) {
-		return getCellEditor();
+		final ComboBoxViewerCellEditor cellEditor = (ComboBoxViewerCellEditor) takeCellEditor();
+		if (isMatchingText()) {
+			final V current = readValue(element);
+			if (source == null) {
+				final List<V> choices = new ArrayList<>(matching(""));
+				if (current != null && !choices.contains(current)) {
+					choices.add(0, current);
+				}
+				cellEditor.setInput(choices);
+			} else {
+				cellEditor.setInput(current == null ? ImmutableList.of() : ImmutableList.of(current));
+				showFirstPage("", current);
+			}
+		}
+		return cellEditor;
 	}
 
 	/**
-	 * Returns the underlying cell editor. This returns the same object than
-	 * {@link #getCellEditorTyped(Object)}, and the same object than
+	 * Returns the underlying cell editor, creating it if necessary, without
+	 * binding it to this object if it is shared. This returns the same object
+	 * than {@link #getCellEditorTyped(Object)}, and the same object than
 	 * {@link #getCellEditor()}.
 	 *
 	 * @return not <code>null</code>.
@@ -117,7 +233,51 @@ public abstract class ComboBoxEditingSupport<E, V> extends TypedEditingSupportCo
 	}
 
 	/**
-	 * Sets the input items to the underlying ComboBoxCellEditor.
+	 * Returns the source of the items, if set using
+	 * {@link #setItemSource(PagedItemSource)}.
+	 *
+	 * @return <code>null</code> if not set.
+	 */
+	public PagedItemSource<V> getItemSource() {
+		return source;
+	}
+
+	/**
+	 * <p>
+	 * Sets the source of the items, which replaces the items set using
+	 * {@link #setItems(List)} until that method is called again. The combo box
+	 * then shows the first page of the items matching the text typed by the
+	 * end-user (as decided by the source), and the next page each time the
+	 * end-user presses the Page Down key, thanks to which the next page is
+	 * usually ready, having been prefetched.
+	 * </p>
+	 * <p>
+	 * The end-user may select only among the items shown, thus, the items still
+	 * must be one of the provided choices. The pages not kept by the source are
+	 * fetched using its prefetching executor, then shown from the UI thread,
+	 * unless the end-user has typed an other text in the meantime: the UI
+	 * thread does not wait for the source.
+	 * </p>
+	 *
+	 * @param source
+	 *            <code>null</code> to use the items set using
+	 *            {@link #setItems(List)}.
+	 */
+	public void setItemSource(PagedItemSource<V> source) {
+		this.source = source;
+		pendingPage = null;
+		final ComboBoxViewerCellEditor bound = (ComboBoxViewerCellEditor) getBoundCellEditor();
+		if (bound != null) {
+			if (isMatchingText()) {
+				listen(bound);
+			}
+			setInitialChoices(bound);
+		}
+	}
+
+	/**
+	 * Sets the input items to the underlying ComboBoxCellEditor, and stops
+	 * using the item source, if any.
 	 *
 	 * @param items
 	 *            a <code>null</code> value is converted to an empty list.
@@ -125,10 +285,265 @@ public abstract class ComboBoxEditingSupport<E, V> extends TypedEditingSupportCo
 	public void setItems(List<V> items) {
 		final List<V> its = items == null ? ImmutableList.of() : items;
 		this.items = its;
-		getComboBoxCellEditor().setInput(items);
+		source = null;
+		pendingPage = null;
+		if (index != null) {
+			index = ItemIndex.create(its, this::toString);
+		}
+		final ComboBoxViewerCellEditor bound = (ComboBoxViewerCellEditor) getBoundCellEditor();
+		if (bound != null) {
+			setInitialChoices(bound);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Enables the type-ahead mode, or changes its parameters. In that mode, the
+	 * combo box shows at most the given number of items, whose labels (as given
+	 * by {@link #toString(Object) #toString(V)}) match the text typed by the
+	 * end-user, ignoring case. Matches are found using an {@link ItemIndex},
+	 * built once per call to {@link #setItems(List)}, thus the labels of the
+	 * items are computed once per call to that method.
+	 * </p>
+	 * <p>
+	 * The end-user may select only among the items shown, thus, the items still
+	 * must be one of the provided choices.
+	 * </p>
+	 *
+	 * @param maxResults
+	 *            a positive number.
+	 * @param substring
+	 *            <code>true</code> to show the items whose label contains the
+	 *            text typed, <code>false</code> to show those whose label starts
+	 *            with it.
+	 */
+	public void setTypeAhead(int maxResults, boolean substring) {
+		checkArgument(maxResults > 0);
+		typeAheadMaxResults = maxResults;
+		typeAheadSubstring = substring;
+		index = ItemIndex.create(items, this::toString);
+		final ComboBoxViewerCellEditor bound = (ComboBoxViewerCellEditor) getBoundCellEditor();
+		if (bound != null) {
+			listen(bound);
+			setInitialChoices(bound);
+		}
+	}
+
+	public boolean isTypeAhead() {
+		return index != null;
+	}
+
+	/**
+	 * Returns the text shown for the value of the given element, using
+	 * {@link #toString(Object) #toString(V)}.
+	 */
+	@Override
+	public String getLabelTyped(E element) {
+		return toString(readValue(element));
 	}
 
 	public String toString(V value) {
 		return value == null ? "" : value.toString();
 	}
+
+	/**
+	 * Sets the content and label providers and the items of this object on the
+	 * given cell editor.
+	 */
+	@Override
+	void bind(CellEditor cellEditor) {
+		super.bind(cellEditor);
+		final ComboBoxViewerCellEditor comboEditor = (ComboBoxViewerCellEditor) cellEditor;
+		/**
+		 * Removing the input first avoids refreshing the previous items with the
+		 * new label provider.
+		 */
+		comboEditor.setInput(null);
+		if (comboEditor.getViewer().getContentProvider() != ArrayContentProvider.getInstance()) {
+			comboEditor.setContentProvider(ArrayContentProvider.getInstance());
+		}
+		if (comboEditor.getViewer().getLabelProvider() != labelProvider) {
+			comboEditor.setLabelProvider(labelProvider);
+		}
+		if (isMatchingText()) {
+			listen(comboEditor);
+		}
+		setInitialChoices(comboEditor);
+	}
+
+	/**
+	 * Returns whether the choices shown are restricted to the items matching the
+	 * text typed, that is, whether in type-ahead mode or using an item source.
+	 */
+	private boolean isMatchingText() {
+		return index != null || source != null;
+	}
+
+	private void listen(ComboBoxViewerCellEditor comboEditor) {
+		if (listened.add(comboEditor)) {
+			final CCombo combo = comboEditor.getViewer().getCCombo();
+			combo.addModifyListener((e) -> filter());
+			combo.addListener(SWT.KeyDown, (e) -> {
+				if (e.keyCode == SWT.PAGE_DOWN) {
+					showNextPage();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Restricts the choices to the items matching the text of the combo box,
+	 * preserving that text and the caret. Does nothing if the text is the label
+	 * of the selected item, as happens when the text is set by a selection rather
+	 * than typed.
+	 */
+	private void filter() {
+		if (filtering || !isMatchingText()) {
+			return;
+		}
+		final ComboBoxViewerCellEditor bound = (ComboBoxViewerCellEditor) getBoundCellEditor();
+		if (bound == null) {
+			/** Typed in the combo box while it is used by an other column. */
+			return;
+		}
+		final CCombo combo = bound.getViewer().getCCombo();
+		final String text = combo.getText();
+		final IStructuredSelection selection = bound.getViewer().getStructuredSelection();
+		if (!selection.isEmpty() && text.equals(toString(getTypedValue(selection.getFirstElement())))) {
+			return;
+		}
+		if (source == null) {
+			setChoicesKeepingText(bound, matching(text));
+		} else {
+			showFirstPage(text, null);
+		}
+	}
+
+	/**
+	 * Returns the first items matching the given text, in type-ahead mode.
+	 */
+	private List<V> matching(String text) {
+		return typeAheadSubstring ? index.containing(text, typeAheadMaxResults)
+				: index.startingWith(text, typeAheadMaxResults);
+	}
+
+	/**
+	 * Sets on the given cell editor the items, or, in type-ahead mode, the first
+	 * items matching an empty text; or, when using an item source, starts
+	 * showing the first page of the items.
+	 */
+	private void setInitialChoices(ComboBoxViewerCellEditor comboEditor) {
+		if (source == null) {
+			comboEditor.setInput(index == null ? items : matching(""));
+		} else {
+			comboEditor.setInput(ImmutableList.of());
+			showFirstPage("", null);
+		}
+	}
+
+	/**
+	 * Sets the given choices, preserving the text of the combo box and the
+	 * caret.
+	 */
+	private void setChoicesKeepingText(ComboBoxViewerCellEditor bound, List<V> choices) {
+		final CCombo combo = bound.getViewer().getCCombo();
+		final String text = combo.getText();
+		filtering = true;
+		try {
+			final Point caret = combo.getSelection();
+			bound.setInput(choices);
+			combo.setText(text);
+			combo.setSelection(caret);
+		} finally {
+			filtering = false;
+		}
+	}
+
+	/**
+	 * Shows, once fetched, the first page of the items matching the given text,
+	 * preceded by the given value if it is not in that page, so that it can be
+	 * selected.
+	 *
+	 * @param current
+	 *            <code>null</code> for none.
+	 */
+	private void showFirstPage(String text, V current) {
+		whenFetched(source.getPageAsync(text, 0), (bound, page) -> {
+			final boolean added = current != null && !page.contains(current);
+			final List<V> choices = new ArrayList<>(page.size() + 1);
+			if (added) {
+				choices.add(current);
+			}
+			choices.addAll(page);
+			shown = choices;
+			shownCurrent = added ? current : null;
+			shownPages = 1;
+			shownText = text;
+			setChoicesKeepingText(bound, choices);
+		});
+	}
+
+	/**
+	 * When using an item source, adds to the choices shown the next page of the
+	 * items matching the text, if any, once fetched. Does nothing while an
+	 * other page is being fetched.
+	 */
+	private void showNextPage() {
+		if (source == null || pendingPage != null || getBoundCellEditor() == null) {
+			return;
+		}
+		whenFetched(source.getPageAsync(shownText, shownPages), (bound, page) -> {
+			if (page.isEmpty()) {
+				return;
+			}
+			final List<V> choices = new ArrayList<>(shown.size() + page.size());
+			choices.addAll(shown);
+			for (V item : page) {
+				if (!item.equals(shownCurrent)) {
+					choices.add(item);
+				}
+			}
+			shown = choices;
+			++shownPages;
+			setChoicesKeepingText(bound, choices);
+		});
+	}
+
+	/**
+	 * Gives the given page, once fetched, to the given action, with the cell
+	 * editor bound to this object, from the UI thread: immediately if the page
+	 * is already fetched, and otherwise through
+	 * {@link org.eclipse.swt.widgets.Display#asyncExec(Runnable)}, unless an
+	 * other page has been asked for in the meantime or the cell editor is no
+	 * more bound to this object.
+	 */
+	private void whenFetched(CompletableFuture<List<V>> page,
+			BiConsumer<ComboBoxViewerCellEditor, List<V>> action) {
+		if (page.isDone() && !page.isCompletedExceptionally()) {
+			pendingPage = null;
+			final ComboBoxViewerCellEditor bound = (ComboBoxViewerCellEditor) getBoundCellEditor();
+			if (bound != null) {
+				action.accept(bound, page.join());
+			}
+			return;
+		}
+		pendingPage = page;
+		final Control control = getViewer().getControl();
+		page.whenCompleteAsync((items, throwable) -> {
+			/** A more recent page may have been asked for in the meantime. */
+			if (pendingPage != page || control.isDisposed()) {
+				return;
+			}
+			pendingPage = null;
+			if (throwable != null) {
+				LOGGER.warn("Could not fetch a page of the items.", throwable);
+				return;
+			}
+			final ComboBoxViewerCellEditor bound = (ComboBoxViewerCellEditor) getBoundCellEditor();
+			final Control combo = bound == null ? null : bound.getControl();
+			if (combo != null && !combo.isDisposed()) {
+				action.accept(bound, items);
+			}
+		}, control.getDisplay()::asyncExec);
+	}
 }
\ No newline at end of file
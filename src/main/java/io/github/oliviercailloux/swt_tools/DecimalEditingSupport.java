@@ -0,0 +1,168 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.function.Function;
+
+import org.eclipse.jface.viewers.ColumnViewer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A {@link TextEditingSupport} that further restricts its content to values
+ * that can be converted to {@link BigDecimal}s, suitable for amounts of money,
+ * for example.
+ * </p>
+ * <p>
+ * Values are shown and read according to a locale, given at construction time
+ * (the default format locale by default): for example, <code>1 234,50</code>
+ * in French. Values are shown with their scale, thus, <code>1.50</code> is
+ * shown with two fraction digits. A <code>null</code> value is shown as an
+ * empty text; the user may not however enter an empty text. The
+ * locale-dependent formatters are shared among the editing supports and
+ * reused.
+ * </p>
+ * <p>
+ * As with {@link IntEditingSupport}, the user is not constrained while typing,
+ * and the value parsed when validating is reused when committing.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements returned by the underlying column viewer.
+ */
+public abstract class DecimalEditingSupport<E> extends TextEditingSupport<E> {
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(DecimalEditingSupport.class);
+
+	/**
+	 * The text most recently parsed by this object, or <code>null</code>.
+	 */
+	private String lastParsedText;
+
+	/**
+	 * The result of parsing {@link #lastParsedText}, <code>null</code> if
+	 * invalid.
+	 */
+	private BigDecimal lastParsedValue;
+
+	private final LocalizedNumbers numbers;
+
+	public DecimalEditingSupport(ColumnViewer viewer, Class<E> classOfElements) {
+		this(viewer, classOfElements, Locale.getDefault(Locale.Category.FORMAT));
+	}
+
+	public DecimalEditingSupport(ColumnViewer viewer, Class<E> classOfElements, Locale locale) {
+		super(viewer, classOfElements);
+		numbers = LocalizedNumbers.of(locale);
+		lastParsedText = null;
+		lastParsedValue = null;
+		setFirstLevelValidator(v -> v == null || parse(v) == null ? "Number required." : null,
+				v -> v == null || parseUncached(v) == null ? "Number required." : null);
+	}
+
+	/**
+	 * <p>
+	 * Get the value to set to the editor.
+	 * </p>
+	 * <p>
+	 * This method is simply a better typed equivalent to {@link #getValue(Object)}.
+	 * </p>
+	 *
+	 * @param element
+	 *            the model element
+	 * @return the value shown, may be <code>null</code>.
+	 */
+	public abstract BigDecimal getDecimalValue(E element);
+
+	@Override
+	public String getValueTyped(E element) {
+		final BigDecimal value = getDecimalValue(element);
+		return value == null ? "" : numbers.format(value);
+	}
+
+	/**
+	 * <p>
+	 * Sets the new value on the given element. When a property is set (see
+	 * {@link #setProperty(String)}), this object then updates the element in the
+	 * viewer, scoped to that property. Otherwise, implementers need to ensure
+	 * that <code>getViewer().update(element, null)</code> or similar methods are
+	 * called, either directly or through some kind of listener mechanism on the
+	 * implementer's model, to cause the new value to appear in the viewer.
+	 * </p>
+	 *
+	 * <p>
+	 * This method is simply a better typed equivalent to
+	 * {@link #setValue(Object, Object)}.
+	 * </p>
+	 *
+	 * @param element
+	 *            the model element
+	 * @param value
+	 *            the new value, not <code>null</code>
+	 */
+	public abstract void setDecimalValue(E element, BigDecimal value);
+
+	/**
+	 * <p>
+	 * Sets the input validator for this cell editor.
+	 * </p>
+	 * <p>
+	 * The validator is given the (decimal) value to be validated, and must return
+	 * a string indicating whether the given value is valid; <code>null</code> means
+	 * valid, and non-<code>null</code> means invalid, with the result being the
+	 * error message to display to the end user. It is only invoked with values
+	 * accepted by the first-level validator of this object, thus, never with
+	 * <code>null</code>.
+	 * </p>
+	 *
+	 * @param valueToErrorMessage
+	 *            the input validator, or <code>null</code> if none
+	 */
+	public void setDecimalValidator(Function<BigDecimal, String> valueToErrorMessage) {
+		if (valueToErrorMessage == null) {
+			setValidator(null);
+		} else {
+			setValidator(v -> valueToErrorMessage.apply(parse(v)), v -> valueToErrorMessage.apply(parseUncached(v)));
+		}
+	}
+
+	@Override
+	public void setValueTyped(E element, String value) {
+		assert value != null;
+		final BigDecimal parsed = parse(value);
+		checkArgument(parsed != null, "Not a number: %s.", value);
+		setDecimalValue(element, parsed);
+	}
+
+	/**
+	 * Parses the given text, reusing the previous result if the text is equal to
+	 * the one parsed previously.
+	 *
+	 * @return <code>null</code> iff the text does not represent a number.
+	 */
+	private BigDecimal parse(String text) {
+		if (!text.equals(lastParsedText)) {
+			lastParsedValue = parseUncached(text);
+			lastParsedText = text;
+		}
+		return lastParsedValue;
+	}
+
+	/**
+	 * Parses the given text without touching the previous result, for the
+	 * validations that run outside the UI thread.
+	 *
+	 * @return <code>null</code> iff the text does not represent a number.
+	 */
+	private BigDecimal parseUncached(String text) {
+		final String normalized = numbers.normalize(text);
+		return normalized == null ? null : new BigDecimal(normalized);
+	}
+
+}
@@ -0,0 +1,163 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Locale;
+import java.util.function.DoubleFunction;
+
+import org.eclipse.jface.viewers.ColumnViewer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A {@link TextEditingSupport} that further restricts its content to values
+ * that can be converted to (finite) doubles.
+ * </p>
+ * <p>
+ * Values are shown and read according to a locale, given at construction time
+ * (the default format locale by default): for example, <code>1 234,5</code> in
+ * French. Values are shown with all the digits required to read them back
+ * identically, thus, editing a cell without changing its text does not change
+ * the value. Exponents are not accepted. The locale-dependent formatters are
+ * shared among the editing supports and reused.
+ * </p>
+ * <p>
+ * As with {@link IntEditingSupport}, the user is not constrained while typing,
+ * and the value parsed when validating is reused when committing.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements returned by the underlying column viewer.
+ */
+public abstract class DoubleEditingSupport<E> extends TextEditingSupport<E> {
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(DoubleEditingSupport.class);
+
+	/**
+	 * The text most recently parsed by this object, or <code>null</code>.
+	 */
+	private String lastParsedText;
+
+	/**
+	 * The result of parsing {@link #lastParsedText}, NaN if invalid.
+	 */
+	private double lastParsedValue;
+
+	private final LocalizedNumbers numbers;
+
+	public DoubleEditingSupport(ColumnViewer viewer, Class<E> classOfElements) {
+		this(viewer, classOfElements, Locale.getDefault(Locale.Category.FORMAT));
+	}
+
+	public DoubleEditingSupport(ColumnViewer viewer, Class<E> classOfElements, Locale locale) {
+		super(viewer, classOfElements);
+		numbers = LocalizedNumbers.of(locale);
+		lastParsedText = null;
+		lastParsedValue = Double.NaN;
+		setFirstLevelValidator(v -> v == null || Double.isNaN(parse(v)) ? "Number required." : null,
+				v -> v == null || Double.isNaN(parseUncached(v)) ? "Number required." : null);
+	}
+
+	/**
+	 * <p>
+	 * Get the value to set to the editor.
+	 * </p>
+	 * <p>
+	 * This method is simply a better typed equivalent to {@link #getValue(Object)}.
+	 * </p>
+	 *
+	 * @param element
+	 *            the model element
+	 * @return the value shown.
+	 */
+	public abstract double getDoubleValue(E element);
+
+	@Override
+	public String getValueTyped(E element) {
+		return numbers.format(getDoubleValue(element));
+	}
+
+	/**
+	 * <p>
+	 * Sets the new value on the given element. When a property is set (see
+	 * {@link #setProperty(String)}), this object then updates the element in the
+	 * viewer, scoped to that property. Otherwise, implementers need to ensure
+	 * that <code>getViewer().update(element, null)</code> or similar methods are
+	 * called, either directly or through some kind of listener mechanism on the
+	 * implementer's model, to cause the new value to appear in the viewer.
+	 * </p>
+	 *
+	 * <p>
+	 * This method is simply a better typed equivalent to
+	 * {@link #setValue(Object, Object)}.
+	 * </p>
+	 *
+	 * @param element
+	 *            the model element
+	 * @param value
+	 *            the new value, finite
+	 */
+	public abstract void setDoubleValue(E element, double value);
+
+	/**
+	 * <p>
+	 * Sets the input validator for this cell editor.
+	 * </p>
+	 * <p>
+	 * The validator is given the (double) value to be validated, and must return a
+	 * string indicating whether the given value is valid; <code>null</code> means
+	 * valid, and non-<code>null</code> means invalid, with the result being the
+	 * error message to display to the end user. It is only invoked with values
+	 * accepted by the first-level validator of this object.
+	 * </p>
+	 *
+	 * @param valueToErrorMessage
+	 *            the input validator, or <code>null</code> if none
+	 */
+	public void setDoubleValidator(DoubleFunction<String> valueToErrorMessage) {
+		if (valueToErrorMessage == null) {
+			setValidator(null);
+		} else {
+			setValidator(v -> valueToErrorMessage.apply(parse(v)), v -> valueToErrorMessage.apply(parseUncached(v)));
+		}
+	}
+
+	@Override
+	public void setValueTyped(E element, String value) {
+		assert value != null;
+		final double parsed = parse(value);
+		checkArgument(!Double.isNaN(parsed), "Not a number: %s.", value);
+		setDoubleValue(element, parsed);
+	}
+
+	/**
+	 * Parses the given text, reusing the previous result if the text is equal to
+	 * the one parsed previously.
+	 *
+	 * @return NaN iff the text does not represent a finite double.
+	 */
+	private double parse(String text) {
+		if (!text.equals(lastParsedText)) {
+			lastParsedValue = parseUncached(text);
+			lastParsedText = text;
+		}
+		return lastParsedValue;
+	}
+
+	/**
+	 * Parses the given text, leaving the previous result untouched, so that it
+	 * may be called from any thread.
+	 *
+	 * @return NaN iff the text does not represent a finite double.
+	 */
+	private double parseUncached(String text) {
+		final String normalized = numbers.normalize(text);
+		final double value = normalized == null ? Double.NaN : Double.parseDouble(normalized);
+		return Double.isInfinite(value) ? Double.NaN : value;
+	}
+
+}
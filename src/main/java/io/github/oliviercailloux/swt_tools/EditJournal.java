@@ -0,0 +1,472 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Splitter;
+
+/**
+ * <p>
+ * Records the edits sent to the model through the typed editing supports of
+ * some columns, to undo and redo them, and to recover them after a crash.
+ * </p>
+ * <p>
+ * Each edit is recorded as the key of the element (a <code>long</code>, given
+ * by a function at construction time), the column, the old and the new value.
+ * The most recent edits are kept in a ring buffer of fixed capacity, made of
+ * one array per component rather than one object per edit; older edits can
+ * not be undone. Undoing and redoing send the values back to the model through
+ * the editing support of the column (thus through
+ * {@link TypedEditingSupport#setValueTyped(Object, Object) setValueTyped}, and
+ * with the usual invalidations and viewer updates).
+ * </p>
+ * <p>
+ * Each change of value (including those resulting from undoing and redoing)
+ * is also appended, as a line of text, to a journal file, in batches: the
+ * pending lines are written, and forced to the disk, when they reach the batch
+ * size, and when {@link #flush()} or {@link #close()} is called. The user may
+ * call {@link #flush()} periodically (for example using
+ * {@link org.eclipse.swt.widgets.Display#timerExec(int, Runnable)}) to bound
+ * the number of edits lost in a crash. After a crash, {@link #replay()} sends
+ * the changes recorded in the file to the model again. Values are written as
+ * text, using a codec given per column. Once the model has been saved, the
+ * user should call {@link #checkpoint()}, which empties the file, so that it
+ * only keeps the changes made since the last save.
+ * </p>
+ * <p>
+ * This object must be used from the UI thread.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements.
+ */
+public class EditJournal<E> implements Closeable {
+	/**
+	 * A journaled column.
+	 */
+	private class Column<V> {
+		private final Function<String, ? extends V> decoder;
+
+		private final Function<? super V, String> encoder;
+
+		private final int number;
+
+		private final TypedEditingSupport<E, V> support;
+
+		Column(int number, TypedEditingSupport<E, V> support, Function<? super V, String> encoder,
+				Function<String, ? extends V> decoder) {
+			this.number = number;
+			this.support = support;
+			this.encoder = encoder;
+			this.decoder = decoder;
+		}
+
+		void apply(long key, Object value) {
+			applying = true;
+			try {
+				support.setValue(elementOf.apply(key), value);
+			} finally {
+				applying = false;
+			}
+		}
+
+		Object decode(String text) {
+			return text == null ? null : decoder.apply(text);
+		}
+
+		@SuppressWarnings("unchecked")
+		String encode(Object value) {
+			return value == null ? null : encoder.apply((V) value);
+		}
+
+		void edited(E element, V oldValue, V newValue) {
+			if (!applying) {
+				record(keyOf.applyAsLong(element), this, oldValue, newValue);
+			}
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(EditJournal.class);
+
+	/**
+	 * Marks a <code>null</code> value in the journal file.
+	 */
+	private static final String NULL_VALUE = "\\N";
+
+	/**
+	 * Returns the given line of the journal file, split into its fields (key,
+	 * column, old value, new value), or <code>null</code> if it is malformed.
+	 */
+	static String[] decodeLine(String line) {
+		final String[] fields = line.split("\t", -1);
+		if (fields.length != 4) {
+			return null;
+		}
+		for (int i = 2; i < 4; ++i) {
+			fields[i] = unescape(fields[i]);
+		}
+		return fields;
+	}
+
+	/**
+	 * Returns a line of the journal file, including its line terminator.
+	 */
+	static String encodeLine(long key, int column, String oldValue, String newValue) {
+		return key + "\t" + column + "\t" + escape(oldValue) + "\t" + escape(newValue) + "\n";
+	}
+
+	/**
+	 * Opens the given journal file, creating it if it does not exist. Its
+	 * content is kept, so that it can be replayed.
+	 *
+	 * @param capacity
+	 *            the number of edits that can be undone.
+	 * @param batchSize
+	 *            the number of changes written to the file at once.
+	 * @param keyOf
+	 *            gives the key identifying an element, stable across runs.
+	 * @param elementOf
+	 *            gives the element identified by a key.
+	 */
+	public static <E> EditJournal<E> open(Path file, int capacity, int batchSize, ToLongFunction<? super E> keyOf,
+			LongFunction<? extends E> elementOf) throws IOException {
+		checkArgument(capacity > 0);
+		checkArgument(batchSize > 0);
+		requireNonNull(keyOf);
+		requireNonNull(elementOf);
+		final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		return new EditJournal<>(file, channel, capacity, batchSize, keyOf, elementOf);
+	}
+
+	private static String escape(String value) {
+		if (value == null) {
+			return NULL_VALUE;
+		}
+		final StringBuilder escaped = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); ++i) {
+			final char c = value.charAt(i);
+			switch (c) {
+			case '\\':
+				escaped.append("\\\\");
+				break;
+			case '\t':
+				escaped.append("\\t");
+				break;
+			case '\n':
+				escaped.append("\\n");
+				break;
+			case '\r':
+				escaped.append("\\r");
+				break;
+			default:
+				escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+	private static String unescape(String field) {
+		if (field.equals(NULL_VALUE)) {
+			return null;
+		}
+		final StringBuilder value = new StringBuilder(field.length());
+		for (int i = 0; i < field.length(); ++i) {
+			final char c = field.charAt(i);
+			if (c != '\\' || i == field.length() - 1) {
+				value.append(c);
+				continue;
+			}
+			final char next = field.charAt(++i);
+			switch (next) {
+			case 't':
+				value.append('\t');
+				break;
+			case 'n':
+				value.append('\n');
+				break;
+			case 'r':
+				value.append('\r');
+				break;
+			default:
+				value.append(next);
+			}
+		}
+		return value.toString();
+	}
+
+	/**
+	 * <code>true</code> while this object sends a value to the model, so that
+	 * the resulting edit is not recorded as a new one.
+	 */
+	private boolean applying;
+
+	private final int batchSize;
+
+	private final FileChannel channel;
+
+	/**
+	 * The number of the column of each recorded edit, by slot.
+	 */
+	private final int[] columnOfEdits;
+
+	private final List<Column<?>> columns;
+
+	/**
+	 * The number of recorded edits currently applied; the following ones (until
+	 * {@link #size}) can be redone.
+	 */
+	private int cursor;
+
+	private final LongFunction<? extends E> elementOf;
+
+	private final Path file;
+
+	/**
+	 * The key of the element of each recorded edit, by slot.
+	 */
+	private final long[] keys;
+
+	private final ToLongFunction<? super E> keyOf;
+
+	/**
+	 * The new value of each recorded edit, by slot.
+	 */
+	private final Object[] newValues;
+
+	/**
+	 * The old value of each recorded edit, by slot.
+	 */
+	private final Object[] oldValues;
+
+	/**
+	 * The lines not yet written to the file.
+	 */
+	private final StringBuilder pending;
+
+	private int pendingCount;
+
+	/**
+	 * The number of recorded edits.
+	 */
+	private int size;
+
+	/**
+	 * The slot of the oldest recorded edit.
+	 */
+	private int start;
+
+	private EditJournal(Path file, FileChannel channel, int capacity, int batchSize,
+			ToLongFunction<? super E> keyOf, LongFunction<? extends E> elementOf) {
+		this.file = file;
+		this.channel = channel;
+		this.batchSize = batchSize;
+		this.keyOf = keyOf;
+		this.elementOf = elementOf;
+		keys = new long[capacity];
+		columnOfEdits = new int[capacity];
+		oldValues = new Object[capacity];
+		newValues = new Object[capacity];
+		columns = new ArrayList<>();
+		pending = new StringBuilder();
+		pendingCount = 0;
+		start = 0;
+		size = 0;
+		cursor = 0;
+		applying = false;
+	}
+
+	/**
+	 * Journals the edits of the given column, whose values are texts. The
+	 * columns must be added in the same order at each run, for the journal file
+	 * to be replayed.
+	 */
+	public void addColumn(TypedEditingSupport<E, String> editingSupport) {
+		addColumn(editingSupport, Function.identity(), Function.identity());
+	}
+
+	/**
+	 * Journals the edits of the given column, using the given codec to write
+	 * its values to the journal file. The columns must be added in the same
+	 * order at each run, for the journal file to be replayed.
+	 *
+	 * @param encoder
+	 *            turns a non-<code>null</code> value into text.
+	 * @param decoder
+	 *            turns a text given by the encoder back into a value.
+	 */
+	public <V> void addColumn(TypedEditingSupport<E, V> editingSupport, Function<? super V, String> encoder,
+			Function<String, ? extends V> decoder) {
+		final Column<V> column = new Column<>(columns.size(), editingSupport, requireNonNull(encoder),
+				requireNonNull(decoder));
+		columns.add(column);
+		editingSupport.addEditListener(column::edited);
+	}
+
+	public boolean canRedo() {
+		return cursor < size;
+	}
+
+	public boolean canUndo() {
+		return cursor > 0;
+	}
+
+	/**
+	 * Forgets the changes journaled so far, including the pending ones, and
+	 * empties the journal file, to be called once the model has been saved:
+	 * the changes are then part of the saved model, and must not be replayed.
+	 * The edits recorded can still be undone and redone, these changes being
+	 * journaled as usual.
+	 */
+	public void checkpoint() throws IOException {
+		pending.setLength(0);
+		pendingCount = 0;
+		channel.truncate(0);
+		channel.force(true);
+	}
+
+	/**
+	 * Writes the pending changes to the file, then closes it.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes the pending changes to the file, and forces them to the disk.
+	 */
+	public void flush() throws IOException {
+		if (pendingCount == 0) {
+			return;
+		}
+		final ByteBuffer bytes = StandardCharsets.UTF_8.encode(pending.toString());
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+		channel.force(false);
+		pending.setLength(0);
+		pendingCount = 0;
+	}
+
+	/**
+	 * Redoes the most recently undone edit.
+	 */
+	public void redo() {
+		checkState(canRedo());
+		final int slot = getSlot(cursor);
+		++cursor;
+		change(slot, oldValues[slot], newValues[slot]);
+	}
+
+	/**
+	 * Sends to the model the changes recorded in the journal file, in order,
+	 * through the editing supports of their columns. These changes are neither
+	 * recorded again nor made undoable. A last line truncated by a crash is
+	 * ignored.
+	 *
+	 * @return the number of changes sent.
+	 */
+	public int replay() throws IOException {
+		checkState(pendingCount == 0 && size == 0, "Replay before editing.");
+		final String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		/** Only the lines fully written count. */
+		final int end = content.lastIndexOf('\n') + 1;
+		if (end < content.length()) {
+			LOGGER.warn("Ignoring truncated last line of {}.", file);
+		}
+		int count = 0;
+		for (String line : Splitter.on('\n').omitEmptyStrings().split(content.substring(0, end))) {
+			final String[] fields = decodeLine(line);
+			checkState(fields != null, "Malformed line in %s: %s.", file, line);
+			final Column<?> column = columns.get(Integer.parseInt(fields[1]));
+			column.apply(Long.parseLong(fields[0]), column.decode(fields[3]));
+			++count;
+		}
+		return count;
+	}
+
+	/**
+	 * Undoes the most recent edit not yet undone.
+	 */
+	public void undo() {
+		checkState(canUndo());
+		--cursor;
+		final int slot = getSlot(cursor);
+		change(slot, newValues[slot], oldValues[slot]);
+	}
+
+	/**
+	 * Sends the given value of the edit in the given slot to the model, and
+	 * journals the change.
+	 */
+	private void change(int slot, Object from, Object to) {
+		final Column<?> column = columns.get(columnOfEdits[slot]);
+		column.apply(keys[slot], to);
+		append(keys[slot], column, from, to);
+	}
+
+	private void append(long key, Column<?> column, Object oldValue, Object newValue) {
+		pending.append(encodeLine(key, column.number, column.encode(oldValue), column.encode(newValue)));
+		++pendingCount;
+		if (pendingCount >= batchSize) {
+			try {
+				flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private int getSlot(int position) {
+		return (start + position) % keys.length;
+	}
+
+	private void record(long key, Column<?> column, Object oldValue, Object newValue) {
+		/** A new edit forgets the undone ones. */
+		for (int i = cursor; i < size; ++i) {
+			final int slot = getSlot(i);
+			oldValues[slot] = null;
+			newValues[slot] = null;
+		}
+		size = cursor;
+		if (size == keys.length) {
+			start = getSlot(1);
+			--size;
+		}
+		final int slot = getSlot(size);
+		keys[slot] = key;
+		columnOfEdits[slot] = column.number;
+		oldValues[slot] = oldValue;
+		newValues[slot] = newValue;
+		++size;
+		cursor = size;
+		append(key, column, oldValue, newValue);
+	}
+}
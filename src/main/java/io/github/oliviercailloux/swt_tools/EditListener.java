@@ -0,0 +1,28 @@
+package io.github.oliviercailloux.swt_tools;
+
+/**
+ * <p>
+ * Is told about the values sent to the model through an editing support (see
+ * {@link TypedEditingSupport#addEditListener(EditListener)}), with the value
+ * they replace.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements.
+ * @param <V>
+ *            the type of values.
+ *
+ * @see EditJournal
+ */
+@FunctionalInterface
+public interface EditListener<E, V> {
+	/**
+	 * Invoked once the given value has been sent to the model.
+	 *
+	 * @param oldValue
+	 *            the value of the element just before the edit.
+	 */
+	public void edited(E element, V oldValue, V newValue);
+}
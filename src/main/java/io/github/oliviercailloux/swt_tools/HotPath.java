@@ -0,0 +1,33 @@
+package io.github.oliviercailloux.swt_tools;
+
+/**
+ * The operations of the editing supports and label providers that are timed
+ * when a {@link HotPathRecorder} is installed.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+public enum HotPath {
+	/**
+	 * A call to {@link TypedEditingSupport#getValueTyped(Object)
+	 * getValueTyped}, when obtaining the value to show in a label or to give to
+	 * the cell editor.
+	 */
+	GET_VALUE,
+	/**
+	 * A call to {@link TypedEditingSupport#setValueTyped(Object, Object)
+	 * setValueTyped}, when the cell editor sends a value back to the model.
+	 */
+	SET_VALUE,
+	/**
+	 * The computation of a label by a column label provider created by
+	 * {@link JFace}, including the time spent getting the value.
+	 */
+	LABEL,
+	/**
+	 * A call to the validator composed by
+	 * {@link TypedEditingSupportConstantEditor} (first-level and unqualified
+	 * validators).
+	 */
+	VALIDATION;
+}
@@ -0,0 +1,31 @@
+package io.github.oliviercailloux.swt_tools;
+
+/**
+ * <p>
+ * Receives the durations of the operations of an editing support (and of the
+ * label provider of its column), see
+ * {@link TypedEditingSupport#setRecorder(HotPathRecorder)}. As an editing
+ * support corresponds to a column, the recorder installed on it sees the
+ * operations of that column only.
+ * </p>
+ * <p>
+ * Implementations are called on the hot path, typically on the UI thread at
+ * each repaint, and must therefore be fast and must not block.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @see ColumnStatistics
+ */
+@FunctionalInterface
+public interface HotPathRecorder {
+	/**
+	 * Records one execution of the given operation.
+	 *
+	 * @param path
+	 *            not <code>null</code>.
+	 * @param elapsedNanos
+	 *            the duration of the operation, in nanoseconds.
+	 */
+	public void record(HotPath path, long elapsedNanos);
+}
@@ -0,0 +1,357 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.widgets.Display;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Filters the rows of a table, keeping those whose label (typically, the
+ * label of a column, as given by
+ * {@link TypedEditingSupport#getLabelTyped(Object)}) contains a query typed by
+ * the end-user, ignoring case.
+ * </p>
+ * <p>
+ * The label of each row is computed once, the first time it is needed, and
+ * then kept (in normalized form) for the next queries. The results of the
+ * recent queries are also kept: when a query contains a previous one (as
+ * when the end-user types one more character), only the rows matching the
+ * previous query are examined; and when a query is asked for again (as when
+ * the end-user deletes a character), its result is returned immediately.
+ * </p>
+ * <p>
+ * The filter runs on an executor given at construction time. A new query
+ * cancels the evaluation of the previous one, if not finished, so that the
+ * end-user may type without waiting.
+ * </p>
+ * <p>
+ * The {@link #filter(String)} and invalidation methods must be called from a
+ * single thread (typically the UI thread). The label function is called from
+ * the executor threads.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of rows.
+ */
+public class IncrementalFilter<E> {
+	/**
+	 * The rows at given positions in the input, as an immutable list.
+	 */
+	private static class Selection<E> extends AbstractList<E> implements RandomAccess {
+		private final int[] positions;
+
+		private final List<E> rows;
+
+		Selection(List<E> rows, int[] positions) {
+			this.rows = rows;
+			this.positions = positions;
+		}
+
+		@Override
+		public E get(int index) {
+			return rows.get(positions[index]);
+		}
+
+		@Override
+		public int size() {
+			return positions.length;
+		}
+	}
+
+	/**
+	 * The evaluation of a query.
+	 */
+	private class Task implements Runnable {
+		/**
+		 * The positions among which to search, or <code>null</code> for all.
+		 */
+		private final int[] base;
+
+		private volatile boolean cancelled;
+
+		/**
+		 * The value of {@link IncrementalFilter#invalidations} when this task
+		 * was created: the labels and result of this task are kept only if no
+		 * invalidation happened since.
+		 */
+		final long invalidationsSeen;
+
+		final CompletableFuture<int[]> result;
+
+		private final String key;
+
+		Task(String key, int[] base) {
+			this.key = key;
+			this.base = base;
+			cancelled = false;
+			invalidationsSeen = invalidations;
+			result = new CompletableFuture<>();
+		}
+
+		void cancel() {
+			cancelled = true;
+			result.cancel(false);
+		}
+
+		@Override
+		public void run() {
+			try {
+				final int count = base == null ? rows.size() : base.length;
+				int[] found = new int[Math.min(count, 1024)];
+				int size = 0;
+				for (int i = 0; i < count; ++i) {
+					if ((i & (CHECK_INTERVAL - 1)) == 0 && cancelled) {
+						return;
+					}
+					final int position = base == null ? i : base[i];
+					if (getKey(position, invalidationsSeen).contains(key)) {
+						if (size == found.length) {
+							found = Arrays.copyOf(found, Math.min(count, size * 2));
+						}
+						found[size++] = position;
+					}
+				}
+				result.complete(Arrays.copyOf(found, size));
+			} catch (RuntimeException e) {
+				result.completeExceptionally(e);
+			}
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalFilter.class);
+
+	/**
+	 * The number of rows examined between two checks of cancellation; a power
+	 * of two.
+	 */
+	private static final int CHECK_INTERVAL = 1024;
+
+	/**
+	 * The number of query results kept.
+	 */
+	private static final int HISTORY_SIZE = 16;
+
+	private static String normalize(String text) {
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+	private Task current;
+
+	private final Executor executor;
+
+	/**
+	 * The number of queries asked for so far.
+	 */
+	private long generation;
+
+	/**
+	 * The results of the recent queries (normalized), by position, the most
+	 * recently used last. Guarded by itself, as the executor threads add to
+	 * it.
+	 */
+	private final LinkedHashMap<String, int[]> history;
+
+	/**
+	 * The number of invalidations so far. Written while holding the lock on
+	 * {@link #history}, together with the clearing of the labels and history;
+	 * the tasks write labels and results while holding that lock as well, and
+	 * only if this number has not changed since they were created, so that a
+	 * task running during an invalidation can't store what it computed from
+	 * the old labels.
+	 */
+	private volatile long invalidations;
+
+	/**
+	 * The normalized labels computed so far, by position; an element is
+	 * <code>null</code> until computed. Its elements are written by the
+	 * executor threads (see {@link #invalidations}), but they are immutable
+	 * strings, and a missing read only leads to computing a label again.
+	 */
+	private final String[] keys;
+
+	private final Function<? super E, String> label;
+
+	private final List<E> rows;
+
+	/**
+	 * @param rows
+	 *            not <code>null</code>, should support fast random access, and
+	 *            must not be modified while used by this object.
+	 * @param label
+	 *            gives the text of a row to be matched against the queries.
+	 * @param executor
+	 *            the executor evaluating the queries.
+	 */
+	public IncrementalFilter(List<E> rows, Function<? super E, String> label, Executor executor) {
+		this.rows = requireNonNull(rows);
+		this.label = requireNonNull(label);
+		this.executor = requireNonNull(executor);
+		keys = new String[rows.size()];
+		history = new LinkedHashMap<String, int[]>(HISTORY_SIZE * 2, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+				return size() > HISTORY_SIZE;
+			}
+		};
+		current = null;
+		generation = 0;
+		invalidations = 0;
+	}
+
+	/**
+	 * Cancels the evaluation in progress, if any; its future completes
+	 * exceptionally with a {@link CancellationException}.
+	 */
+	public void cancel() {
+		if (current != null) {
+			current.cancel();
+			current = null;
+		}
+	}
+
+	/**
+	 * Returns the rows whose label contains the given query, in their original
+	 * order. This cancels the evaluation of the previous query, if not
+	 * finished.
+	 *
+	 * @param query
+	 *            not <code>null</code>; the empty string matches all rows.
+	 * @return a future completing, from an executor thread (or immediately if
+	 *         the result is known), with an immutable list.
+	 */
+	public CompletableFuture<List<E>> filter(String query) {
+		cancel();
+		++generation;
+		final String key = normalize(query);
+		if (key.isEmpty()) {
+			return CompletableFuture.completedFuture(Collections.unmodifiableList(rows));
+		}
+		final int[] known;
+		synchronized (history) {
+			known = history.get(key);
+		}
+		if (known != null) {
+			return CompletableFuture.completedFuture(new Selection<>(rows, known));
+		}
+		final Task task = new Task(key, findBase(key));
+		current = task;
+		final CompletableFuture<List<E>> selected = task.result.thenApply((positions) -> {
+			synchronized (history) {
+				if (task.invalidationsSeen == invalidations) {
+					history.put(key, positions);
+				}
+			}
+			return new Selection<>(rows, positions);
+		});
+		executor.execute(task);
+		return selected;
+	}
+
+	/**
+	 * Filters the rows (see {@link #filter(String)}), then, from the UI thread,
+	 * sets the result as input of the given viewer, using
+	 * {@link JFace#setRows(TableViewer, List)}. Must be called from the UI
+	 * thread.
+	 *
+	 * @return a future completing, from the UI thread, with the rows matching,
+	 *         once they have been set as input of the viewer.
+	 */
+	public CompletableFuture<List<E>> filterInBackground(TableViewer viewer, String query) {
+		final Display display = viewer.getControl().getDisplay();
+		final CompletableFuture<List<E>> matching = filter(query);
+		final long asked = generation;
+		return matching.thenApplyAsync((result) -> {
+			/** A more recent query may have been asked for in the meantime. */
+			if (generation == asked && !viewer.getControl().isDisposed()) {
+				JFace.setRows(viewer, result);
+			}
+			return result;
+		}, display::asyncExec);
+	}
+
+	/**
+	 * Forgets the label of the row at the given position, because it has
+	 * changed, and the results of the previous queries.
+	 */
+	public void invalidate(int position) {
+		checkArgument(position >= 0 && position < keys.length);
+		cancel();
+		synchronized (history) {
+			++invalidations;
+			keys[position] = null;
+			history.clear();
+		}
+	}
+
+	/**
+	 * Forgets all the labels, and the results of the previous queries.
+	 */
+	public void invalidateAll() {
+		cancel();
+		synchronized (history) {
+			++invalidations;
+			Arrays.fill(keys, null);
+			history.clear();
+		}
+	}
+
+	/**
+	 * Returns the result of the longest recent query contained in the given
+	 * one, or <code>null</code> if none.
+	 */
+	private int[] findBase(String key) {
+		synchronized (history) {
+			int[] base = null;
+			int longest = -1;
+			for (Map.Entry<String, int[]> entry : history.entrySet()) {
+				final String previous = entry.getKey();
+				if (previous.length() > longest && key.contains(previous)) {
+					base = entry.getValue();
+					longest = previous.length();
+				}
+			}
+			return base;
+		}
+	}
+
+	/**
+	 * Returns the label of the given row, computing it if necessary; stores
+	 * the label computed only if no invalidation happened since the given
+	 * count was read.
+	 */
+	private String getKey(int position, long invalidationsSeen) {
+		String key = keys[position];
+		if (key == null) {
+			final String text = label.apply(rows.get(position));
+			key = normalize(text == null ? "" : text);
+			synchronized (history) {
+				if (invalidationsSeen == invalidations) {
+					keys[position] = key;
+				}
+			}
+		}
+		return key;
+	}
+}
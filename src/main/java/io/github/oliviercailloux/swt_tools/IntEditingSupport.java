@@ -1,6 +1,9 @@
 package io.github.oliviercailloux.swt_tools;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import org.eclipse.jface.viewers.ColumnViewer;
 import org.slf4j.Logger;
@@ -28,6 +31,12 @@ import org.slf4j.LoggerFactory;
  * that is difficult for the user to understand.</li>
  * </ul>
  * </p>
+ * <p>
+ * The text typed by the user is parsed in a single pass, without allocation,
+ * and the value parsed when validating is reused when committing. Texts
+ * representing integers that do not fit in an <code>int</code> are rejected by
+ * the validator.
+ * </p>
  *
  * @author Olivier Cailloux
  *
@@ -39,10 +48,71 @@ public abstract class IntEditingSupport<E> extends TextEditingSupport<E> {
 	@SuppressWarnings("unused")
 	private static final Logger LOGGER = LoggerFactory.getLogger(IntEditingSupport.class);
 
+	/**
+	 * The value returned by {@link #parseInt(CharSequence)} when the text does
+	 * not represent an <code>int</code>.
+	 */
+	static final long NOT_AN_INT = Long.MIN_VALUE;
+
+	/**
+	 * Parses the given text as an optional minus sign followed by at least one
+	 * decimal digit, without allocating.
+	 *
+	 * @param text
+	 *            not <code>null</code>.
+	 * @return the integer value, or {@link #NOT_AN_INT} if the text does not
+	 *         have the required form or if the value overflows an
+	 *         <code>int</code>.
+	 */
+	static long parseInt(CharSequence text) {
+		final int length = text.length();
+		final boolean negative = length > 0 && text.charAt(0) == '-';
+		int i = negative ? 1 : 0;
+		if (i == length) {
+			return NOT_AN_INT;
+		}
+		final long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+		long value = 0;
+		for (; i < length; ++i) {
+			final char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				return NOT_AN_INT;
+			}
+			value = value * 10 + (c - '0');
+			if (value > limit) {
+				return NOT_AN_INT;
+			}
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * The first-level validator of this class, given the result of parsing the
+	 * text to validate (see {@link #parseInt(CharSequence)}).
+	 *
+	 * @return <code>null</code> iff the parsed text represents an integer.
+	 */
+	static String validateInteger(long parsed) {
+		/** Here we forbid empty strings, strings equal to "-", … */
+		return parsed == NOT_AN_INT ? "Integer required." : null;
+	}
+
+	/**
+	 * The text most recently parsed by this object, or <code>null</code>.
+	 */
+	private String lastParsedText;
+
+	/**
+	 * The result of parsing {@link #lastParsedText}.
+	 */
+	private long lastParsedValue;
+
 	public IntEditingSupport(ColumnViewer viewer, Class<E> classOfElements) {
 		super(viewer, classOfElements);
-		/** Here we forbid empty strings, strings equal to "-", … */
-		setFirstLevelValidator(v -> !v.matches("[-]?[0-9]+") ? "Integer required." : null);
+		lastParsedText = null;
+		lastParsedValue = NOT_AN_INT;
+		setFirstLevelValidator(v -> validateInteger(v == null ? NOT_AN_INT : parse(v)),
+				v -> validateInteger(v == null ? NOT_AN_INT : parseInt(v)));
 	}
 
 	/**
@@ -77,20 +147,49 @@ public abstract class IntEditingSupport<E> extends TextEditingSupport<E> {
 	 * </p>
 	 * <p>
 	 * This is simply a better-typed version of {@link #setValidator(Function)}.
+	 * Prefer {@link #setIntValidator(IntFunction)}, which does not box the
+	 * values.
 	 * </p>
 	 *
 	 * @param valueToErrorMessage
 	 *            the input validator, or <code>null</code> if none
 	 */
 	public void setIntegerValidator(Function<Integer, String> valueToErrorMessage) {
-		setValidator(valueToErrorMessage.compose(v -> Integer.valueOf(v)));
+		setIntValidator(valueToErrorMessage == null ? null : valueToErrorMessage::apply);
 	}
 
 	/**
 	 * <p>
-	 * Sets the new value on the given element. Note that implementers need to
-	 * ensure that <code>getViewer().update(element, null)</code> or similar methods
-	 * are called, either directly or through some kind of listener mechanism on the
+	 * Sets the input validator for this cell editor.
+	 * </p>
+	 * <p>
+	 * The validator is given the (integer) value to be validated, and must return a
+	 * string indicating whether the given value is valid; <code>null</code> means
+	 * valid, and non-<code>null</code> means invalid, with the result being the
+	 * error message to display to the end user. It is only invoked with values
+	 * accepted by the first-level validator of this object, thus, with texts that
+	 * represent integers.
+	 * </p>
+	 *
+	 * @param valueToErrorMessage
+	 *            the input validator, or <code>null</code> if none
+	 */
+	public void setIntValidator(IntFunction<String> valueToErrorMessage) {
+		if (valueToErrorMessage == null) {
+			setValidator(null);
+		} else {
+			setValidator(v -> valueToErrorMessage.apply((int) parse(v)),
+					v -> valueToErrorMessage.apply((int) parseInt(v)));
+		}
+	}
+
+	/**
+	 * <p>
+	 * Sets the new value on the given element. When a property is set (see
+	 * {@link #setProperty(String)}), this object then updates the element in the
+	 * viewer, scoped to that property. Otherwise, implementers need to ensure
+	 * that <code>getViewer().update(element, null)</code> or similar methods are
+	 * called, either directly or through some kind of listener mechanism on the
 	 * implementer's model, to cause the new value to appear in the viewer.
 	 * </p>
 	 *
@@ -110,8 +209,22 @@ public abstract class IntEditingSupport<E> extends TextEditingSupport<E> {
 	public void setValueTyped(E element, String value) {
 		assert value != null;
 		assert !value.isEmpty();
-		final int intValue = Integer.valueOf(value).intValue();
-		setIntValue(element, intValue);
+		final long parsed = parse(value);
+		checkArgument(parsed != NOT_AN_INT, "Not an integer: %s.", value);
+		setIntValue(element, (int) parsed);
+	}
+
+	/**
+	 * Parses the given text, reusing the previous result if the text is equal to
+	 * the one parsed previously (as happens when the text just validated is
+	 * committed).
+	 */
+	private long parse(String text) {
+		if (!text.equals(lastParsedText)) {
+			lastParsedValue = parseInt(text);
+			lastParsedText = text;
+		}
+		return lastParsedValue;
 	}
 
 }
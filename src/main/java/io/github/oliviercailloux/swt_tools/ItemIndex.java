@@ -0,0 +1,148 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * An index of items over their labels, permitting to quickly find the items
+ * whose label starts with, or contains, a given text. The comparison ignores
+ * case.
+ * </p>
+ * <p>
+ * The labels are computed once, at construction time. Finding the items whose
+ * label starts with a given prefix takes a time logarithmic in the number of
+ * items (plus the number of results); finding the items whose label contains a
+ * text requires a scan of the labels, which stops as soon as enough results
+ * are found.
+ * </p>
+ * <p>
+ * Objects of this type are immutable (provided the list of items is not
+ * modified) and thread-safe.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <V>
+ *            the type of items.
+ */
+public class ItemIndex<V> {
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(ItemIndex.class);
+
+	/**
+	 * @param items
+	 *            not <code>null</code>, should support fast random access.
+	 * @param toLabel
+	 *            gives the label of each item, as shown to the end-user.
+	 * @return a new index.
+	 */
+	public static <V> ItemIndex<V> create(List<V> items, Function<? super V, String> toLabel) {
+		return new ItemIndex<>(items, toLabel);
+	}
+
+	private static String normalize(String text) {
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+	private final List<V> items;
+
+	/**
+	 * The normalized labels, in the order of the items.
+	 */
+	private final String[] keys;
+
+	/**
+	 * The positions of the items, in the order of their normalized labels.
+	 */
+	private final int[] sorted;
+
+	private ItemIndex(List<V> items, Function<? super V, String> toLabel) {
+		this.items = requireNonNull(items);
+		final int size = items.size();
+		keys = new String[size];
+		for (int i = 0; i < size; ++i) {
+			final String label = toLabel.apply(items.get(i));
+			keys[i] = normalize(label == null ? "" : label);
+		}
+		final Integer[] positions = new Integer[size];
+		for (int i = 0; i < size; ++i) {
+			positions[i] = i;
+		}
+		Arrays.sort(positions, Comparator.comparing((Integer i) -> keys[i]));
+		sorted = new int[size];
+		for (int i = 0; i < size; ++i) {
+			sorted[i] = positions[i];
+		}
+	}
+
+	/**
+	 * Returns at most the given number of items whose label contains the given
+	 * text, in the order of the items.
+	 *
+	 * @param text
+	 *            not <code>null</code>, may be empty, in which case this returns
+	 *            the first items.
+	 * @param maxResults
+	 *            a positive number.
+	 */
+	public List<V> containing(String text, int maxResults) {
+		checkArgument(maxResults > 0);
+		final String key = normalize(text);
+		final List<V> results = new ArrayList<>(Math.min(maxResults, keys.length));
+		for (int i = 0; i < keys.length && results.size() < maxResults; ++i) {
+			if (keys[i].contains(key)) {
+				results.add(items.get(i));
+			}
+		}
+		return results;
+	}
+
+	public List<V> getItems() {
+		return items;
+	}
+
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Returns at most the given number of items whose label starts with the
+	 * given prefix, in the (case-insensitive) order of their labels.
+	 *
+	 * @param prefix
+	 *            not <code>null</code>, may be empty, in which case this returns
+	 *            the first items in the order of the labels.
+	 * @param maxResults
+	 *            a positive number.
+	 */
+	public List<V> startingWith(String prefix, int maxResults) {
+		checkArgument(maxResults > 0);
+		final String key = normalize(prefix);
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (keys[sorted[middle]].compareTo(key) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		final List<V> results = new ArrayList<>(Math.min(maxResults, sorted.length - low));
+		for (int i = low; i < sorted.length && results.size() < maxResults && keys[sorted[i]].startsWith(key); ++i) {
+			results.add(items.get(sorted[i]));
+		}
+		return results;
+	}
+}
@@ -0,0 +1,40 @@
+package io.github.oliviercailloux.swt_tools;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Gives the items matching a text, by ranges, from a catalog too large to be
+ * held in memory (typically, a database). Used through a
+ * {@link PagedItemSource}, which fetches pages of items and caches them.
+ * </p>
+ * <p>
+ * The meaning of matching is left to the source (for example, items whose label
+ * starts with the text, ignoring case); the empty text matches all items. The
+ * order of the items matching a given text must be stable, so that the pages
+ * fetched at different times fit together.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <V>
+ *            the type of items.
+ */
+@FunctionalInterface
+public interface ItemSource<V> {
+	/**
+	 * Returns the items matching the given text, starting at the given
+	 * position among them. May be called from several threads concurrently.
+	 *
+	 * @param text
+	 *            not <code>null</code>.
+	 * @param offset
+	 *            the position of the first item to return among the matching
+	 *            items, non negative.
+	 * @param limit
+	 *            the maximal number of items to return, positive.
+	 * @return fewer than <code>limit</code> items iff there are no more
+	 *         matching items; no <code>null</code> item.
+	 */
+	public List<V> fetch(String text, int offset, int limit);
+}
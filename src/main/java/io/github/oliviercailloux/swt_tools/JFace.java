@@ -1,20 +1,36 @@
 package io.github.oliviercailloux.swt_tools;
 
-import org.eclipse.jface.viewers.ColumnLabelProvider;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+
+import org.eclipse.jface.viewers.ColumnViewer;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TableViewerColumn;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.TreeViewerColumn;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.swt.widgets.TreeColumn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.base.Strings;
-
 /**
+ * <p>
  * Provides static methods to create a table viewer column given a table viewer,
  * table column, and (special kinds of) editing support.
+ * </p>
+ * <p>
+ * The column factories also work with virtual table viewers, as created by
+ * {@link #newVirtualTableViewer(Composite, int)}, and virtual tree viewers, as
+ * created by
+ * {@link #newVirtualTreeViewer(Composite, int, LazyTreeContentProvider)}: in
+ * that case, the labels (and the values they are computed from) are only asked
+ * for the rows that the end-user can see.
+ * </p>
  *
  * @author Olivier Cailloux
  *
@@ -24,51 +40,241 @@ public class JFace {
 	@SuppressWarnings("unused")
 	static final Logger LOGGER = LoggerFactory.getLogger(JFace.class);
 
+	private static final String UPDATE_SCOPE_KEY = JFace.class.getName() + ".updateScope";
+
+	/**
+	 * Creates a table viewer column whose labels are computed off the UI thread
+	 * by the given loader, which must have been created with the given editing
+	 * support.
+	 */
+	public static <E, V> TableViewerColumn addAsyncComboBoxTableViewerColumn(TableViewer viewer, TableColumn column,
+			ComboBoxEditingSupport<E, V> editingSupport, AsyncValueLoader<E> loader) {
+		checkArgument(loader.getEditingSupport() == editingSupport);
+		final TableViewerColumn col = new TableViewerColumn(viewer, column);
+		col.setEditingSupport(editingSupport);
+		col.setLabelProvider(new TypedColumnLabelProvider<>(column, loader, false));
+		return col;
+	}
+
+	/**
+	 * Creates a table viewer column whose labels are computed off the UI thread
+	 * by the given loader, which must have been created with the given editing
+	 * support.
+	 */
+	public static <E> TableViewerColumn addAsyncTextTableViewerColumn(TableViewer viewer, TableColumn column,
+			TextEditingSupport<E> editingSupport, AsyncValueLoader<E> loader) {
+		checkArgument(loader.getEditingSupport() == editingSupport);
+		final TableViewerColumn col = new TableViewerColumn(viewer, column);
+		col.setEditingSupport(editingSupport);
+		col.setLabelProvider(new TypedColumnLabelProvider<>(column, loader, true));
+		return col;
+	}
+
+	/**
+	 * Returns the properties to which the update of the viewer of the given
+	 * control in progress is scoped, if any.
+	 *
+	 * @return <code>null</code> if no scoped update is in progress.
+	 */
+	static String[] getUpdateScope(Control control) {
+		return (String[]) control.getData(UPDATE_SCOPE_KEY);
+	}
+
+	/**
+	 * <p>
+	 * Updates the given elements in the given viewer, in an update scoped to
+	 * the given properties: the columns created by this class whose editing
+	 * support has a property (see {@link TypedEditingSupport#setProperty(String)})
+	 * are relabelled only if that property is among the given ones.
+	 * </p>
+	 * <p>
+	 * This calls {@link ColumnViewer#update(Object[], String[])}, which asks the
+	 * label provider of the viewer (rather than of its columns) whether the
+	 * elements must be updated, and if so, updates all the columns: the columns
+	 * created by this class then skip the work if not affected. Must be called
+	 * from the UI thread.
+	 * </p>
+	 *
+	 * @param properties
+	 *            at least one property.
+	 */
+	public static void update(ColumnViewer viewer, Object[] elements, String... properties) {
+		checkArgument(properties.length >= 1);
+		final Control control = viewer.getControl();
+		final Object previous = control.getData(UPDATE_SCOPE_KEY);
+		control.setData(UPDATE_SCOPE_KEY, properties);
+		try {
+			viewer.update(elements, properties);
+		} finally {
+			control.setData(UPDATE_SCOPE_KEY, previous);
+		}
+	}
+
 	public static <E, V> TableViewerColumn addComboBoxTableViewerColumn(TableViewer viewer, TableColumn column,
 			ComboBoxEditingSupport<E, V> editingSupport) {
+		return addComboBoxTableViewerColumn(viewer, column, editingSupport, null);
+	}
+
+	/**
+	 * Creates a table viewer column whose labels are kept in the given cache.
+	 *
+	 * @param labelCache
+	 *            <code>null</code> for no cache.
+	 */
+	public static <E, V> TableViewerColumn addComboBoxTableViewerColumn(TableViewer viewer, TableColumn column,
+			ComboBoxEditingSupport<E, V> editingSupport, LabelCache labelCache) {
 		final TableViewerColumn col = new TableViewerColumn(viewer, column);
 		col.setEditingSupport(editingSupport);
-		col.setLabelProvider(new ColumnLabelProvider() {
-			@Override
-			public String getText(Object element) {
-				final E typedElement = editingSupport.getTypedElement(element);
-				final V value = editingSupport.getValueTyped(typedElement);
-				LOGGER.debug("Returning text label (column {}) for {}: {}.", column, element, value);
-				return editingSupport.toString(value);
-			}
-		});
+		col.setLabelProvider(new TypedColumnLabelProvider<>(column, editingSupport, labelCache, false));
 		return col;
 	}
 
 	public static <E> TableViewerColumn addTextTableViewerColumn(TableViewer viewer, TableColumn column,
 			TextEditingSupport<E> editingSupport) {
+		return addTextTableViewerColumn(viewer, column, editingSupport, null);
+	}
+
+	/**
+	 * Creates a table viewer column whose labels are kept in the given cache.
+	 *
+	 * @param labelCache
+	 *            <code>null</code> for no cache.
+	 */
+	public static <E> TableViewerColumn addTextTableViewerColumn(TableViewer viewer, TableColumn column,
+			TextEditingSupport<E> editingSupport, LabelCache labelCache) {
 		final TableViewerColumn col = new TableViewerColumn(viewer, column);
 		col.setEditingSupport(editingSupport);
-		col.setLabelProvider(new ColumnLabelProvider() {
-			@Override
-			public String getText(Object element) {
-				final E typedElement = editingSupport.getTypedElement(element);
-				final String value = editingSupport.getValueTyped(typedElement);
-				LOGGER.debug("Returning text label (column {}) for {}: {}.", column, element, value);
-				return Strings.emptyToNull(value);
-			}
-		});
+		col.setLabelProvider(new TypedColumnLabelProvider<>(column, editingSupport, labelCache, true));
 		return col;
 	}
 
+	/**
+	 * <p>
+	 * Creates a virtual table viewer ({@link SWT#VIRTUAL}), with a
+	 * {@link LazyListContentProvider} as content provider and hash lookup
+	 * enabled. Use {@link #setVirtualInput(TableViewer, List)} to set its
+	 * input.
+	 * </p>
+	 * <p>
+	 * Columns can be added to the resulting viewer using the other methods of
+	 * this class, as with any table viewer.
+	 * </p>
+	 *
+	 * @param parent
+	 *            the parent control.
+	 * @param style
+	 *            the style bits, {@link SWT#VIRTUAL} is added to them.
+	 * @return a new table viewer.
+	 */
+	public static TableViewer newVirtualTableViewer(Composite parent, int style) {
+		final TableViewer viewer = new TableViewer(parent, style | SWT.VIRTUAL);
+		viewer.setUseHashlookup(true);
+		viewer.setContentProvider(new LazyListContentProvider());
+		return viewer;
+	}
+
+	/**
+	 * Sets the given rows as input of the given table viewer, in one step. If
+	 * the viewer uses a {@link LazyListContentProvider}, this uses
+	 * {@link #setVirtualInput(TableViewer, List)}; otherwise, the viewer must
+	 * use a content provider accepting lists as input.
+	 *
+	 * @param rows
+	 *            not <code>null</code>.
+	 */
+	public static void setRows(TableViewer viewer, List<?> rows) {
+		if (viewer.getContentProvider() instanceof LazyListContentProvider) {
+			setVirtualInput(viewer, rows);
+		} else {
+			viewer.setInput(requireNonNull(rows));
+		}
+	}
+
+	/**
+	 * Sets the given rows as input to the given virtual table viewer, and sets
+	 * its item count accordingly. The viewer must use a
+	 * {@link LazyListContentProvider}, as created by
+	 * {@link #newVirtualTableViewer(Composite, int)}. This method must be
+	 * called again if the size of the list changes.
+	 *
+	 * @param viewer
+	 *            not <code>null</code>.
+	 * @param rows
+	 *            not <code>null</code>, should support fast random access.
+	 */
+	public static void setVirtualInput(TableViewer viewer, List<?> rows) {
+		requireNonNull(rows);
+		viewer.setInput(rows);
+		viewer.setItemCount(rows.size());
+	}
+
+	public static <E, V> TreeViewerColumn addComboBoxTreeViewerColumn(TreeViewer viewer, TreeColumn column,
+			ComboBoxEditingSupport<E, V> editingSupport) {
+		return addComboBoxTreeViewerColumn(viewer, column, editingSupport, null);
+	}
+
+	/**
+	 * Creates a tree viewer column whose labels are kept in the given cache.
+	 *
+	 * @param labelCache
+	 *            <code>null</code> for no cache.
+	 */
+	public static <E, V> TreeViewerColumn addComboBoxTreeViewerColumn(TreeViewer viewer, TreeColumn column,
+			ComboBoxEditingSupport<E, V> editingSupport, LabelCache labelCache) {
+		final TreeViewerColumn col = new TreeViewerColumn(viewer, column);
+		col.setEditingSupport(editingSupport);
+		col.setLabelProvider(new TypedColumnLabelProvider<>(column, editingSupport, labelCache, false));
+		return col;
+	}
+
+	/**
+	 * <p>
+	 * Creates a virtual tree viewer ({@link SWT#VIRTUAL}), with the given lazy
+	 * content provider and hash lookup enabled. Its input must be the root
+	 * element of the tree.
+	 * </p>
+	 * <p>
+	 * Columns can be added to the resulting viewer using the other methods of
+	 * this class, as with any tree viewer.
+	 * </p>
+	 *
+	 * @param parent
+	 *            the parent control.
+	 * @param style
+	 *            the style bits, {@link SWT#VIRTUAL} is added to them.
+	 * @param contentProvider
+	 *            loads the children of the nodes as they are expanded.
+	 * @return a new tree viewer.
+	 */
+	public static TreeViewer newVirtualTreeViewer(Composite parent, int style,
+			LazyTreeContentProvider<?> contentProvider) {
+		requireNonNull(contentProvider);
+		final TreeViewer viewer = new TreeViewer(parent, style | SWT.VIRTUAL);
+		viewer.setUseHashlookup(true);
+		viewer.setContentProvider(contentProvider);
+		return viewer;
+	}
+
+	/**
+	 * Creates a tree viewer column. This also serves the subclasses of text
+	 * editing supports, such as {@link IntEditingSupport}.
+	 */
 	public static <E> TreeViewerColumn addTextTreeViewerColumn(TreeViewer viewer, TreeColumn column,
 			TextEditingSupport<E> editingSupport) {
+		return addTextTreeViewerColumn(viewer, column, editingSupport, null);
+	}
+
+	/**
+	 * Creates a tree viewer column whose labels are kept in the given cache.
+	 *
+	 * @param labelCache
+	 *            <code>null</code> for no cache.
+	 */
+	public static <E> TreeViewerColumn addTextTreeViewerColumn(TreeViewer viewer, TreeColumn column,
+			TextEditingSupport<E> editingSupport, LabelCache labelCache) {
 		final TreeViewerColumn col = new TreeViewerColumn(viewer, column);
 		col.setEditingSupport(editingSupport);
-		col.setLabelProvider(new ColumnLabelProvider() {
-			@Override
-			public String getText(Object element) {
-				final E typedElement = editingSupport.getTypedElement(element);
-				final String value = editingSupport.getValueTyped(typedElement);
-				LOGGER.debug("Returning text label (column {}) for {}: {}.", column, element, value);
-				return Strings.emptyToNull(value);
-			}
-		});
+		col.setLabelProvider(new TypedColumnLabelProvider<>(column, editingSupport, labelCache, true));
 		return col;
 	}
 
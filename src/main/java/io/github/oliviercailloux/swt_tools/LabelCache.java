@@ -0,0 +1,119 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * <p>
+ * A bounded cache of the labels shown by the column label providers created by
+ * {@link JFace}, keyed by element and column. A label provider that uses this
+ * cache computes the label of an element (through
+ * {@link TypedEditingSupport#getLabelTyped(Object) getLabelTyped}) only if it
+ * is not already in the cache.
+ * </p>
+ * <p>
+ * Each column holds at most the maximum number of labels given at creation
+ * time, the least recently used ones being evicted first.
+ * </p>
+ * <p>
+ * The labels of an element are invalidated automatically, for all the columns
+ * using this cache, when a value of that element is sent to the model through
+ * one of the corresponding editing supports. The user must otherwise invalidate
+ * the labels explicitly when the model changes, using
+ * {@link #invalidate(Object)} or {@link #invalidateAll()}.
+ * </p>
+ * <p>
+ * Objects of this type are thread-safe.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ */
+public class LabelCache {
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(LabelCache.class);
+
+	/**
+	 * @param maximumSize
+	 *            the maximal number of labels kept per column, must be
+	 *            positive.
+	 * @return a new empty cache.
+	 */
+	public static LabelCache withMaximumSize(long maximumSize) {
+		checkArgument(maximumSize > 0);
+		return new LabelCache(maximumSize);
+	}
+
+	private final Map<TypedEditingSupport<?, ?>, Cache<Object, String>> columns;
+
+	private final long maximumSize;
+
+	private LabelCache(long maximumSize) {
+		this.maximumSize = maximumSize;
+		columns = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Discards the labels of the given element, for all columns.
+	 *
+	 * @param element
+	 *            not <code>null</code>.
+	 */
+	public void invalidate(Object element) {
+		requireNonNull(element);
+		for (Cache<Object, String> column : columns.values()) {
+			column.invalidate(element);
+		}
+	}
+
+	/**
+	 * Discards the label of the given element in the column of the given
+	 * editing support.
+	 *
+	 * @param element
+	 *            not <code>null</code>.
+	 * @param editingSupport
+	 *            not <code>null</code>.
+	 */
+	public void invalidate(Object element, TypedEditingSupport<?, ?> editingSupport) {
+		requireNonNull(element);
+		final Cache<Object, String> column = columns.get(editingSupport);
+		if (column != null) {
+			column.invalidate(element);
+		}
+	}
+
+	/**
+	 * Discards all the labels.
+	 */
+	public void invalidateAll() {
+		for (Cache<Object, String> column : columns.values()) {
+			column.invalidateAll();
+		}
+	}
+
+	/**
+	 * Returns the cache for the column of the given editing support, creating it
+	 * if necessary. At creation, the editing support is told to invalidate the
+	 * labels of the elements it modifies.
+	 */
+	<E> Cache<Object, String> getColumnCache(TypedEditingSupport<E, ?> editingSupport) {
+		return columns.computeIfAbsent(editingSupport, (s) -> {
+			editingSupport.addInvalidationListener((e) -> {
+				if (e != null) {
+					invalidate(e);
+				}
+			});
+			return CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+		});
+	}
+}
@@ -0,0 +1,61 @@
+package io.github.oliviercailloux.swt_tools;
+
+import java.util.List;
+
+import org.eclipse.jface.viewers.ILazyContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A content provider for a virtual ({@link org.eclipse.swt.SWT#VIRTUAL})
+ * {@link TableViewer} whose input is a {@link List}. The viewer asks this
+ * provider only for the rows that become visible, thus, label providers (and
+ * the {@link TypedEditingSupport#getValueTyped(Object) getValueTyped} methods
+ * they use) are only invoked for those rows.
+ * </p>
+ * <p>
+ * The list is accessed by index, it should thus provide fast random access.
+ * The user must set the item count of the viewer to the size of the list
+ * whenever the input (or its size) changes, see
+ * {@link JFace#setVirtualInput(TableViewer, List)}.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ */
+public class LazyListContentProvider implements ILazyContentProvider {
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(LazyListContentProvider.class);
+
+	private List<?> input;
+
+	private TableViewer viewer;
+
+	public LazyListContentProvider() {
+		input = null;
+		viewer = null;
+	}
+
+	@Override
+	public void dispose() {
+		input = null;
+		viewer = null;
+	}
+
+	@Override
+	public void inputChanged(Viewer newViewer, Object oldInput, Object newInput) {
+		viewer = (TableViewer) newViewer;
+		input = (List<?>) newInput;
+	}
+
+	@Override
+	public void updateElement(int index) {
+		if (input == null || index >= input.size()) {
+			return;
+		}
+		viewer.replace(input.get(index), index);
+	}
+}
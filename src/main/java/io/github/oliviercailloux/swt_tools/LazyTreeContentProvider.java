@@ -0,0 +1,174 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.eclipse.jface.viewers.ILazyTreeContentProvider;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A content provider for a virtual ({@link org.eclipse.swt.SWT#VIRTUAL})
+ * {@link TreeViewer} over a hierarchy of elements of type E, whose children
+ * are loaded incrementally. The input of the viewer is the root element, whose
+ * children are shown at the top level.
+ * </p>
+ * <p>
+ * The children of an element are loaded (using the loader given at
+ * construction time) only when the viewer needs them, that is, when the
+ * element is expanded, and then kept. For the elements that are merely shown,
+ * a predicate (cheaper than loading the children) tells whether the element
+ * has children, so that the viewer shows it as expandable. The viewer asks
+ * this provider only for the children that become visible, thus, label
+ * providers (and the {@link TypedEditingSupport#getValueTyped(Object)
+ * getValueTyped} methods they use) are only invoked for those nodes.
+ * </p>
+ * <p>
+ * The lists of children are accessed by index, they should thus provide fast
+ * random access. When the children of an element change, call
+ * {@link #invalidate(Object)} then refresh the element in the viewer.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements of the tree.
+ */
+public class LazyTreeContentProvider<E> implements ILazyTreeContentProvider {
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(LazyTreeContentProvider.class);
+
+	/**
+	 * The children of the elements loaded so far.
+	 */
+	private final Map<Object, List<? extends E>> children;
+
+	private final Function<? super E, ? extends List<? extends E>> childrenLoader;
+
+	private final Class<E> classOfElements;
+
+	private final Predicate<? super E> hasChildren;
+
+	/**
+	 * The parents of the elements whose parent has been loaded.
+	 */
+	private final Map<Object, Object> parents;
+
+	private TreeViewer viewer;
+
+	/**
+	 * @param childrenLoader
+	 *            gives the children of an element, not <code>null</code>,
+	 *            possibly empty.
+	 * @param hasChildren
+	 *            tells whether an element has children, without loading them.
+	 */
+	public LazyTreeContentProvider(Class<E> classOfElements,
+			Function<? super E, ? extends List<? extends E>> childrenLoader, Predicate<? super E> hasChildren) {
+		this.classOfElements = requireNonNull(classOfElements);
+		this.childrenLoader = requireNonNull(childrenLoader);
+		this.hasChildren = requireNonNull(hasChildren);
+		children = new HashMap<>();
+		parents = new HashMap<>();
+		viewer = null;
+	}
+
+	@Override
+	public void dispose() {
+		children.clear();
+		parents.clear();
+		viewer = null;
+	}
+
+	@Override
+	public Object getParent(Object element) {
+		return parents.get(element);
+	}
+
+	@Override
+	public void inputChanged(Viewer newViewer, Object oldInput, Object newInput) {
+		viewer = (TreeViewer) newViewer;
+		children.clear();
+		parents.clear();
+	}
+
+	/**
+	 * Forgets the children of the given element (and their descendants), which
+	 * will be loaded again when the viewer needs them.
+	 */
+	public void invalidate(Object element) {
+		final List<? extends E> forgotten = children.remove(element);
+		if (forgotten != null) {
+			for (E child : forgotten) {
+				parents.remove(child);
+				invalidate(child);
+			}
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff the children of the given element have been
+	 *         loaded (and not invalidated since then).
+	 */
+	public boolean isLoaded(Object element) {
+		return children.containsKey(element);
+	}
+
+	/**
+	 * Loads the children of the given element, as the viewer needs them, for
+	 * example because the end-user expands it.
+	 */
+	@Override
+	public void updateChildCount(Object element, int currentChildCount) {
+		if (viewer == null) {
+			return;
+		}
+		final int count = getChildren(element).size();
+		if (count != currentChildCount) {
+			viewer.setChildCount(element, count);
+		}
+	}
+
+	@Override
+	public void updateElement(Object parent, int index) {
+		if (viewer == null) {
+			return;
+		}
+		final List<? extends E> siblings = getChildren(parent);
+		if (index >= siblings.size()) {
+			return;
+		}
+		final E child = siblings.get(index);
+		viewer.replace(parent, index, child);
+		final List<? extends E> known = children.get(child);
+		if (known == null) {
+			viewer.setHasChildren(child, hasChildren.test(child));
+		} else {
+			viewer.setChildCount(child, known.size());
+		}
+	}
+
+	/**
+	 * Returns the children of the given element, loading them if not known.
+	 */
+	List<? extends E> getChildren(Object element) {
+		final List<? extends E> known = children.get(element);
+		if (known != null) {
+			return known;
+		}
+		final List<? extends E> loaded = requireNonNull(childrenLoader.apply(classOfElements.cast(element)));
+		children.put(element, loaded);
+		for (E child : loaded) {
+			parents.put(child, element);
+		}
+		return loaded;
+	}
+}
@@ -0,0 +1,31 @@
+package io.github.oliviercailloux.swt_tools;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+
+import org.eclipse.jface.viewers.ColumnViewer;
+
+/**
+ * A {@link TemporalEditingSupport} for {@link LocalDateTime} values, shown and
+ * read using the medium localized date-time format of a locale given at
+ * construction time (the default format locale by default).
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements returned by the underlying column viewer.
+ */
+public abstract class LocalDateTimeEditingSupport<E> extends TemporalEditingSupport<E, LocalDateTime> {
+
+	public LocalDateTimeEditingSupport(ColumnViewer viewer, Class<E> classOfElements) {
+		this(viewer, classOfElements, Locale.getDefault(Locale.Category.FORMAT));
+	}
+
+	public LocalDateTimeEditingSupport(ColumnViewer viewer, Class<E> classOfElements, Locale locale) {
+		super(viewer, classOfElements,
+				DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM).withLocale(locale), LocalDateTime::from);
+	}
+
+}
@@ -0,0 +1,118 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static java.util.Objects.requireNonNull;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * Formats and parses decimal numbers according to a locale, for the editing
+ * supports of numbers. Objects of this type are cached per locale (see
+ * {@link #of(Locale)}), and each thread reuses its own formatter, thus objects
+ * of this type are thread-safe.
+ * </p>
+ * <p>
+ * The accepted texts are an optional minus sign followed by digits, possibly
+ * grouped using the grouping separator of the locale, optionally followed by
+ * the decimal separator of the locale and digits. At least one digit is
+ * required. Exponents, infinities and NaN are not accepted.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ */
+final class LocalizedNumbers {
+	private static final ConcurrentHashMap<Locale, LocalizedNumbers> CACHE = new ConcurrentHashMap<>();
+
+	public static LocalizedNumbers of(Locale locale) {
+		return CACHE.computeIfAbsent(requireNonNull(locale), LocalizedNumbers::new);
+	}
+
+	private final char decimalSeparator;
+
+	private final ThreadLocal<DecimalFormat> format;
+
+	private final char groupingSeparator;
+
+	private final char minusSign;
+
+	private LocalizedNumbers(Locale locale) {
+		final DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+		decimalSeparator = symbols.getDecimalSeparator();
+		groupingSeparator = symbols.getGroupingSeparator();
+		minusSign = symbols.getMinusSign();
+		format = ThreadLocal.withInitial(() -> {
+			final DecimalFormat f = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+			f.setGroupingUsed(true);
+			return f;
+		});
+	}
+
+	/**
+	 * Formats the given value with all the digits required to read it back
+	 * identically.
+	 */
+	public String format(double value) {
+		final DecimalFormat f = format.get();
+		f.setMinimumFractionDigits(0);
+		f.setMaximumFractionDigits(340);
+		return f.format(value);
+	}
+
+	/**
+	 * Formats the given value, keeping its scale (thus, its trailing zeroes).
+	 */
+	public String format(BigDecimal value) {
+		final DecimalFormat f = format.get();
+		final int scale = Math.max(value.scale(), 0);
+		f.setMinimumFractionDigits(scale);
+		f.setMaximumFractionDigits(scale);
+		return f.format(value);
+	}
+
+	/**
+	 * Returns the given localized text in the form accepted by
+	 * {@link Double#parseDouble(String)} and {@link BigDecimal#BigDecimal(String)}
+	 * (an optional <code>-</code> followed by digits and at most one
+	 * <code>.</code>).
+	 *
+	 * @return <code>null</code> iff the text is not an accepted text.
+	 */
+	public String normalize(CharSequence text) {
+		final int length = text.length();
+		final StringBuilder normalized = new StringBuilder(length);
+		int i = 0;
+		if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == minusSign)) {
+			normalized.append('-');
+			i = 1;
+		}
+		boolean digits = false;
+		boolean decimal = false;
+		for (; i < length; ++i) {
+			final char c = text.charAt(i);
+			if (c >= '0' && c <= '9') {
+				normalized.append(c);
+				digits = true;
+			} else if (c == decimalSeparator && !decimal) {
+				normalized.append('.');
+				decimal = true;
+			} else if (!(digits && !decimal && isGroupingSeparator(c))) {
+				return null;
+			}
+		}
+		return digits ? normalized.toString() : null;
+	}
+
+	/**
+	 * Accepts any space character when the locale groups using a space (such
+	 * as a no-break space), as the user is likely to type a usual space.
+	 */
+	private boolean isGroupingSeparator(char c) {
+		return c == groupingSeparator || (Character.isSpaceChar(groupingSeparator) && Character.isSpaceChar(c));
+	}
+}
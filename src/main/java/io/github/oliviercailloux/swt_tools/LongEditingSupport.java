@@ -0,0 +1,211 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.function.LongFunction;
+
+import org.eclipse.jface.viewers.ColumnViewer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A {@link TextEditingSupport} that further restricts its content to values
+ * that can be converted to longs.
+ * </p>
+ * <p>
+ * This class is the <code>long</code> equivalent of {@link IntEditingSupport}
+ * (see there for the rationale about not constraining the user while typing).
+ * The text typed by the user is parsed in a single pass, without allocation,
+ * and the value parsed when validating is reused when committing. Texts
+ * representing integers that do not fit in a <code>long</code> are rejected by
+ * the validator.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements returned by the underlying column viewer.
+ */
+public abstract class LongEditingSupport<E> extends TextEditingSupport<E> {
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(LongEditingSupport.class);
+
+	/**
+	 * The value returned by {@link #parseNegativeMagnitude(CharSequence)} when
+	 * the text does not represent a <code>long</code>. It is positive, thus
+	 * distinct from any magnitude returned.
+	 */
+	static final long NOT_A_LONG = 1;
+
+	/**
+	 * Parses the given text as an optional minus sign followed by at least one
+	 * decimal digit, in a single pass and without allocating. The digits are
+	 * accumulated negatively, as in {@link Long#parseLong(String)}, so that
+	 * {@link Long#MIN_VALUE} can be represented.
+	 *
+	 * @param text
+	 *            not <code>null</code>.
+	 * @return the opposite of the absolute value of the text (thus, a
+	 *         non-positive number), or {@link #NOT_A_LONG} if the text does not
+	 *         have the required form or if the value overflows a
+	 *         <code>long</code>.
+	 */
+	static long parseNegativeMagnitude(CharSequence text) {
+		final int length = text.length();
+		final boolean negative = length > 0 && text.charAt(0) == '-';
+		int i = negative ? 1 : 0;
+		if (i == length) {
+			return NOT_A_LONG;
+		}
+		final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		final long multiplicationLimit = limit / 10;
+		long value = 0;
+		for (; i < length; ++i) {
+			final char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				return NOT_A_LONG;
+			}
+			final int digit = c - '0';
+			if (value < multiplicationLimit) {
+				return NOT_A_LONG;
+			}
+			value *= 10;
+			if (value < limit + digit) {
+				return NOT_A_LONG;
+			}
+			value -= digit;
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the value of the given text, given the result of
+	 * {@link #parseNegativeMagnitude(CharSequence)} on it.
+	 *
+	 * @param negativeMagnitude
+	 *            not {@link #NOT_A_LONG}.
+	 */
+	static long toLong(CharSequence text, long negativeMagnitude) {
+		assert negativeMagnitude != NOT_A_LONG;
+		return text.charAt(0) == '-' ? negativeMagnitude : -negativeMagnitude;
+	}
+
+	/**
+	 * The text most recently parsed by this object, or <code>null</code>.
+	 */
+	private String lastParsedText;
+
+	/**
+	 * Whether {@link #lastParsedText} represents a long.
+	 */
+	private boolean lastParsedValid;
+
+	/**
+	 * The result of parsing {@link #lastParsedText}, if valid.
+	 */
+	private long lastParsedValue;
+
+	public LongEditingSupport(ColumnViewer viewer, Class<E> classOfElements) {
+		super(viewer, classOfElements);
+		lastParsedText = null;
+		lastParsedValid = false;
+		lastParsedValue = 0;
+		setFirstLevelValidator(v -> v == null || !parse(v) ? "Integer required." : null,
+				v -> v == null || parseNegativeMagnitude(v) == NOT_A_LONG ? "Integer required." : null);
+	}
+
+	/**
+	 * <p>
+	 * Get the value to set to the editor.
+	 * </p>
+	 * <p>
+	 * This method is simply a better typed equivalent to {@link #getValue(Object)}.
+	 * </p>
+	 *
+	 * @param element
+	 *            the model element
+	 * @return the value shown.
+	 */
+	public abstract long getLongValue(E element);
+
+	@Override
+	public String getValueTyped(E element) {
+		return Long.toString(getLongValue(element));
+	}
+
+	/**
+	 * <p>
+	 * Sets the new value on the given element. When a property is set (see
+	 * {@link #setProperty(String)}), this object then updates the element in the
+	 * viewer, scoped to that property. Otherwise, implementers need to ensure
+	 * that <code>getViewer().update(element, null)</code> or similar methods are
+	 * called, either directly or through some kind of listener mechanism on the
+	 * implementer's model, to cause the new value to appear in the viewer.
+	 * </p>
+	 *
+	 * <p>
+	 * This method is simply a better typed equivalent to
+	 * {@link #setValue(Object, Object)}.
+	 * </p>
+	 *
+	 * @param element
+	 *            the model element
+	 * @param value
+	 *            the new value
+	 */
+	public abstract void setLongValue(E element, long value);
+
+	/**
+	 * <p>
+	 * Sets the input validator for this cell editor.
+	 * </p>
+	 * <p>
+	 * The validator is given the (long) value to be validated, and must return a
+	 * string indicating whether the given value is valid; <code>null</code> means
+	 * valid, and non-<code>null</code> means invalid, with the result being the
+	 * error message to display to the end user. It is only invoked with values
+	 * accepted by the first-level validator of this object.
+	 * </p>
+	 *
+	 * @param valueToErrorMessage
+	 *            the input validator, or <code>null</code> if none
+	 */
+	public void setLongValidator(LongFunction<String> valueToErrorMessage) {
+		if (valueToErrorMessage == null) {
+			setValidator(null);
+		} else {
+			setValidator(v -> {
+				parse(v);
+				return valueToErrorMessage.apply(lastParsedValue);
+			}, v -> valueToErrorMessage.apply(toLong(v, parseNegativeMagnitude(v))));
+		}
+	}
+
+	@Override
+	public void setValueTyped(E element, String value) {
+		assert value != null;
+		checkArgument(parse(value), "Not an integer: %s.", value);
+		setLongValue(element, lastParsedValue);
+	}
+
+	/**
+	 * Parses the given text, reusing the previous result if the text is equal
+	 * to the one parsed previously.
+	 *
+	 * @return <code>true</code> iff the text represents a long (see
+	 *         {@link #parseNegativeMagnitude(CharSequence)}), in which case
+	 *         its value is in {@link #lastParsedValue}.
+	 */
+	private boolean parse(String text) {
+		if (!text.equals(lastParsedText)) {
+			final long negativeMagnitude = parseNegativeMagnitude(text);
+			lastParsedValid = negativeMagnitude != NOT_A_LONG;
+			lastParsedValue = lastParsedValid ? toLong(text, negativeMagnitude) : 0;
+			lastParsedText = text;
+		}
+		return lastParsedValid;
+	}
+
+}
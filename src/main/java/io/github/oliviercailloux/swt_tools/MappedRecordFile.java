@@ -0,0 +1,509 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.eclipse.jface.viewers.ColumnViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * <p>
+ * A file of fixed-width records, mapped in memory, to browse and edit tables
+ * larger than the heap. The rows are identified by their index, and the
+ * viewer elements are these indices (see {@link #getRows()}); used with a
+ * virtual table viewer (see
+ * {@link JFace#setVirtualInput(TableViewer, List) JFace.setVirtualInput(viewer, file.getRows())}),
+ * only the visible rows are read.
+ * </p>
+ * <p>
+ * The user describes the fields of the records by their offset (and length,
+ * for texts) within a record. Numeric fields are read from and written to the
+ * mapped file directly, without copy. Text fields are decoded when read, and
+ * the decoded texts of the most recently read rows may be cached (see
+ * {@link #setRowCacheSize(int)}); they are padded with spaces when written.
+ * The fields give editing supports (for example,
+ * {@link IntField#newEditingSupport(ColumnViewer)}) whose edits are written in
+ * place, in the file, and reach the disk at the latest when the operating
+ * system flushes the mapping, or when {@link #force()} is called.
+ * </p>
+ * <p>
+ * The number of records is fixed when opening the file. Objects of this type
+ * are not thread-safe.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ */
+public class MappedRecordFile implements Closeable {
+	/**
+	 * A <code>double</code> field, stored on eight bytes.
+	 */
+	public class DoubleField {
+		private final int offset;
+
+		DoubleField(int offset) {
+			this.offset = offset;
+		}
+
+		public double get(int row) {
+			return getSegment(row).getDouble(getPosition(row, offset));
+		}
+
+		/**
+		 * Returns an editing support reading and writing this field, whose
+		 * elements are the rows of this file. The rows can be edited only if
+		 * this file is writable.
+		 */
+		public DoubleEditingSupport<Integer> newEditingSupport(ColumnViewer viewer) {
+			return new DoubleEditingSupport<Integer>(viewer, Integer.class) {
+				@Override
+				public boolean canEditTyped(Integer element) {
+					return writable;
+				}
+
+				@Override
+				public double getDoubleValue(Integer element) {
+					return get(element);
+				}
+
+				@Override
+				public void setDoubleValue(Integer element, double value) {
+					set(element, value);
+				}
+			};
+		}
+
+		public void set(int row, double value) {
+			checkState(writable);
+			getSegment(row).putDouble(getPosition(row, offset), value);
+		}
+	}
+
+	/**
+	 * An <code>int</code> field, stored on four bytes.
+	 */
+	public class IntField {
+		private final int offset;
+
+		IntField(int offset) {
+			this.offset = offset;
+		}
+
+		public int get(int row) {
+			return getSegment(row).getInt(getPosition(row, offset));
+		}
+
+		/**
+		 * Returns an editing support reading and writing this field, whose
+		 * elements are the rows of this file. The rows can be edited only if
+		 * this file is writable.
+		 */
+		public IntEditingSupport<Integer> newEditingSupport(ColumnViewer viewer) {
+			return new IntEditingSupport<Integer>(viewer, Integer.class) {
+				@Override
+				public boolean canEditTyped(Integer element) {
+					return writable;
+				}
+
+				@Override
+				public int getIntValue(Integer element) {
+					return get(element);
+				}
+
+				@Override
+				public void setIntValue(Integer element, int value) {
+					set(element, value);
+				}
+			};
+		}
+
+		public void set(int row, int value) {
+			checkState(writable);
+			getSegment(row).putInt(getPosition(row, offset), value);
+		}
+	}
+
+	/**
+	 * A <code>long</code> field, stored on eight bytes.
+	 */
+	public class LongField {
+		private final int offset;
+
+		LongField(int offset) {
+			this.offset = offset;
+		}
+
+		public long get(int row) {
+			return getSegment(row).getLong(getPosition(row, offset));
+		}
+
+		/**
+		 * Returns an editing support reading and writing this field, whose
+		 * elements are the rows of this file. The rows can be edited only if
+		 * this file is writable.
+		 */
+		public LongEditingSupport<Integer> newEditingSupport(ColumnViewer viewer) {
+			return new LongEditingSupport<Integer>(viewer, Integer.class) {
+				@Override
+				public boolean canEditTyped(Integer element) {
+					return writable;
+				}
+
+				@Override
+				public long getLongValue(Integer element) {
+					return get(element);
+				}
+
+				@Override
+				public void setLongValue(Integer element, long value) {
+					set(element, value);
+				}
+			};
+		}
+
+		public void set(int row, long value) {
+			checkState(writable);
+			getSegment(row).putLong(getPosition(row, offset), value);
+		}
+	}
+
+	/**
+	 * The indices of the records of the file, computed on demand.
+	 */
+	private class Rows extends AbstractList<Integer> implements RandomAccess {
+		Rows() {
+			/** Nothing to initialize. */
+		}
+
+		@Override
+		public Integer get(int index) {
+			checkElementIndex(index, rowCount);
+			return index;
+		}
+
+		@Override
+		public int size() {
+			return rowCount;
+		}
+	}
+
+	/**
+	 * A text field, stored on a fixed number of bytes, padded with spaces.
+	 */
+	public class TextField {
+		/**
+		 * The position of the decoded texts of this field in the cached rows.
+		 */
+		private final int ordinal;
+
+		private final int length;
+
+		private final int offset;
+
+		TextField(int offset, int length, int ordinal) {
+			this.offset = offset;
+			this.length = length;
+			this.ordinal = ordinal;
+		}
+
+		/**
+		 * Returns the text of the given row, without its trailing spaces (and
+		 * NUL characters).
+		 */
+		public String get(int row) {
+			final String[] decoded = rowCache == null ? null : getCachedRow(row);
+			if (decoded != null && decoded[ordinal] != null) {
+				return decoded[ordinal];
+			}
+			final ByteBuffer source = getSegment(row).duplicate();
+			source.position(getPosition(row, offset));
+			final byte[] bytes = new byte[length];
+			source.get(bytes);
+			int end = length;
+			while (end > 0 && (bytes[end - 1] == ' ' || bytes[end - 1] == 0)) {
+				--end;
+			}
+			final String text = new String(bytes, 0, end, charset);
+			if (decoded != null) {
+				decoded[ordinal] = text;
+			}
+			return text;
+		}
+
+		/**
+		 * Returns the number of bytes of this field.
+		 */
+		public int getLength() {
+			return length;
+		}
+
+		/**
+		 * Returns an editing support reading and writing this field, whose
+		 * elements are the rows of this file. The rows can be edited only if
+		 * this file is writable. It rejects the texts too long to fit in the
+		 * field.
+		 */
+		public TextEditingSupport<Integer> newEditingSupport(ColumnViewer viewer) {
+			return new TextEditingSupport<Integer>(viewer, Integer.class) {
+				{
+					setFirstLevelValidator((v) -> v == null || !fits(v) ? "At most " + length + " bytes." : null);
+				}
+
+				@Override
+				public boolean canEditTyped(Integer element) {
+					return writable;
+				}
+
+				@Override
+				public String getValueTyped(Integer element) {
+					return get(element);
+				}
+
+				@Override
+				public void setValueTyped(Integer element, String value) {
+					set(element, value);
+				}
+			};
+		}
+
+		/**
+		 * Writes the given text, padded with spaces, in the given row.
+		 *
+		 * @param text
+		 *            must fit in this field, once encoded.
+		 */
+		public void set(int row, String text) {
+			checkState(writable);
+			final byte[] bytes = text.getBytes(charset);
+			checkArgument(bytes.length <= length, "Too long: %s.", text);
+			final ByteBuffer target = getSegment(row).duplicate();
+			target.position(getPosition(row, offset));
+			target.put(bytes);
+			for (int i = bytes.length; i < length; ++i) {
+				target.put((byte) ' ');
+			}
+			if (rowCache != null) {
+				rowCache.invalidate(row);
+			}
+		}
+
+		/**
+		 * Returns <code>true</code> iff the given text, once encoded, fits in
+		 * this field.
+		 */
+		public boolean fits(String text) {
+			return text.getBytes(charset).length <= length;
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(MappedRecordFile.class);
+
+	/**
+	 * The maximal number of bytes mapped by a single buffer.
+	 */
+	private static final int SEGMENT_BYTES = 1 << 30;
+
+	/**
+	 * Opens the given file, made of records of the given length, and maps it in
+	 * memory.
+	 *
+	 * @param recordLength
+	 *            a positive number dividing the size of the file.
+	 * @param order
+	 *            the byte order of the numeric fields.
+	 * @param writable
+	 *            <code>false</code> to open the file read-only.
+	 */
+	public static MappedRecordFile open(Path path, int recordLength, ByteOrder order, boolean writable)
+			throws IOException {
+		checkArgument(recordLength > 0);
+		requireNonNull(order);
+		final FileChannel channel = writable
+				? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			final long size = channel.size();
+			checkArgument(size % recordLength == 0, "The file size, %s, is not a multiple of %s.", size,
+					recordLength);
+			checkArgument(size / recordLength <= Integer.MAX_VALUE, "Too many records.");
+			final int rowCount = (int) (size / recordLength);
+			final int segmentRows = Math.max(1, SEGMENT_BYTES / recordLength);
+			final MappedByteBuffer[] segments = new MappedByteBuffer[(rowCount + segmentRows - 1) / segmentRows];
+			for (int i = 0; i < segments.length; ++i) {
+				final long start = (long) i * segmentRows * recordLength;
+				final long bytes = (long) Math.min(segmentRows, rowCount - i * segmentRows) * recordLength;
+				segments[i] = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+						start, bytes);
+				segments[i].order(order);
+			}
+			return new MappedRecordFile(channel, segments, segmentRows, recordLength, rowCount, writable);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private final FileChannel channel;
+
+	private Charset charset;
+
+	private final int recordLength;
+
+	/**
+	 * The decoded texts of the most recently read rows, by text field, or
+	 * <code>null</code> if no cache is used.
+	 */
+	private Cache<Integer, String[]> rowCache;
+
+	private final int rowCount;
+
+	private final Rows rows;
+
+	private final int segmentRows;
+
+	private final MappedByteBuffer[] segments;
+
+	private int textFieldCount;
+
+	private final boolean writable;
+
+	private MappedRecordFile(FileChannel channel, MappedByteBuffer[] segments, int segmentRows, int recordLength,
+			int rowCount, boolean writable) {
+		this.channel = channel;
+		this.segments = segments;
+		this.segmentRows = segmentRows;
+		this.recordLength = recordLength;
+		this.rowCount = rowCount;
+		this.writable = writable;
+		charset = StandardCharsets.UTF_8;
+		rowCache = null;
+		textFieldCount = 0;
+		rows = new Rows();
+	}
+
+	/**
+	 * Closes the underlying channel. The memory mappings remain valid until
+	 * garbage collected, but this object must not be used any more.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	public DoubleField doubleField(int offset) {
+		checkField(offset, Double.BYTES);
+		return new DoubleField(offset);
+	}
+
+	/**
+	 * Writes the edits to the disk.
+	 */
+	public void force() {
+		for (MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns the indices of the records of this file, from zero, as a
+	 * read-only view. Its elements are created on demand, thus the list takes no
+	 * memory per row.
+	 */
+	public List<Integer> getRows() {
+		return rows;
+	}
+
+	public IntField intField(int offset) {
+		checkField(offset, Integer.BYTES);
+		return new IntField(offset);
+	}
+
+	public LongField longField(int offset) {
+		checkField(offset, Long.BYTES);
+		return new LongField(offset);
+	}
+
+	/**
+	 * Sets the character set of the text fields (UTF-8 by default).
+	 */
+	public void setCharset(Charset charset) {
+		this.charset = requireNonNull(charset);
+		if (rowCache != null) {
+			rowCache.invalidateAll();
+		}
+	}
+
+	/**
+	 * Sets the number of rows whose decoded texts are kept, the least recently
+	 * read ones being forgotten first. The cache is empty when this method
+	 * returns.
+	 *
+	 * @param maximumRows
+	 *            zero for no cache (the default).
+	 */
+	public void setRowCacheSize(int maximumRows) {
+		checkArgument(maximumRows >= 0);
+		rowCache = maximumRows == 0 ? null : CacheBuilder.newBuilder().maximumSize(maximumRows).build();
+	}
+
+	/**
+	 * Returns a field of texts stored on the given number of bytes.
+	 */
+	public TextField textField(int offset, int length) {
+		checkField(offset, length);
+		return new TextField(offset, length, textFieldCount++);
+	}
+
+	private void checkField(int offset, int length) {
+		checkArgument(offset >= 0 && length > 0 && offset <= recordLength - length,
+				"The field does not fit in the record.");
+	}
+
+	private String[] getCachedRow(int row) {
+		String[] decoded = rowCache.getIfPresent(row);
+		if (decoded == null || decoded.length < textFieldCount) {
+			decoded = decoded == null ? new String[textFieldCount] : Arrays.copyOf(decoded, textFieldCount);
+			rowCache.put(row, decoded);
+		}
+		return decoded;
+	}
+
+	/**
+	 * Returns the position of the given field of the given row in its segment.
+	 */
+	private int getPosition(int row, int offset) {
+		return (row % segmentRows) * recordLength + offset;
+	}
+
+	private MappedByteBuffer getSegment(int row) {
+		checkElementIndex(row, rowCount);
+		return segments[row / segmentRows];
+	}
+}
@@ -0,0 +1,184 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * <p>
+ * Fetches the items matching a text from an {@link ItemSource}, by pages of a
+ * fixed number of items, and keeps a bounded number of pages, evicting the
+ * least recently used ones. When a page is asked for, the next one is fetched
+ * in the background (unless the page is the last one), so that it is ready
+ * when the end-user scrolls further. A page is fetched at most once at a time,
+ * whether it is asked for or prefetched. A page may also be asked for without
+ * waiting for it (see {@link #getPageAsync(String, int)}), from a thread that
+ * must not block, such as the UI thread.
+ * </p>
+ * <p>
+ * Objects of this type may be used from several threads. They are meant to be
+ * given to {@link ComboBoxEditingSupport#setItemSource(PagedItemSource)}.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <V>
+ *            the type of items.
+ */
+public class PagedItemSource<V> {
+	private static class PageKey {
+		final int page;
+
+		final String text;
+
+		PageKey(String text, int page) {
+			this.text = text;
+			this.page = page;
+		}
+
+		@Override
+		public boolean equals(Object o2) {
+			if (!(o2 instanceof PageKey)) {
+				return false;
+			}
+			final PageKey k2 = (PageKey) o2;
+			return page == k2.page && text.equals(k2.text);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(text, page);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(PagedItemSource.class);
+
+	private final int pageSize;
+
+	private final LoadingCache<PageKey, List<V>> pages;
+
+	private final Executor prefetcher;
+
+	private final ItemSource<V> source;
+
+	/**
+	 * @param source
+	 *            must permit to be called from the prefetching executor.
+	 * @param pageSize
+	 *            the number of items per page, positive.
+	 * @param maximumPages
+	 *            the maximal number of pages kept, positive.
+	 * @param prefetcher
+	 *            the executor fetching the next pages.
+	 */
+	public PagedItemSource(ItemSource<V> source, int pageSize, int maximumPages, Executor prefetcher) {
+		checkArgument(pageSize > 0);
+		checkArgument(maximumPages > 0);
+		this.source = requireNonNull(source);
+		this.pageSize = pageSize;
+		this.prefetcher = requireNonNull(prefetcher);
+		/** A single segment, so that the least recently used page is evicted. */
+		pages = CacheBuilder.newBuilder().concurrencyLevel(1).maximumSize(maximumPages)
+				.build(CacheLoader.from(this::fetch));
+	}
+
+	/**
+	 * Returns the number of pages currently kept.
+	 */
+	public long getCachedPageCount() {
+		return pages.size();
+	}
+
+	/**
+	 * Returns the given page of the items matching the given text, fetching it
+	 * from the calling thread if it is not kept, and starts fetching the next
+	 * page if this one is full and the next one is not kept.
+	 *
+	 * @param text
+	 *            not <code>null</code>.
+	 * @param page
+	 *            non negative.
+	 * @return at most {@link #getPageSize()} items, an empty list if there are
+	 *         no such items.
+	 */
+	public List<V> getPage(String text, int page) {
+		requireNonNull(text);
+		checkArgument(page >= 0);
+		final List<V> items;
+		try {
+			items = pages.getUnchecked(new PageKey(text, page));
+		} catch (UncheckedExecutionException e) {
+			Throwables.throwIfUnchecked(e.getCause());
+			throw e;
+		}
+		if (items.size() == pageSize) {
+			final PageKey next = new PageKey(text, page + 1);
+			/** Unlike getIfPresent, does not count as a use of the page. */
+			if (!pages.asMap().containsKey(next)) {
+				prefetcher.execute(() -> prefetch(next));
+			}
+		}
+		return items;
+	}
+
+	/**
+	 * Returns the given page of the items matching the given text, as
+	 * {@link #getPage(String, int)} does, but without fetching it from the
+	 * calling thread: if it is not kept, it is fetched using the prefetching
+	 * executor.
+	 *
+	 * @param text
+	 *            not <code>null</code>.
+	 * @param page
+	 *            non negative.
+	 * @return a future, already completed if the page is kept.
+	 */
+	public CompletableFuture<List<V>> getPageAsync(String text, int page) {
+		requireNonNull(text);
+		checkArgument(page >= 0);
+		if (pages.getIfPresent(new PageKey(text, page)) != null) {
+			return CompletableFuture.completedFuture(getPage(text, page));
+		}
+		return CompletableFuture.supplyAsync(() -> getPage(text, page), prefetcher);
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Forgets all the pages, for example because the catalog changed.
+	 */
+	public void invalidateAll() {
+		pages.invalidateAll();
+	}
+
+	private List<V> fetch(PageKey key) {
+		final List<V> items = source.fetch(key.text, key.page * pageSize, pageSize);
+		checkArgument(items.size() <= pageSize);
+		return ImmutableList.copyOf(items);
+	}
+
+	private void prefetch(PageKey key) {
+		try {
+			pages.getUnchecked(key);
+		} catch (RuntimeException e) {
+			LOGGER.warn("Could not prefetch page {} of the items matching '{}'.", key.page, key.text, e);
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.primitives.Primitives;
+
+/**
+ * <p>
+ * Looks up the bean accessors of the properties of a class, and turns them
+ * into functional objects using {@link LambdaMetafactory}, for
+ * {@link PropertyBindings}. The functions returned throw
+ * {@link NullPointerException} when given a <code>null</code> value for a
+ * primitive property.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the class whose properties are accessed.
+ */
+class PropertyAccessors<E> {
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(PropertyAccessors.class);
+
+	/**
+	 * @return the functional object implementing the given interface by
+	 *         invoking the given method handle.
+	 */
+	private static <F> F generate(MethodHandles.Lookup lookup, Class<F> functionalInterface, String methodName,
+			MethodType erasedType, MethodHandle implementation, MethodType instantiatedType) {
+		try {
+			final CallSite site = LambdaMetafactory.metafactory(lookup, methodName,
+					MethodType.methodType(functionalInterface), erasedType, implementation, instantiatedType);
+			return functionalInterface.cast(site.getTarget().invoke());
+		} catch (Throwable e) {
+			throw new IllegalArgumentException("Could not bind " + implementation + ".", e);
+		}
+	}
+
+	private final Class<E> classOfElements;
+
+	private final MethodHandles.Lookup lookup;
+
+	PropertyAccessors(MethodHandles.Lookup lookup, Class<E> classOfElements) {
+		this.lookup = requireNonNull(lookup);
+		this.classOfElements = requireNonNull(classOfElements);
+	}
+
+	ToDoubleFunction<E> doubleGetter(String property) {
+		@SuppressWarnings("unchecked")
+		final ToDoubleFunction<E> getter = generate(lookup, ToDoubleFunction.class, "applyAsDouble",
+				MethodType.methodType(double.class, Object.class), findGetter(property, double.class),
+				MethodType.methodType(double.class, classOfElements));
+		return getter;
+	}
+
+	/**
+	 * @return <code>null</code> iff the property has no setter.
+	 */
+	ObjDoubleConsumer<E> doubleSetter(String property) {
+		final MethodHandle handle = findSetter(property, double.class);
+		if (handle == null) {
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		final ObjDoubleConsumer<E> setter = generate(lookup, ObjDoubleConsumer.class, "accept",
+				MethodType.methodType(void.class, Object.class, double.class), handle,
+				MethodType.methodType(void.class, classOfElements, double.class));
+		return setter;
+	}
+
+	/**
+	 * Returns a function invoking the getter of the given property, which must
+	 * return an object of the given class, or the corresponding primitive type.
+	 */
+	<V> Function<E, V> getter(String property, Class<V> classOfValues) {
+		final MethodHandle handle = findGetter(property, classOfValues);
+		@SuppressWarnings("unchecked")
+		final Function<E, V> getter = generate(lookup, Function.class, "apply",
+				MethodType.methodType(Object.class, Object.class), handle,
+				MethodType.methodType(Primitives.wrap(classOfValues), classOfElements));
+		return getter;
+	}
+
+	ToIntFunction<E> intGetter(String property) {
+		@SuppressWarnings("unchecked")
+		final ToIntFunction<E> getter = generate(lookup, ToIntFunction.class, "applyAsInt",
+				MethodType.methodType(int.class, Object.class), findGetter(property, int.class),
+				MethodType.methodType(int.class, classOfElements));
+		return getter;
+	}
+
+	/**
+	 * @return <code>null</code> iff the property has no setter.
+	 */
+	ObjIntConsumer<E> intSetter(String property) {
+		final MethodHandle handle = findSetter(property, int.class);
+		if (handle == null) {
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		final ObjIntConsumer<E> setter = generate(lookup, ObjIntConsumer.class, "accept",
+				MethodType.methodType(void.class, Object.class, int.class), handle,
+				MethodType.methodType(void.class, classOfElements, int.class));
+		return setter;
+	}
+
+	/**
+	 * Returns a function invoking the setter of the given property, which must
+	 * accept an object of the given class, or the corresponding primitive type.
+	 *
+	 * @return <code>null</code> iff the property has no setter.
+	 */
+	<V> BiConsumer<E, V> setter(String property, Class<V> classOfValues) {
+		final MethodHandle handle = findSetter(property, classOfValues);
+		if (handle == null) {
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		final BiConsumer<E, V> setter = generate(lookup, BiConsumer.class, "accept",
+				MethodType.methodType(void.class, Object.class, Object.class), handle,
+				MethodType.methodType(void.class, classOfElements, Primitives.wrap(classOfValues)));
+		return setter;
+	}
+
+	ToLongFunction<E> longGetter(String property) {
+		@SuppressWarnings("unchecked")
+		final ToLongFunction<E> getter = generate(lookup, ToLongFunction.class, "applyAsLong",
+				MethodType.methodType(long.class, Object.class), findGetter(property, long.class),
+				MethodType.methodType(long.class, classOfElements));
+		return getter;
+	}
+
+	/**
+	 * @return <code>null</code> iff the property has no setter.
+	 */
+	ObjLongConsumer<E> longSetter(String property) {
+		final MethodHandle handle = findSetter(property, long.class);
+		if (handle == null) {
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		final ObjLongConsumer<E> setter = generate(lookup, ObjLongConsumer.class, "accept",
+				MethodType.methodType(void.class, Object.class, long.class), handle,
+				MethodType.methodType(void.class, classOfElements, long.class));
+		return setter;
+	}
+
+	/**
+	 * Returns the getter of the given property (<code>getP</code>, or
+	 * <code>isP</code> for a <code>boolean</code> property), which must return
+	 * the given type or, if it is a wrapper type, the corresponding primitive
+	 * type.
+	 */
+	private MethodHandle findGetter(String property, Class<?> type) {
+		final String suffix = capitalize(property);
+		Method getter = findMethod("get" + suffix);
+		if (getter == null && Primitives.unwrap(type) == boolean.class) {
+			getter = findMethod("is" + suffix);
+		}
+		checkArgument(getter != null, "No getter for %s in %s.", property, classOfElements);
+		final Class<?> returned = getter.getReturnType();
+		checkArgument(returned == type || Primitives.wrap(returned) == type, "The getter %s does not return %s.",
+				getter, type);
+		try {
+			return lookup.unreflect(getter);
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	/**
+	 * Returns the public instance method of the class of elements with the
+	 * given name and no parameters, or <code>null</code> if not found.
+	 */
+	private Method findMethod(String name) {
+		for (Method method : classOfElements.getMethods()) {
+			if (method.getName().equals(name) && !Modifier.isStatic(method.getModifiers())
+					&& method.getParameterCount() == 0) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the setter of the given property (<code>setP</code>), accepting
+	 * the given type or, if it is a wrapper type, the corresponding primitive
+	 * type, or <code>null</code> if there is none.
+	 */
+	private MethodHandle findSetter(String property, Class<?> type) {
+		final String name = "set" + capitalize(property);
+		for (Method method : classOfElements.getMethods()) {
+			if (method.getName().equals(name) && !Modifier.isStatic(method.getModifiers())
+					&& method.getParameterCount() == 1) {
+				final Class<?> accepted = method.getParameterTypes()[0];
+				if (accepted == type || Primitives.wrap(accepted) == type) {
+					try {
+						return lookup.unreflect(method);
+					} catch (IllegalAccessException e) {
+						throw new IllegalArgumentException(e);
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private static String capitalize(String property) {
+		checkArgument(!property.isEmpty());
+		return Character.toUpperCase(property.charAt(0)) + property.substring(1);
+	}
+}
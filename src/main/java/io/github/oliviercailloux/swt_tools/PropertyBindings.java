@@ -0,0 +1,390 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static java.util.Objects.requireNonNull;
+
+import java.lang.invoke.MethodHandles;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.jface.viewers.ColumnViewer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Creates typed editing supports bound to the properties of the elements of a
+ * viewer, sparing the user from writing a subclass per column.
+ * </p>
+ * <p>
+ * A property is given either as a pair of accessors (typically method
+ * references, such as <code>Person::getAge</code> and
+ * <code>Person::setAge</code>), or by name, in which case this object looks up
+ * the bean getter (<code>getAge</code>) and, if any, the bean setter
+ * (<code>setAge</code>) of the class of elements. Such accessors are looked up
+ * once, when the editing support is created, and are then turned into lambda
+ * objects using {@link java.lang.invoke.LambdaMetafactory}: reading or writing
+ * a property later involves no reflection, and costs about the same as with a
+ * hand-written subclass. Properties of primitive types are read and written
+ * using primitive functional interfaces, without boxing.
+ * </p>
+ * <p>
+ * A property without setter (or whose setter is given as <code>null</code>)
+ * is read-only: the editing support can't edit it.
+ * </p>
+ * <p>
+ * The editing supports bound to a property by name have that property set
+ * (see {@link TypedEditingSupport#setProperty(String)}), thus update the
+ * elements edited in the viewer scoped to that property. The editing supports
+ * using accessors have no property set: they update the elements edited fully,
+ * unless the user sets a property on them.
+ * </p>
+ * <p>
+ * The accessors looked up by name must be public methods. They are looked up,
+ * and the lambda objects are defined, using a lookup object given by the user
+ * (see {@link #of(ColumnViewer, Class, MethodHandles.Lookup)}), thus in the
+ * class loader of the user, which sees the class of elements even when this
+ * library is loaded by an other class loader (as in OSGi), and even when that
+ * class is not public.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements returned by the underlying column viewer.
+ */
+public class PropertyBindings<E> {
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(PropertyBindings.class);
+
+	/**
+	 * Returns an object that creates editing supports bound to accessors
+	 * accessible from the given lookup object.
+	 *
+	 * @param viewer
+	 *            the viewer of the editing supports created.
+	 * @param lookup
+	 *            obtained by the caller with {@link MethodHandles#lookup()}, in
+	 *            a class that sees the class of elements.
+	 */
+	public static <E> PropertyBindings<E> of(ColumnViewer viewer, Class<E> classOfElements,
+			MethodHandles.Lookup lookup) {
+		return new PropertyBindings<>(viewer, classOfElements, lookup);
+	}
+
+	private final PropertyAccessors<E> accessors;
+
+	private final Class<E> classOfElements;
+
+	private final ColumnViewer viewer;
+
+	private PropertyBindings(ColumnViewer viewer, Class<E> classOfElements, MethodHandles.Lookup lookup) {
+		this.viewer = requireNonNull(viewer);
+		this.classOfElements = requireNonNull(classOfElements);
+		accessors = new PropertyAccessors<>(lookup, classOfElements);
+	}
+
+	/**
+	 * Returns an editing support using the given accessors. Its items remain to
+	 * be set (see {@link ComboBoxEditingSupport#setItems(java.util.List)}).
+	 *
+	 * @param setter
+	 *            <code>null</code> for a read-only property.
+	 */
+	public <V> ComboBoxEditingSupport<E, V> comboBox(Class<V> classOfValues, Function<? super E, ? extends V> getter,
+			BiConsumer<? super E, ? super V> setter) {
+		requireNonNull(getter);
+		return new ComboBoxEditingSupport<E, V>(viewer, classOfElements, classOfValues) {
+			@Override
+			public boolean canEditTyped(E element) {
+				return setter != null;
+			}
+
+			@Override
+			public V getValueTyped(E element) {
+				return getter.apply(element);
+			}
+
+			@Override
+			public void setValueTyped(E element, V value) {
+				checkWritable(setter);
+				setter.accept(element, value);
+				updateUnlessScoped(this, element);
+			}
+		};
+	}
+
+	/**
+	 * Returns an editing support bound to the property of the given name, whose
+	 * getter must return an object of the given class (or the corresponding
+	 * primitive type).
+	 */
+	public <V> ComboBoxEditingSupport<E, V> comboBox(String property, Class<V> classOfValues) {
+		return scoped(comboBox(classOfValues, accessors.getter(property, classOfValues),
+				accessors.setter(property, classOfValues)), property);
+	}
+
+	/**
+	 * Returns an editing support using the given accessors.
+	 *
+	 * @param setter
+	 *            <code>null</code> for a read-only property.
+	 */
+	public DecimalEditingSupport<E> decimal(Function<? super E, BigDecimal> getter,
+			BiConsumer<? super E, BigDecimal> setter) {
+		requireNonNull(getter);
+		return new DecimalEditingSupport<E>(viewer, classOfElements) {
+			@Override
+			public boolean canEditTyped(E element) {
+				return setter != null;
+			}
+
+			@Override
+			public BigDecimal getDecimalValue(E element) {
+				return getter.apply(element);
+			}
+
+			@Override
+			public void setDecimalValue(E element, BigDecimal value) {
+				checkWritable(setter);
+				setter.accept(element, value);
+				updateUnlessScoped(this, element);
+			}
+		};
+	}
+
+	/**
+	 * Returns an editing support bound to the {@link BigDecimal} property of the
+	 * given name.
+	 */
+	public DecimalEditingSupport<E> decimal(String property) {
+		return scoped(
+				decimal(accessors.getter(property, BigDecimal.class), accessors.setter(property, BigDecimal.class)),
+				property);
+	}
+
+	/**
+	 * Returns an editing support using the given accessors.
+	 *
+	 * @param setter
+	 *            <code>null</code> for a read-only property.
+	 */
+	public DoubleEditingSupport<E> real(ToDoubleFunction<? super E> getter, ObjDoubleConsumer<? super E> setter) {
+		requireNonNull(getter);
+		return new DoubleEditingSupport<E>(viewer, classOfElements) {
+			@Override
+			public boolean canEditTyped(E element) {
+				return setter != null;
+			}
+
+			@Override
+			public double getDoubleValue(E element) {
+				return getter.applyAsDouble(element);
+			}
+
+			@Override
+			public void setDoubleValue(E element, double value) {
+				checkWritable(setter);
+				setter.accept(element, value);
+				updateUnlessScoped(this, element);
+			}
+		};
+	}
+
+	/**
+	 * Returns an editing support bound to the <code>double</code> property of
+	 * the given name.
+	 */
+	public DoubleEditingSupport<E> real(String property) {
+		return scoped(real(accessors.doubleGetter(property), accessors.doubleSetter(property)), property);
+	}
+
+	public Class<E> getClassOfElements() {
+		return classOfElements;
+	}
+
+	public ColumnViewer getViewer() {
+		return viewer;
+	}
+
+	/**
+	 * Returns an editing support using the given accessors.
+	 *
+	 * @param setter
+	 *            <code>null</code> for a read-only property.
+	 */
+	public IntEditingSupport<E> integer(ToIntFunction<? super E> getter, ObjIntConsumer<? super E> setter) {
+		requireNonNull(getter);
+		return new IntEditingSupport<E>(viewer, classOfElements) {
+			@Override
+			public boolean canEditTyped(E element) {
+				return setter != null;
+			}
+
+			@Override
+			public int getIntValue(E element) {
+				return getter.applyAsInt(element);
+			}
+
+			@Override
+			public void setIntValue(E element, int value) {
+				checkWritable(setter);
+				setter.accept(element, value);
+				updateUnlessScoped(this, element);
+			}
+		};
+	}
+
+	/**
+	 * Returns an editing support bound to the <code>int</code> property of the
+	 * given name.
+	 */
+	public IntEditingSupport<E> integer(String property) {
+		return scoped(integer(accessors.intGetter(property), accessors.intSetter(property)), property);
+	}
+
+	/**
+	 * Returns an editing support using the given accessors.
+	 *
+	 * @param setter
+	 *            <code>null</code> for a read-only property.
+	 */
+	public LocalDateEditingSupport<E> localDate(Function<? super E, LocalDate> getter,
+			BiConsumer<? super E, LocalDate> setter) {
+		requireNonNull(getter);
+		return new LocalDateEditingSupport<E>(viewer, classOfElements) {
+			@Override
+			public boolean canEditTyped(E element) {
+				return setter != null;
+			}
+
+			@Override
+			public LocalDate getTemporalValue(E element) {
+				return getter.apply(element);
+			}
+
+			@Override
+			public void setTemporalValue(E element, LocalDate value) {
+				checkWritable(setter);
+				setter.accept(element, value);
+				updateUnlessScoped(this, element);
+			}
+		};
+	}
+
+	/**
+	 * Returns an editing support bound to the {@link LocalDate} property of the
+	 * given name.
+	 */
+	public LocalDateEditingSupport<E> localDate(String property) {
+		return scoped(
+				localDate(accessors.getter(property, LocalDate.class), accessors.setter(property, LocalDate.class)),
+				property);
+	}
+
+	/**
+	 * Returns an editing support using the given accessors.
+	 *
+	 * @param setter
+	 *            <code>null</code> for a read-only property.
+	 */
+	public LongEditingSupport<E> longInteger(ToLongFunction<? super E> getter, ObjLongConsumer<? super E> setter) {
+		requireNonNull(getter);
+		return new LongEditingSupport<E>(viewer, classOfElements) {
+			@Override
+			public boolean canEditTyped(E element) {
+				return setter != null;
+			}
+
+			@Override
+			public long getLongValue(E element) {
+				return getter.applyAsLong(element);
+			}
+
+			@Override
+			public void setLongValue(E element, long value) {
+				checkWritable(setter);
+				setter.accept(element, value);
+				updateUnlessScoped(this, element);
+			}
+		};
+	}
+
+	/**
+	 * Returns an editing support bound to the <code>long</code> property of the
+	 * given name.
+	 */
+	public LongEditingSupport<E> longInteger(String property) {
+		return scoped(longInteger(accessors.longGetter(property), accessors.longSetter(property)), property);
+	}
+
+	/**
+	 * Returns an editing support using the given accessors.
+	 *
+	 * @param setter
+	 *            <code>null</code> for a read-only property.
+	 */
+	public TextEditingSupport<E> text(Function<? super E, String> getter, BiConsumer<? super E, String> setter) {
+		requireNonNull(getter);
+		return new TextEditingSupport<E>(viewer, classOfElements) {
+			@Override
+			public boolean canEditTyped(E element) {
+				return setter != null;
+			}
+
+			@Override
+			public String getValueTyped(E element) {
+				return getter.apply(element);
+			}
+
+			@Override
+			public void setValueTyped(E element, String value) {
+				checkWritable(setter);
+				setter.accept(element, value);
+				updateUnlessScoped(this, element);
+			}
+		};
+	}
+
+	/**
+	 * Returns an editing support bound to the {@link String} property of the
+	 * given name.
+	 */
+	public TextEditingSupport<E> text(String property) {
+		return scoped(text(accessors.getter(property, String.class), accessors.setter(property, String.class)),
+				property);
+	}
+
+	private static void checkWritable(Object setter) {
+		if (setter == null) {
+			throw new UnsupportedOperationException("Read-only property.");
+		}
+	}
+
+	/**
+	 * Sets the given property on the given editing support, so that its edits
+	 * update the viewer scoped to that property, and returns it.
+	 */
+	private static <T extends TypedEditingSupport<?, ?>> T scoped(T editingSupport, String property) {
+		editingSupport.setProperty(property);
+		return editingSupport;
+	}
+
+	/**
+	 * Updates the given element in the viewer after an edit through the given
+	 * editing support, unless a property is set on it, in which case it updates
+	 * the element itself, scoped to that property.
+	 */
+	private static void updateUnlessScoped(TypedEditingSupport<?, ?> editingSupport, Object element) {
+		if (editingSupport.getProperty() == null) {
+			editingSupport.getViewer().update(element, null);
+		}
+	}
+}
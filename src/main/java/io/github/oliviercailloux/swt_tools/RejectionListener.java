@@ -0,0 +1,28 @@
+package io.github.oliviercailloux.swt_tools;
+
+/**
+ * <p>
+ * Is told about the values applied by the end-user while their asynchronous
+ * check was pending, and that were not sent to the model because the check
+ * rejected them or failed (see
+ * {@link TypedEditingSupportConstantEditor#addRejectionListener(RejectionListener)}).
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements.
+ * @param <V>
+ *            the type of values.
+ */
+@FunctionalInterface
+public interface RejectionListener<E, V> {
+	/**
+	 * Invoked, from the UI thread, once the check of the given value, applied to
+	 * the given element, has rejected it or failed.
+	 *
+	 * @param message
+	 *            the error message of the check.
+	 */
+	public void rejected(E element, V value, String message);
+}
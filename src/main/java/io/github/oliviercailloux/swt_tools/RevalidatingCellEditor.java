@@ -0,0 +1,59 @@
+package io.github.oliviercailloux.swt_tools;
+
+import org.eclipse.jface.viewers.CellEditor;
+import org.eclipse.jface.viewers.ComboBoxViewerCellEditor;
+import org.eclipse.jface.viewers.TextCellEditor;
+import org.eclipse.swt.widgets.Composite;
+
+/**
+ * <p>
+ * A cell editor that can be asked to validate its current value again, as it
+ * does when the end-user changes it, for example because the result of an
+ * asynchronous validator just arrived. {@link CellEditor} only permits its
+ * subclasses to do so.
+ * </p>
+ * <p>
+ * The cell editors created by the editing supports of this library implement
+ * this interface.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ */
+interface RevalidatingCellEditor {
+	/**
+	 * A {@link ComboBoxViewerCellEditor} that can validate its selection again.
+	 */
+	static class ComboBox extends ComboBoxViewerCellEditor implements RevalidatingCellEditor {
+		public ComboBox(Composite parent) {
+			super(parent);
+		}
+
+		@Override
+		public void revalidate() {
+			final boolean oldValidState = isValueValid();
+			valueChanged(oldValidState, isCorrect(doGetValue()));
+		}
+	}
+
+	/**
+	 * A {@link TextCellEditor} that can validate its text again.
+	 */
+	static class Text extends TextCellEditor implements RevalidatingCellEditor {
+		public Text(Composite parent) {
+			super(parent);
+		}
+
+		@Override
+		public void revalidate() {
+			final boolean oldValidState = isValueValid();
+			valueChanged(oldValidState, isCorrect(doGetValue()));
+		}
+	}
+
+	/**
+	 * Validates the current value of this cell editor, updates its validity and
+	 * its error message accordingly, and tells its listeners.
+	 */
+	public void revalidate();
+}
@@ -0,0 +1,97 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Function;
+
+import org.eclipse.jface.viewers.CellEditor;
+import org.eclipse.jface.viewers.ICellEditorListener;
+import org.eclipse.swt.widgets.Composite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A cell editor shared among the editing supports of the columns of a viewer
+ * that use the same kind of editor. A viewer edits one cell at a time, thus
+ * one widget per kind suffices, instead of one per column. The editor belongs
+ * to one editing support at a time, its owner, which sets its validator (and
+ * its other settings) when it takes the editor; the events of the editor are
+ * forwarded to the owner only.
+ * </p>
+ * <p>
+ * The shared editors are kept as data of the control of the viewer, thus they
+ * live as long as that control.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ */
+class SharedCellEditor {
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(SharedCellEditor.class);
+
+	/**
+	 * Returns the editor of the given kind shared among the editing supports of
+	 * the given control, creating it with the given factory if it does not
+	 * exist yet.
+	 */
+	static SharedCellEditor of(Composite parent, String kind, Function<Composite, ? extends CellEditor> factory) {
+		final String key = SharedCellEditor.class.getName() + "." + kind;
+		SharedCellEditor shared = (SharedCellEditor) parent.getData(key);
+		if (shared == null) {
+			shared = new SharedCellEditor(factory.apply(parent));
+			parent.setData(key, shared);
+		}
+		return shared;
+	}
+
+	private final CellEditor editor;
+
+	/**
+	 * <code>null</code> iff the editor has not been taken yet.
+	 */
+	private TypedEditingSupportConstantEditor<?, ?> owner;
+
+	private SharedCellEditor(CellEditor editor) {
+		this.editor = requireNonNull(editor);
+		owner = null;
+		editor.addListener(new ICellEditorListener() {
+			@Override
+			public void applyEditorValue() {
+				if (owner != null) {
+					owner.getEditorListener().applyEditorValue();
+				}
+			}
+
+			@Override
+			public void cancelEditor() {
+				if (owner != null) {
+					owner.getEditorListener().cancelEditor();
+				}
+			}
+
+			@Override
+			public void editorValueChanged(boolean oldValidState, boolean newValidState) {
+				if (owner != null) {
+					owner.getEditorListener().editorValueChanged(oldValidState, newValidState);
+				}
+			}
+		});
+	}
+
+	public CellEditor getEditor() {
+		return editor;
+	}
+
+	/**
+	 * @return <code>null</code> iff the editor has not been taken yet.
+	 */
+	public TypedEditingSupportConstantEditor<?, ?> getOwner() {
+		return owner;
+	}
+
+	public void setOwner(TypedEditingSupportConstantEditor<?, ?> owner) {
+		this.owner = requireNonNull(owner);
+	}
+}
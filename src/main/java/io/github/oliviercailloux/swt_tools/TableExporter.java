@@ -0,0 +1,333 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Writes rows as comma-separated (see {@link #csv()}) or tab-separated (see
+ * {@link #tsv()}) values, one cell per column added to this object. The text
+ * of a cell is the label of the row in that column, as given by the typed
+ * editing support of the column ({@link TypedEditingSupport#getLabelTyped(Object)}),
+ * which is the text the label providers created by {@link JFace} show. Cells
+ * containing the separator, a quote or a line break are quoted, quotes being
+ * doubled (thus, tab-separated values can be read back by
+ * {@link BulkEditor#paste(List, int, CharSequence)}).
+ * </p>
+ * <p>
+ * The text is streamed to a channel: rows are formatted into a buffer of
+ * bounded size, which is encoded and written when full. The memory used does
+ * not depend on the number of rows. The rows may also be formatted by several
+ * threads (see {@link #export(List, WritableByteChannel, Charset, Executor, int)}),
+ * by blocks of {@link #BLOCK_ROWS} rows, a bounded number of blocks being
+ * formatted at a time, and written in order.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of rows.
+ */
+public class TableExporter<E> {
+	private static class Column<E> {
+		final String header;
+
+		final Function<? super E, String> label;
+
+		Column(String header, Function<? super E, String> label) {
+			this.header = header;
+			this.label = label;
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(TableExporter.class);
+
+	/**
+	 * The number of rows formatted by each task, when exporting using several
+	 * threads.
+	 */
+	public static final int BLOCK_ROWS = 4096;
+
+	/**
+	 * The number of characters formatted before being encoded and written,
+	 * when exporting from a single thread.
+	 */
+	private static final int CHUNK_CHARS = 1 << 16;
+
+	/**
+	 * Returns an exporter writing comma-separated values, with lines ended by
+	 * CR LF, as in RFC 4180.
+	 */
+	public static <E> TableExporter<E> csv() {
+		return new TableExporter<>(',', "\r\n");
+	}
+
+	/**
+	 * Returns an exporter writing tab-separated values, with lines ended by LF.
+	 */
+	public static <E> TableExporter<E> tsv() {
+		return new TableExporter<>('\t', "\n");
+	}
+
+	/**
+	 * Writes the content of the given buffer, then clears it.
+	 */
+	private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+		buffer.flip();
+		write(buffer, channel);
+		buffer.clear();
+	}
+
+	private static void write(ByteBuffer bytes, WritableByteChannel channel) throws IOException {
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+	}
+
+	private final List<Column<E>> columns;
+
+	private boolean header;
+
+	private final String lineSeparator;
+
+	private final char separator;
+
+	private TableExporter(char separator, String lineSeparator) {
+		this.separator = separator;
+		this.lineSeparator = lineSeparator;
+		columns = new ArrayList<>();
+		header = true;
+	}
+
+	/**
+	 * Adds a column whose cells are the labels given by the given function.
+	 *
+	 * @param header
+	 *            the text of the header of the column.
+	 * @param label
+	 *            must permit to be called from several threads concurrently if
+	 *            exporting using several threads; a <code>null</code> label is
+	 *            written as an empty cell.
+	 */
+	public void addColumn(String header, Function<? super E, String> label) {
+		columns.add(new Column<>(requireNonNull(header), requireNonNull(label)));
+	}
+
+	/**
+	 * Adds a column whose cells are the labels given by the given editing
+	 * support.
+	 *
+	 * @param header
+	 *            the text of the header of the column.
+	 */
+	public void addColumn(String header, TypedEditingSupport<E, ?> editingSupport) {
+		addColumn(header, editingSupport::getLabelTyped);
+	}
+
+	/**
+	 * Writes the header row, if enabled, then the given rows, from the calling
+	 * thread. The channel is not closed.
+	 *
+	 * @param rows
+	 *            should support fast random access.
+	 * @param charset
+	 *            characters that it can not encode are replaced.
+	 */
+	public void export(List<? extends E> rows, WritableByteChannel channel, Charset charset) throws IOException {
+		final CharsetEncoder encoder = newEncoder(charset);
+		final ByteBuffer buffer = ByteBuffer.allocate((int) (CHUNK_CHARS * encoder.averageBytesPerChar()) + 16);
+		final StringBuilder chunk = new StringBuilder(CHUNK_CHARS + 256);
+		if (header) {
+			appendHeader(chunk);
+		}
+		for (E row : rows) {
+			appendRow(chunk, row);
+			if (chunk.length() >= CHUNK_CHARS) {
+				write(chunk, encoder, buffer, channel);
+				chunk.setLength(0);
+			}
+		}
+		write(chunk, encoder, buffer, channel);
+	}
+
+	/**
+	 * Writes the header row, if enabled, then the given rows, formatting them
+	 * using the given executor, by blocks of {@link #BLOCK_ROWS} rows. The
+	 * calling thread writes the blocks to the channel, in order, once
+	 * formatted. The channel is not closed.
+	 *
+	 * @param rows
+	 *            should support fast random access, and must not be modified
+	 *            during the export.
+	 * @param charset
+	 *            characters that it can not encode are replaced.
+	 * @param parallelism
+	 *            the maximal number of blocks being formatted, or formatted
+	 *            and waiting to be written, at a time.
+	 */
+	public void export(List<? extends E> rows, WritableByteChannel channel, Charset charset, Executor executor,
+			int parallelism) throws IOException {
+		checkArgument(parallelism > 0);
+		requireNonNull(executor);
+		requireNonNull(charset);
+		if (header) {
+			final StringBuilder headerRow = new StringBuilder();
+			appendHeader(headerRow);
+			write(newEncoder(charset).encode(CharBuffer.wrap(headerRow)), channel);
+		}
+		final int size = rows.size();
+		final Deque<CompletableFuture<ByteBuffer>> inFlight = new ArrayDeque<>(parallelism);
+		int next = 0;
+		try {
+			while (next < size || !inFlight.isEmpty()) {
+				while (next < size && inFlight.size() < parallelism) {
+					final int from = next;
+					final int to = (int) Math.min(size, (long) from + BLOCK_ROWS);
+					inFlight.add(CompletableFuture.supplyAsync(() -> format(rows, from, to, charset), executor));
+					next = to;
+				}
+				write(inFlight.remove().join(), channel);
+			}
+		} catch (CompletionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) cause).getCause();
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw e;
+		} finally {
+			for (CompletableFuture<ByteBuffer> future : inFlight) {
+				future.cancel(false);
+			}
+		}
+	}
+
+	public boolean isHeader() {
+		return header;
+	}
+
+	/**
+	 * Sets whether a first row, made of the headers of the columns, is written
+	 * (<code>true</code> by default).
+	 */
+	public void setHeader(boolean header) {
+		this.header = header;
+	}
+
+	private void appendCell(StringBuilder builder, String text) {
+		if (text == null) {
+			return;
+		}
+		boolean quote = false;
+		for (int i = 0; i < text.length() && !quote; ++i) {
+			final char c = text.charAt(i);
+			quote = c == separator || c == '"' || c == '\n' || c == '\r';
+		}
+		if (!quote) {
+			builder.append(text);
+			return;
+		}
+		builder.append('"');
+		for (int i = 0; i < text.length(); ++i) {
+			final char c = text.charAt(i);
+			if (c == '"') {
+				builder.append('"');
+			}
+			builder.append(c);
+		}
+		builder.append('"');
+	}
+
+	private void appendHeader(StringBuilder builder) {
+		for (int i = 0; i < columns.size(); ++i) {
+			if (i > 0) {
+				builder.append(separator);
+			}
+			appendCell(builder, columns.get(i).header);
+		}
+		builder.append(lineSeparator);
+	}
+
+	private void appendRow(StringBuilder builder, E row) {
+		for (int i = 0; i < columns.size(); ++i) {
+			if (i > 0) {
+				builder.append(separator);
+			}
+			appendCell(builder, columns.get(i).label.apply(row));
+		}
+		builder.append(lineSeparator);
+	}
+
+	/**
+	 * Returns the given rows, formatted and encoded.
+	 */
+	private ByteBuffer format(List<? extends E> rows, int from, int to, Charset charset) {
+		final StringBuilder block = new StringBuilder();
+		for (int i = from; i < to; ++i) {
+			appendRow(block, rows.get(i));
+		}
+		try {
+			return newEncoder(charset).encode(CharBuffer.wrap(block));
+		} catch (CharacterCodingException e) {
+			/** Can't happen, as the encoder replaces what it can not encode. */
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private CharsetEncoder newEncoder(Charset charset) {
+		return charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Encodes the given complete rows into the given buffer, writing the
+	 * buffer whenever full, then at the end.
+	 */
+	private void write(CharSequence chars, CharsetEncoder encoder, ByteBuffer buffer, WritableByteChannel channel)
+			throws IOException {
+		final CharBuffer in = CharBuffer.wrap(chars);
+		encoder.reset();
+		CoderResult result;
+		do {
+			result = encoder.encode(in, buffer, true);
+			if (result.isError()) {
+				result.throwException();
+			}
+			if (result.isOverflow()) {
+				drain(buffer, channel);
+			}
+		} while (result.isOverflow());
+		do {
+			result = encoder.flush(buffer);
+			if (result.isOverflow()) {
+				drain(buffer, channel);
+			}
+		} while (result.isOverflow());
+		drain(buffer, channel);
+	}
+}
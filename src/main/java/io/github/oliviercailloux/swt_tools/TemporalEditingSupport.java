@@ -0,0 +1,186 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQuery;
+import java.util.function.Function;
+
+import org.eclipse.jface.viewers.ColumnViewer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A {@link TextEditingSupport} that further restricts its content to values
+ * that can be converted to temporal objects of type T (such as dates), using a
+ * {@link DateTimeFormatter} given at construction time. A <code>null</code>
+ * value is shown as an empty text; the user may not however enter an empty
+ * text.
+ * </p>
+ * <p>
+ * The formatter is immutable and thread-safe, and is used for all the values
+ * of this object. As with {@link IntEditingSupport}, the user is not
+ * constrained while typing, and the value parsed when validating is reused when
+ * committing.
+ * </p>
+ * <p>
+ * See {@link LocalDateEditingSupport} and {@link LocalDateTimeEditingSupport}
+ * for editing supports using localized formatters.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements returned by the underlying column viewer.
+ * @param <T>
+ *            the type of temporal values.
+ */
+public abstract class TemporalEditingSupport<E, T extends TemporalAccessor> extends TextEditingSupport<E> {
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(TemporalEditingSupport.class);
+
+	private final DateTimeFormatter formatter;
+
+	/**
+	 * The text most recently parsed by this object, or <code>null</code>.
+	 */
+	private String lastParsedText;
+
+	/**
+	 * The result of parsing {@link #lastParsedText}, <code>null</code> if
+	 * invalid.
+	 */
+	private T lastParsedValue;
+
+	private final TemporalQuery<T> query;
+
+	/**
+	 * @param formatter
+	 *            used to show and read the values.
+	 * @param query
+	 *            obtains a value from the parsed text, typically a method
+	 *            reference such as <code>LocalDate::from</code>.
+	 */
+	public TemporalEditingSupport(ColumnViewer viewer, Class<E> classOfElements, DateTimeFormatter formatter,
+			TemporalQuery<T> query) {
+		super(viewer, classOfElements);
+		this.formatter = requireNonNull(formatter);
+		this.query = requireNonNull(query);
+		lastParsedText = null;
+		lastParsedValue = null;
+		setFirstLevelValidator(v -> v == null || parse(v) == null ? "Date or time required." : null,
+				v -> v == null || parseUncached(v) == null ? "Date or time required." : null);
+	}
+
+	public DateTimeFormatter getFormatter() {
+		return formatter;
+	}
+
+	/**
+	 * <p>
+	 * Get the value to set to the editor.
+	 * </p>
+	 * <p>
+	 * This method is simply a better typed equivalent to {@link #getValue(Object)}.
+	 * </p>
+	 *
+	 * @param element
+	 *            the model element
+	 * @return the value shown, may be <code>null</code>.
+	 */
+	public abstract T getTemporalValue(E element);
+
+	@Override
+	public String getValueTyped(E element) {
+		final T value = getTemporalValue(element);
+		return value == null ? "" : formatter.format(value);
+	}
+
+	/**
+	 * <p>
+	 * Sets the new value on the given element. When a property is set (see
+	 * {@link #setProperty(String)}), this object then updates the element in the
+	 * viewer, scoped to that property. Otherwise, implementers need to ensure
+	 * that <code>getViewer().update(element, null)</code> or similar methods are
+	 * called, either directly or through some kind of listener mechanism on the
+	 * implementer's model, to cause the new value to appear in the viewer.
+	 * </p>
+	 *
+	 * <p>
+	 * This method is simply a better typed equivalent to
+	 * {@link #setValue(Object, Object)}.
+	 * </p>
+	 *
+	 * @param element
+	 *            the model element
+	 * @param value
+	 *            the new value, not <code>null</code>
+	 */
+	public abstract void setTemporalValue(E element, T value);
+
+	/**
+	 * <p>
+	 * Sets the input validator for this cell editor.
+	 * </p>
+	 * <p>
+	 * The validator is given the (temporal) value to be validated, and must return
+	 * a string indicating whether the given value is valid; <code>null</code> means
+	 * valid, and non-<code>null</code> means invalid, with the result being the
+	 * error message to display to the end user. It is only invoked with values
+	 * accepted by the first-level validator of this object, thus, never with
+	 * <code>null</code>.
+	 * </p>
+	 *
+	 * @param valueToErrorMessage
+	 *            the input validator, or <code>null</code> if none
+	 */
+	public void setTemporalValidator(Function<T, String> valueToErrorMessage) {
+		if (valueToErrorMessage == null) {
+			setValidator(null);
+		} else {
+			setValidator(v -> valueToErrorMessage.apply(parse(v)), v -> valueToErrorMessage.apply(parseUncached(v)));
+		}
+	}
+
+	@Override
+	public void setValueTyped(E element, String value) {
+		assert value != null;
+		final T parsed = parse(value);
+		checkArgument(parsed != null, "Not a date or time: %s.", value);
+		setTemporalValue(element, parsed);
+	}
+
+	/**
+	 * Parses the given text, reusing the previous result if the text is equal to
+	 * the one parsed previously.
+	 *
+	 * @return <code>null</code> iff the text can't be parsed.
+	 */
+	private T parse(String text) {
+		if (!text.equals(lastParsedText)) {
+			lastParsedValue = parseUncached(text);
+			lastParsedText = text;
+		}
+		return lastParsedValue;
+	}
+
+	/**
+	 * Parses the given text with the formatter and the query, which are
+	 * immutable, thus this may be called concurrently.
+	 *
+	 * @return <code>null</code> iff the text can't be parsed.
+	 */
+	private T parseUncached(String text) {
+		try {
+			return formatter.parse(text.trim(), query);
+		} catch (@SuppressWarnings("unused") DateTimeParseException e) {
+			return null;
+		}
+	}
+
+}
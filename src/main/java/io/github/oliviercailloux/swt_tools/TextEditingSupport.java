@@ -2,7 +2,6 @@ package io.github.oliviercailloux.swt_tools;
 
 import org.eclipse.jface.viewers.ColumnViewer;
 import org.eclipse.jface.viewers.TextCellEditor;
-import org.eclipse.swt.widgets.Composite;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,6 +12,12 @@ import org.slf4j.LoggerFactory;
  * to restrict the values that the underlying cell editor will accept.
  * </p>
  * <p>
+ * The underlying text cell editor is created the first time it is needed. It
+ * may be shared with the other text editing supports of the same viewer that
+ * share theirs (see {@link #setSharedCellEditor(boolean)}), so that a wide
+ * table does not create one widget per column.
+ * </p>
+ * <p>
  * The user of this class must ensure that the underlying column viewer always
  * gives elements of type E.
  * </p>
@@ -55,9 +60,13 @@ public abstract class TextEditingSupport<E> extends TypedEditingSupportConstantE
 	 */
 	public TextEditingSupport(ColumnViewer viewer, Class<E> classOfElements) {
 		super(viewer, classOfElements, String.class);
-		setCellEditor(new TextCellEditor((Composite) viewer.getControl()));
+		setCellEditorFactory(RevalidatingCellEditor.Text::new, TextCellEditor.class.getName());
 	}
 
+	/**
+	 * Returns the underlying cell editor, creating it if necessary, without
+	 * binding it to this object if it is shared (see {@link #getCellEditor()}).
+	 */
 	public TextCellEditor getTextCellEditor() {
 		return (TextCellEditor) getCellEditor();
 	}
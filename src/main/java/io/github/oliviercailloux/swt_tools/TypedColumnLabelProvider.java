@@ -0,0 +1,145 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static java.util.Objects.requireNonNull;
+
+import org.eclipse.jface.viewers.ColumnLabelProvider;
+import org.eclipse.jface.viewers.ColumnViewer;
+import org.eclipse.jface.viewers.ViewerCell;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+
+/**
+ * <p>
+ * A column label provider that shows the label of an element given by an
+ * editing support (see {@link TypedEditingSupport#getLabelTyped(Object)}),
+ * possibly through a {@link LabelCache} or an {@link AsyncValueLoader}. This
+ * is the label provider used by the column factories in {@link JFace}.
+ * </p>
+ * <p>
+ * If the editing support has a property (see
+ * {@link TypedEditingSupport#setProperty(String)}), this provider is only
+ * affected by that property, and does not relabel its cells during updates
+ * scoped to other properties (see
+ * {@link JFace#update(ColumnViewer, Object[], String...)}).
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of elements returned by the underlying column viewer.
+ */
+class TypedColumnLabelProvider<E> extends ColumnLabelProvider {
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(TypedColumnLabelProvider.class);
+
+	private final Cache<Object, String> cache;
+
+	private final Object column;
+
+	private final TypedEditingSupport<E, ?> editingSupport;
+
+	private final boolean emptyToNull;
+
+	private final AsyncValueLoader<E> loader;
+
+	/**
+	 * @param column
+	 *            the underlying column widget, used for logging only.
+	 * @param editingSupport
+	 *            not <code>null</code>.
+	 * @param labelCache
+	 *            <code>null</code> for no cache.
+	 * @param emptyToNull
+	 *            <code>true</code> to convert empty labels to <code>null</code>
+	 *            texts.
+	 */
+	TypedColumnLabelProvider(Object column, TypedEditingSupport<E, ?> editingSupport, LabelCache labelCache,
+			boolean emptyToNull) {
+		this.column = column;
+		this.editingSupport = requireNonNull(editingSupport);
+		this.cache = labelCache == null ? null : labelCache.getColumnCache(editingSupport);
+		this.emptyToNull = emptyToNull;
+		this.loader = null;
+	}
+
+	/**
+	 * Creates a label provider that obtains its labels from the given loader
+	 * (and from the editing support of that loader).
+	 */
+	TypedColumnLabelProvider(Object column, AsyncValueLoader<E> loader, boolean emptyToNull) {
+		this.column = column;
+		this.editingSupport = loader.getEditingSupport();
+		this.cache = null;
+		this.emptyToNull = emptyToNull;
+		this.loader = loader;
+	}
+
+	@Override
+	public String getText(Object element) {
+		final HotPathRecorder recorder = editingSupport.getRecorder();
+		if (recorder == null) {
+			return computeText(element);
+		}
+		final long start = System.nanoTime();
+		try {
+			return computeText(element);
+		} finally {
+			recorder.record(HotPath.LABEL, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> iff the editing support has no property, or the
+	 * given property is its property.
+	 */
+	@Override
+	public boolean isLabelProperty(Object element, String property) {
+		final String own = editingSupport.getProperty();
+		return own == null || own.equals(property);
+	}
+
+	/**
+	 * Does nothing if an update scoped to properties that do not affect this
+	 * provider is in progress.
+	 */
+	@Override
+	public void update(ViewerCell cell) {
+		final String[] scope = JFace.getUpdateScope(cell.getControl());
+		if (scope != null) {
+			boolean affected = false;
+			for (String property : scope) {
+				affected = affected || isLabelProperty(cell.getElement(), property);
+			}
+			if (!affected) {
+				return;
+			}
+		}
+		super.update(cell);
+	}
+
+	private String computeText(Object element) {
+		final boolean cached = cache != null && element != null;
+		String label = cached ? cache.getIfPresent(element) : null;
+		if (label == null) {
+			final E typedElement = editingSupport.getTypedElement(element);
+			if (loader != null && typedElement != null) {
+				return finish(loader.getLabel(typedElement));
+			}
+			label = Strings.nullToEmpty(editingSupport.getLabelTyped(typedElement));
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Returning text label (column {}) for {}: {}.", column, element, label);
+			}
+			if (cached) {
+				cache.put(element, label);
+			}
+		}
+		return finish(label);
+	}
+
+	private String finish(String label) {
+		return emptyToNull ? Strings.emptyToNull(label) : label;
+	}
+}
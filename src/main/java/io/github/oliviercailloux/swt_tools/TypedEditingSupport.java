@@ -2,6 +2,10 @@ package io.github.oliviercailloux.swt_tools;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
 import org.eclipse.jface.viewers.CellEditor;
 import org.eclipse.jface.viewers.ColumnViewer;
 import org.eclipse.jface.viewers.EditingSupport;
@@ -30,7 +34,23 @@ import org.eclipse.jface.viewers.EditingSupport;
  * {@link #setValueTyped(Object, Object) #setValueTyped(E, V)} to set the values
  * sent by the cell editor back to the model. The user may also override
  * {@link #canEditTyped(Object) #canEditTyped(E)} (<code>true</code> by
- * default).
+ * default), and {@link #getLabelTyped(Object) #getLabelTyped(E)}.
+ * </p>
+ * <p>
+ * Invalidation listeners may be registered to be told that the value of an
+ * element is about to change through this object (see
+ * {@link #addInvalidationListener(Consumer)}), and edit listeners, to be told
+ * the values sent, with the values they replace (see
+ * {@link #addEditListener(EditListener)}).
+ * </p>
+ * <p>
+ * A property may be set to scope the viewer updates following edits (see
+ * {@link #setProperty(String)}).
+ * </p>
+ * <p>
+ * A {@link HotPathRecorder} may be installed to time the operations of this
+ * object (see {@link #setRecorder(HotPathRecorder)}). When none is installed,
+ * nothing is timed.
  * </p>
  *
  * @author Olivier Cailloux
@@ -47,12 +67,77 @@ public abstract class TypedEditingSupport<E, V> extends EditingSupport {
 
 	private final Class<V> classOfValues;
 
+	private final List<EditListener<? super E, ? super V>> editListeners;
+
+	private final List<Consumer<? super E>> invalidationListeners;
+
+	private String property;
+
+	private HotPathRecorder recorder;
+
 	public TypedEditingSupport(ColumnViewer viewer, Class<E> classOfElements, Class<V> classOfValues) {
 		super(viewer);
 		requireNonNull(classOfElements);
 		requireNonNull(classOfValues);
 		this.classOfElements = classOfElements;
 		this.classOfValues = classOfValues;
+		invalidationListeners = new CopyOnWriteArrayList<>();
+		editListeners = new CopyOnWriteArrayList<>();
+		recorder = null;
+		property = null;
+	}
+
+	/**
+	 * <p>
+	 * Adds a listener that is told, with the element concerned, each time a
+	 * value is about to be sent to the model through
+	 * {@link #setValue(Object, Object)}. The listener is invoked before
+	 * {@link #setValueTyped(Object, Object) #setValueTyped(E, V)}, so that
+	 * anything derived from the current value (such as a cached label) can be
+	 * discarded before the implementer updates the viewer.
+	 * </p>
+	 *
+	 * @param listener
+	 *            not <code>null</code>.
+	 */
+	public void addInvalidationListener(Consumer<? super E> listener) {
+		invalidationListeners.add(requireNonNull(listener));
+	}
+
+	/**
+	 * <p>
+	 * Adds a listener that is told, with the element concerned, the value it
+	 * had and the new value, each time a value has been sent to the model
+	 * through {@link #setValue(Object, Object)}. While at least one such
+	 * listener is registered, the value of the element is read (using
+	 * {@link #getValueTyped(Object) #getValueTyped(E)}) before each edit.
+	 * </p>
+	 *
+	 * @param listener
+	 *            not <code>null</code>.
+	 */
+	public void addEditListener(EditListener<? super E, ? super V> listener) {
+		editListeners.add(requireNonNull(listener));
+	}
+
+	/**
+	 * Removes the given listener, if it has been added.
+	 *
+	 * @param listener
+	 *            the listener to remove.
+	 */
+	public void removeEditListener(EditListener<? super E, ? super V> listener) {
+		editListeners.remove(listener);
+	}
+
+	/**
+	 * Removes the given listener, if it has been added.
+	 *
+	 * @param listener
+	 *            the listener to remove.
+	 */
+	public void removeInvalidationListener(Consumer<? super E> listener) {
+		invalidationListeners.remove(listener);
 	}
 
 	/**
@@ -86,6 +171,42 @@ public abstract class TypedEditingSupport<E, V> extends EditingSupport {
 	 */
 	public abstract CellEditor getCellEditorTyped(E element);
 
+	/**
+	 * <p>
+	 * Returns the text that represents the value of the given element to the
+	 * end-user, as shown by the column label providers created by
+	 * {@link JFace}.
+	 * </p>
+	 * <p>
+	 * This implementation returns the empty string if the value returned by
+	 * {@link #getValueTyped(Object) #getValueTyped(E)} is <code>null</code>,
+	 * and otherwise uses {@link Object#toString()}.
+	 * </p>
+	 *
+	 * @param element
+	 *            the model element
+	 * @return not <code>null</code>.
+	 */
+	public String getLabelTyped(E element) {
+		final V value = readValue(element);
+		return value == null ? "" : value.toString();
+	}
+
+	/**
+	 * @return the property of this object, or <code>null</code> if none.
+	 */
+	public String getProperty() {
+		return property;
+	}
+
+	/**
+	 * @return the recorder installed on this object, or <code>null</code> if
+	 *         none.
+	 */
+	public HotPathRecorder getRecorder() {
+		return recorder;
+	}
+
 	public E getTypedElement(Object element) {
 		return element == null ? null : classOfElements.cast(element);
 	}
@@ -111,11 +232,48 @@ public abstract class TypedEditingSupport<E, V> extends EditingSupport {
 
 	/**
 	 * <p>
-	 * Sets the new value on the given element. Note that implementers need to
-	 * ensure that <code>getViewer().update(element, null)</code> or similar
-	 * methods are called, either directly or through some kind of listener
-	 * mechanism on the implementer's model, to cause the new value to appear in
-	 * the viewer.
+	 * Sets the property of this object: an identifier of the part of the
+	 * elements that this object shows and edits (such as the name of the
+	 * corresponding field of the model).
+	 * </p>
+	 * <p>
+	 * When a property is set, this object updates the element in the viewer
+	 * after each value sent to the model through {@link #setValue(Object, Object)},
+	 * in an update scoped to that property (see
+	 * {@link JFace#update(ColumnViewer, Object[], String...)}), so that the
+	 * columns created by {@link JFace} for other properties are not relabelled.
+	 * The implementers of {@link #setValueTyped(Object, Object) #setValueTyped(E,
+	 * V)} then need not update the viewer themselves (and should not, as an
+	 * unscoped update relabels all the columns).
+	 * </p>
+	 *
+	 * @param property
+	 *            <code>null</code> for no property.
+	 */
+	public void setProperty(String property) {
+		this.property = property;
+	}
+
+	/**
+	 * Installs a recorder that will be given the durations of the
+	 * {@link HotPath hot path} operations of this object and of the label
+	 * provider of its column.
+	 *
+	 * @param recorder
+	 *            <code>null</code> to stop recording.
+	 */
+	public void setRecorder(HotPathRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * <p>
+	 * Sets the new value on the given element. When a property is set (see
+	 * {@link #setProperty(String)}), this object then updates the element in the
+	 * viewer, scoped to that property. Otherwise, implementers need to ensure
+	 * that <code>getViewer().update(element, null)</code> or similar methods are
+	 * called, either directly or through some kind of listener mechanism on the
+	 * implementer's model, to cause the new value to appear in the viewer.
 	 * </p>
 	 *
 	 * <p>
@@ -142,11 +300,62 @@ public abstract class TypedEditingSupport<E, V> extends EditingSupport {
 
 	@Override
 	protected Object getValue(Object element) {
-		return getValueTyped(getTypedElement(element));
+		return readValue(getTypedElement(element));
 	}
 
 	@Override
 	protected void setValue(Object element, Object value) {
-		setValueTyped(getTypedElement(element), getTypedValue(value));
+		setValue(element, value, true);
+	}
+
+	/**
+	 * Sends the given value to the model, as {@link #setValue(Object, Object)}
+	 * does, but updates the element in the viewer (when a property is set) only
+	 * if asked for, so that a caller sending many values may update all the
+	 * elements at once.
+	 */
+	void setValue(Object element, Object value, boolean update) {
+		final E typedElement = getTypedElement(element);
+		for (Consumer<? super E> listener : invalidationListeners) {
+			listener.accept(typedElement);
+		}
+		final V typedValue = getTypedValue(value);
+		final V oldValue = editListeners.isEmpty() ? null : readValue(typedElement);
+		final HotPathRecorder r = recorder;
+		if (r == null) {
+			setValueTyped(typedElement, typedValue);
+		} else {
+			final long start = System.nanoTime();
+			try {
+				setValueTyped(typedElement, typedValue);
+			} finally {
+				r.record(HotPath.SET_VALUE, System.nanoTime() - start);
+			}
+		}
+		for (EditListener<? super E, ? super V> listener : editListeners) {
+			listener.edited(typedElement, oldValue, typedValue);
+		}
+		final String p = property;
+		if (update && p != null) {
+			JFace.update(getViewer(), new Object[] { element }, p);
+		}
+	}
+
+	/**
+	 * Returns the value of the given element, using
+	 * {@link #getValueTyped(Object) #getValueTyped(E)}, timing it if a recorder
+	 * is installed.
+	 */
+	V readValue(E element) {
+		final HotPathRecorder r = recorder;
+		if (r == null) {
+			return getValueTyped(element);
+		}
+		final long start = System.nanoTime();
+		try {
+			return getValueTyped(element);
+		} finally {
+			r.record(HotPath.GET_VALUE, System.nanoTime() - start);
+		}
 	}
 }
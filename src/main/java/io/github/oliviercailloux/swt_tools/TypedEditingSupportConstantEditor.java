@@ -1,12 +1,24 @@
 package io.github.oliviercailloux.swt_tools;
 
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
+import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.viewers.CellEditor;
 import org.eclipse.jface.viewers.ColumnViewer;
+import org.eclipse.jface.viewers.ICellEditorListener;
 import org.eclipse.jface.viewers.ICellEditorValidator;
+import org.eclipse.jface.viewers.ViewerCell;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
 
 /**
  * <p>
@@ -26,12 +38,29 @@ import org.eclipse.jface.viewers.ICellEditorValidator;
  * (subclasses may change this).
  * </p>
  * <p>
+ * An asynchronous validator may also be set (see
+ * {@link #setAsyncValidator(Function, long)}), for checks that take too long
+ * to run at each keystroke. It is invoked only when both validators above
+ * accept the value.
+ * </p>
+ * <p>
  * The user <em>must</em> go through this object to change the validator
  * behavior of the underlying cell editor. The user may <em>not</em> set or
  * remove the validator directly on the underlying cell editor.
  * </p>
  * <p>
- * The user must call {@link #setCellEditor(CellEditor)}; override
+ * The underlying cell editor may be created lazily, the first time it is
+ * needed (see {@link #setCellEditorFactory(Function, String)}). The user may
+ * then ask for it to be shared with the other editing supports of the same
+ * viewer that use the same kind of cell editor, as the viewer edits one cell
+ * at a time (see {@link #setSharedCellEditor(boolean)}). A shared cell editor
+ * is bound to one editing support at a time, which sets its validator when
+ * taking it: the viewer binds it to this object when activating it for a cell
+ * of this column (through {@link #getCellEditorTyped(Object)}).
+ * </p>
+ * <p>
+ * The user must call {@link #setCellEditor(CellEditor)} or
+ * {@link #setCellEditorFactory(Function, String)}; override
  * {@link #getValueTyped(Object) #getValueTyped(E)} to provide values
  * corresponding to elements; and {@link #setValueTyped(Object, Object)
  * #setValueTyped(E, V)} to set the values sent by the cell editor back to the
@@ -49,8 +78,55 @@ import org.eclipse.jface.viewers.ICellEditorValidator;
  */
 public abstract class TypedEditingSupportConstantEditor<E, V> extends TypedEditingSupport<E, V> {
 
+	/**
+	 * <code>null</code> iff no asynchronous validator is set.
+	 */
+	private AsyncValidation<V> asyncValidation;
+
+	/**
+	 * The counterparts of {@link #valueToErrorMessage1} and
+	 * {@link #valueToErrorMessage2} that may be invoked from several threads
+	 * concurrently (see {@link #validateConcurrently(Object)}): the same
+	 * validators, unless a subclass gave ones that do not use its caches.
+	 */
+	private Function<V, String> concurrentValueToErrorMessage1;
+
+	private Function<V, String> concurrentValueToErrorMessage2;
+
+	/**
+	 * The element being edited, or most recently edited.
+	 */
+	private Object editedElement;
+
+	/**
+	 * <code>null</code> iff not yet created (or taken from the shared editors).
+	 */
 	private CellEditor editor;
 
+	/**
+	 * <code>null</code> iff no factory has been set or a cell editor has been
+	 * set directly.
+	 */
+	private Function<Composite, ? extends CellEditor> editorFactory;
+
+	private final ICellEditorListener editorListener;
+
+	private final ICellEditorValidator editorValidator;
+
+	private final List<RejectionListener<? super E, ? super V>> rejectionListeners;
+
+	/**
+	 * Whether the cell editor is shared with the other editing supports of the
+	 * viewer, rather than owned by this object.
+	 */
+	private boolean shared;
+
+	/**
+	 * The kind of the cell editor created by the factory, or <code>null</code>
+	 * iff it may not be shared.
+	 */
+	private String sharedKind;
+
 	Function<V, String> valueToErrorMessage1;
 
 	Function<V, String> valueToErrorMessage2;
@@ -59,24 +135,112 @@ public abstract class TypedEditingSupportConstantEditor<E, V> extends TypedEditi
 		super(viewer, classOfElements, classOfValues);
 		valueToErrorMessage1 = null;
 		valueToErrorMessage2 = null;
+		concurrentValueToErrorMessage1 = null;
+		concurrentValueToErrorMessage2 = null;
+		asyncValidation = null;
+		editedElement = null;
+		editor = null;
+		editorFactory = null;
+		shared = false;
+		sharedKind = null;
+		rejectionListeners = new CopyOnWriteArrayList<>();
+		editorValidator = new ICellEditorValidator() {
+			@Override
+			public String isValid(Object value) {
+				final V typedValue = getTypedValue(value);
+				final HotPathRecorder r = getRecorder();
+				if (r == null) {
+					return validateWithAsync(typedValue);
+				}
+				final long start = System.nanoTime();
+				try {
+					return validateWithAsync(typedValue);
+				} finally {
+					r.record(HotPath.VALIDATION, System.nanoTime() - start);
+				}
+			}
+		};
+		editorListener = new ICellEditorListener() {
+			@Override
+			public void applyEditorValue() {
+				commitWhenChecked();
+			}
+
+			@Override
+			public void cancelEditor() {
+				if (asyncValidation != null) {
+					asyncValidation.cancel();
+				}
+			}
+
+			@Override
+			public void editorValueChanged(boolean oldValidState, boolean newValidState) {
+				/** Nothing to do. */
+			}
+		};
 	}
 
 	/**
-	 * Returns the cell editor underlying this object.
+	 * <p>
+	 * Adds a listener that is told, with the element concerned, each value
+	 * applied by the end-user while its asynchronous check was pending, and that
+	 * is not sent to the model because the check rejected it or failed (see
+	 * {@link #setAsyncValidator(Function, long)}), with the error message.
+	 * </p>
+	 * <p>
+	 * While no such listener is registered, this object tells the end-user
+	 * with a warning dialog.
+	 * </p>
 	 *
-	 * @return <code>null</code> iff has never been set.
+	 * @param listener
+	 *            not <code>null</code>.
+	 */
+	public void addRejectionListener(RejectionListener<? super E, ? super V> listener) {
+		rejectionListeners.add(requireNonNull(listener));
+	}
+
+	/**
+	 * Returns the cell editor underlying this object, creating it if a factory
+	 * has been set and it does not exist yet. If the cell editor is shared, this
+	 * does not bind it to this object: it may currently be set up for an other
+	 * editing support.
+	 *
+	 * @return <code>null</code> iff neither a cell editor nor a factory has been
+	 *         set.
 	 */
 	public CellEditor getCellEditor() {
+		if (editor == null && editorFactory != null) {
+			final Composite parent = (Composite) getViewer().getControl();
+			if (shared) {
+				editor = SharedCellEditor.of(parent, sharedKind, editorFactory).getEditor();
+			} else {
+				editor = editorFactory.apply(parent);
+				editor.addListener(editorListener);
+				bind(editor);
+			}
+		}
 		return editor;
 	}
 
+	/**
+	 * Returns the cell editor underlying this object (see
+	 * {@link #getCellEditor()}), binding it to this object if it is shared.
+	 */
 	@Override
 	public CellEditor getCellEditorTyped(E element) {
-		return editor;
+		return takeCellEditor();
+	}
+
+	/**
+	 * Returns whether the cell editor is shared with the other editing supports
+	 * of the viewer (see {@link #setSharedCellEditor(boolean)}).
+	 */
+	public boolean isSharedCellEditor() {
+		return shared;
 	}
 
 	/**
-	 * Sets the cell editor underlying this object.
+	 * Sets the cell editor underlying this object, which will not be shared.
 	 *
 	 * @param editor
 	 *            not <code>null</code>.
@@ -84,7 +248,117 @@ public abstract class TypedEditingSupportConstantEditor<E, V> extends TypedEditi
 	public void setCellEditor(CellEditor editor) {
 		requireNonNull(editor);
 		this.editor = editor;
-		setValidator();
+		editorFactory = null;
+		shared = false;
+		sharedKind = null;
+		editor.addListener(editorListener);
+		bind(editor);
+	}
+
+	/**
+	 * Sets the factory creating the cell editor underlying this object, the
+	 * first time it is needed. This replaces any cell editor previously set.
+	 *
+	 * @param factory
+	 *            not <code>null</code>, given the control of the viewer.
+	 * @param sharedKind
+	 *            <code>null</code> if the cell editors created by the factory
+	 *            may not be shared; otherwise, the kind of these cell editors,
+	 *            permitting to share them (see
+	 *            {@link #setSharedCellEditor(boolean)}) with the other editing
+	 *            supports of the same viewer that use the same kind.
+	 */
+	protected void setCellEditorFactory(Function<Composite, ? extends CellEditor> factory, String sharedKind) {
+		editorFactory = requireNonNull(factory);
+		this.sharedKind = sharedKind;
+		if (sharedKind == null) {
+			shared = false;
+		}
+		editor = null;
+	}
+
+	/**
+	 * <p>
+	 * Sets whether the cell editor underlying this object is shared with the
+	 * other editing supports of the same viewer that use the same kind of cell
+	 * editor (the factory of the first one to need it creates it), rather than
+	 * owned by this object, so that a wide table does not create one widget per
+	 * column. By default, the cell editor is not shared.
+	 * </p>
+	 * <p>
+	 * A shared cell editor is set up (validator, and items for combo boxes) by
+	 * the editing support for which the viewer last activated it. The user
+	 * should thus not change the settings of a shared cell editor directly.
+	 * </p>
+	 * <p>
+	 * Must be called before the cell editor is created, and, to share it, once
+	 * a factory of shareable cell editors has been set (as done by the
+	 * constructors of {@link TextEditingSupport} and
+	 * {@link ComboBoxEditingSupport}).
+	 * </p>
+	 */
+	public void setSharedCellEditor(boolean shared) {
+		if (shared == this.shared) {
+			return;
+		}
+		checkState(editor == null, "The cell editor already exists.");
+		checkState(!shared || sharedKind != null, "The cell editor may not be shared.");
+		this.shared = shared;
+	}
+
+	/**
+	 * Removes the given listener, if it has been added.
+	 *
+	 * @param listener
+	 *            the listener to remove.
+	 */
+	public void removeRejectionListener(RejectionListener<? super E, ? super V> listener) {
+		rejectionListeners.remove(listener);
+	}
+
+	/**
+	 * <p>
+	 * Sets an asynchronous input validator for this cell editor, for checks that
+	 * are too slow to run at each keystroke (such as checks against a backing
+	 * store).
+	 * </p>
+	 * <p>
+	 * The validator is given the value to be validated, once both other
+	 * validators accept it and once it has not changed during the debounce delay.
+	 * It must return promptly a future, and complete it later (typically from
+	 * another thread), with <code>null</code> if the value is valid and with the
+	 * error message to display to the end user otherwise. The future is cancelled
+	 * if the value changes in the meantime. The results are cached per value,
+	 * thus the validator must give the same result for equal values.
+	 * </p>
+	 * <p>
+	 * While the check of a value is pending, the cell editor considers the value
+	 * invalid, with a message indicating that it is being checked. The result is
+	 * brought back to the UI thread using {@link Display#asyncExec(Runnable)}.
+	 * If the end-user applies a value while its check is pending, the value is
+	 * sent to the model only once (and if) the check accepts it, even if the
+	 * end-user edits an other cell in the meantime. If the check rejects it or
+	 * fails, the rejection listeners are told (see
+	 * {@link #addRejectionListener(RejectionListener)}).
+	 * </p>
+	 *
+	 * @param valueToErrorMessage
+	 *            the asynchronous validator, or <code>null</code> if none
+	 * @param debounceMillis
+	 *            the delay, in milliseconds, during which the value must not
+	 *            change before the validator is invoked
+	 */
+	public void setAsyncValidator(Function<V, CompletableFuture<String>> valueToErrorMessage, long debounceMillis) {
+		if (asyncValidation != null) {
+			asyncValidation.cancel();
+		}
+		if (valueToErrorMessage == null) {
+			asyncValidation = null;
+		} else {
+			final Display display = getViewer().getControl().getDisplay();
+			asyncValidation = new AsyncValidation<>(valueToErrorMessage, debounceMillis, display::asyncExec,
+					this::revalidate);
+		}
 	}
 
 	/**
@@ -102,24 +376,175 @@ public abstract class TypedEditingSupportConstantEditor<E, V> extends TypedEditi
 	 *            the input validator, or <code>null</code> if none
 	 */
 	public void setValidator(Function<V, String> valueToErrorMessage) {
+		setValidator(valueToErrorMessage, valueToErrorMessage);
+	}
+
+	/**
+	 * Sets up the given cell editor for use by this object, when it is set or
+	 * created, or when this object takes it from the other editing supports
+	 * sharing it. Subclasses overriding this method must call it.
+	 */
+	void bind(CellEditor cellEditor) {
+		cellEditor.setValidator(editorValidator);
+	}
+
+	/**
+	 * Sets the input validator (see {@link #setValidator(Function)}), with a
+	 * counterpart giving the same results that may be invoked from several
+	 * threads concurrently.
+	 */
+	void setValidator(Function<V, String> valueToErrorMessage, Function<V, String> concurrentValueToErrorMessage) {
 		this.valueToErrorMessage2 = valueToErrorMessage;
+		this.concurrentValueToErrorMessage2 = concurrentValueToErrorMessage;
 	}
 
-	private void setValidator() {
-		getCellEditor().setValidator(new ICellEditorValidator() {
-			@Override
-			public String isValid(Object value) {
-				final V typedValue = getTypedValue(value);
-				final String firstLevelErrorMessage = valueToErrorMessage1 == null ? null
-						: valueToErrorMessage1.apply(typedValue);
-				if (firstLevelErrorMessage != null) {
-					return firstLevelErrorMessage;
-				}
-				return valueToErrorMessage2 == null ? null : valueToErrorMessage2.apply(typedValue);
+	/**
+	 * Returns the cell editor underlying this object if it exists and is bound
+	 * to this object, without creating it.
+	 *
+	 * @return <code>null</code> if the cell editor does not exist yet, or is
+	 *         shared and currently bound to an other editing support.
+	 */
+	CellEditor getBoundCellEditor() {
+		if (editor == null || !shared) {
+			return editor;
+		}
+		final SharedCellEditor shared = SharedCellEditor.of((Composite) getViewer().getControl(), sharedKind,
+				editorFactory);
+		return shared.getOwner() == this ? editor : null;
+	}
+
+	ICellEditorListener getEditorListener() {
+		return editorListener;
+	}
+
+	/**
+	 * Returns the cell editor underlying this object (see
+	 * {@link #getCellEditor()}), binding it to this object if it is shared, as
+	 * when the viewer activates it for a cell of this column.
+	 */
+	CellEditor takeCellEditor() {
+		final CellEditor cellEditor = getCellEditor();
+		if (shared) {
+			final SharedCellEditor sharedEditor = SharedCellEditor.of((Composite) getViewer().getControl(),
+					sharedKind, editorFactory);
+			if (sharedEditor.getOwner() != this) {
+				sharedEditor.setOwner(this);
+				bind(cellEditor);
+			}
+		}
+		return cellEditor;
+	}
+
+	@Override
+	protected void initializeCellEditorValue(CellEditor cellEditor, ViewerCell cell) {
+		editedElement = cell.getElement();
+		super.initializeCellEditorValue(cellEditor, cell);
+	}
+
+	/**
+	 * If the value applied by the end-user is being checked asynchronously, the
+	 * cell editor considers it invalid and does not send it to the model; this
+	 * sends it once the check accepts it, and otherwise tells the rejection.
+	 */
+	private void commitWhenChecked() {
+		if (asyncValidation == null || asyncValidation.getPendingValue() == null) {
+			return;
+		}
+		final Object element = editedElement;
+		final V value = asyncValidation.getPendingValue();
+		asyncValidation.whenResolved(value, (message) -> {
+			if (message == null) {
+				setValue(element, value);
+			} else {
+				rejected(element, value, message);
 			}
 		});
 	}
 
+	/**
+	 * Tells the rejection listeners, or the end-user if there are none, that
+	 * the given value, applied to the given element, has not been sent to the
+	 * model.
+	 */
+	private void rejected(Object element, V value, String message) {
+		if (rejectionListeners.isEmpty()) {
+			final Control control = getViewer().getControl();
+			if (control != null && !control.isDisposed()) {
+				MessageDialog.openWarning(control.getShell(), "Value not applied",
+						"The value “" + value + "” was not applied: " + message);
+			}
+			return;
+		}
+		final E typedElement = getTypedElement(element);
+		for (RejectionListener<? super E, ? super V> listener : rejectionListeners) {
+			listener.rejected(typedElement, value, message);
+		}
+	}
+
+	/**
+	 * Asks the cell editor, if active, to validate its current value again, so
+	 * that it takes into account a result of the asynchronous validator. The
+	 * cell editors not created by this library are sent a modify event instead,
+	 * which suffices for text cell editors.
+	 */
+	private void revalidate() {
+		final CellEditor bound = getBoundCellEditor();
+		if (bound == null) {
+			return;
+		}
+		final Control control = bound.getControl();
+		if (!bound.isActivated() || control == null || control.isDisposed()) {
+			return;
+		}
+		if (bound instanceof RevalidatingCellEditor) {
+			((RevalidatingCellEditor) bound).revalidate();
+		} else {
+			control.notifyListeners(SWT.Modify, new Event());
+		}
+	}
+
+	/**
+	 * Applies the effective validator (the composition of the first-level and
+	 * unqualified validators) to the given value.
+	 *
+	 * @return <code>null</code> iff the value is valid.
+	 */
+	String validate(V typedValue) {
+		final String firstLevelErrorMessage = valueToErrorMessage1 == null ? null
+				: valueToErrorMessage1.apply(typedValue);
+		if (firstLevelErrorMessage != null) {
+			return firstLevelErrorMessage;
+		}
+		return valueToErrorMessage2 == null ? null : valueToErrorMessage2.apply(typedValue);
+	}
+
+	/**
+	 * Applies the effective validator to the given value, as
+	 * {@link #validate(Object)} does, but using validators that may be invoked
+	 * from several threads concurrently: the subclasses caching the value
+	 * parsed when validating, to reuse it when committing, do not use their
+	 * caches.
+	 *
+	 * @return <code>null</code> iff the value is valid.
+	 */
+	String validateConcurrently(V typedValue) {
+		final String firstLevelErrorMessage = concurrentValueToErrorMessage1 == null ? null
+				: concurrentValueToErrorMessage1.apply(typedValue);
+		if (firstLevelErrorMessage != null) {
+			return firstLevelErrorMessage;
+		}
+		return concurrentValueToErrorMessage2 == null ? null : concurrentValueToErrorMessage2.apply(typedValue);
+	}
+
+	private String validateWithAsync(V typedValue) {
+		final String message = validate(typedValue);
+		if (message != null || asyncValidation == null) {
+			return message;
+		}
+		return asyncValidation.validate(typedValue);
+	}
+
 	/**
 	 * <p>
 	 * Sets the first-level input validator for this cell editor.
@@ -135,7 +560,18 @@ public abstract class TypedEditingSupportConstantEditor<E, V> extends TypedEditi
 	 *            the input validator, or <code>null</code> if none
 	 */
 	protected void setFirstLevelValidator(Function<V, String> valueToErrorMessage) {
+		setFirstLevelValidator(valueToErrorMessage, valueToErrorMessage);
+	}
+
+	/**
+	 * Sets the first-level input validator (see
+	 * {@link #setFirstLevelValidator(Function)}), with a counterpart giving the
+	 * same results that may be invoked from several threads concurrently.
+	 */
+	void setFirstLevelValidator(Function<V, String> valueToErrorMessage,
+			Function<V, String> concurrentValueToErrorMessage) {
 		this.valueToErrorMessage1 = valueToErrorMessage;
+		this.concurrentValueToErrorMessage1 = concurrentValueToErrorMessage;
 	}
 
 }
@@ -0,0 +1,353 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static java.util.Objects.requireNonNull;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.TableColumn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Sorts the rows of a table according to the values of a column, as given by
+ * its typed editing support. Unlike a
+ * {@link org.eclipse.jface.viewers.ViewerComparator}, which computes the
+ * values of two rows at each comparison, this object computes the sort key of
+ * each row once, then sorts the keys. Keys of <code>int</code> columns are
+ * sorted as primitive values, without allocating an object per row; keys of
+ * <code>long</code> and <code>double</code> columns are not boxed. The sort is
+ * stable: rows with equal keys keep their relative order.
+ * </p>
+ * <p>
+ * Inputs of at least {@link #PARALLEL_THRESHOLD} rows are handled in parallel
+ * (using the common fork-join pool): both the computation of the keys and the
+ * sort itself. The key functions must then permit to be called from several
+ * threads concurrently. The sort may also be run off the UI thread, and the
+ * sorted rows then set as input of the viewer in one step (see
+ * {@link #sortInBackground(TableViewer, TableColumn, List, boolean, Executor)}).
+ * </p>
+ * <p>
+ * Objects of this type are immutable and thread-safe (provided the key
+ * functions are).
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ * @param <E>
+ *            the type of rows.
+ */
+public abstract class TypedSorter<E> {
+	/**
+	 * Keys that are not primitive values, with the position of their row.
+	 */
+	private static class Keyed {
+		final int index;
+
+		final Object key;
+
+		Keyed(Object key, int index) {
+			this.key = key;
+			this.index = index;
+		}
+	}
+
+	/**
+	 * A <code>long</code> key, with the position of its row.
+	 */
+	private static class LongKeyed implements Comparable<LongKeyed> {
+		final int index;
+
+		final long key;
+
+		LongKeyed(long key, int index) {
+			this.key = key;
+			this.index = index;
+		}
+
+		@Override
+		public int compareTo(LongKeyed other) {
+			final int byKey = Long.compare(key, other.key);
+			return byKey != 0 ? byKey : Integer.compare(index, other.index);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(TypedSorter.class);
+
+	/**
+	 * The number of rows from which the keys are computed and sorted in
+	 * parallel.
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+	/**
+	 * The key of the data of the control of a viewer that identifies the most
+	 * recent sort started in background for that viewer.
+	 */
+	private static final String LATEST_SORT_KEY = TypedSorter.class.getName() + ".latestSort";
+
+	/**
+	 * Returns a sorter according to the values of the given column, as given by
+	 * {@link DoubleEditingSupport#getDoubleValue(Object)}, in the order of
+	 * {@link Double#compare(double, double)}.
+	 */
+	public static <E> TypedSorter<E> byDouble(DoubleEditingSupport<E> editingSupport) {
+		return byDouble(editingSupport::getDoubleValue);
+	}
+
+	/**
+	 * Returns a sorter according to the given keys, in the order of
+	 * {@link Double#compare(double, double)}.
+	 */
+	public static <E> TypedSorter<E> byDouble(ToDoubleFunction<? super E> key) {
+		requireNonNull(key);
+		return byLong((row) -> {
+			/** Turns the bits into a long whose order is the order of doubles. */
+			final long bits = Double.doubleToLongBits(key.applyAsDouble(row));
+			return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+		});
+	}
+
+	/**
+	 * Returns a sorter according to the values of the given column, as given by
+	 * {@link IntEditingSupport#getIntValue(Object)}.
+	 */
+	public static <E> TypedSorter<E> byInt(IntEditingSupport<E> editingSupport) {
+		return byInt(editingSupport::getIntValue);
+	}
+
+	/**
+	 * Returns a sorter according to the given keys. The keys are packed, with
+	 * the positions of their rows, into an array of <code>long</code> values,
+	 * which is then sorted.
+	 */
+	public static <E> TypedSorter<E> byInt(ToIntFunction<? super E> key) {
+		requireNonNull(key);
+		return new TypedSorter<E>() {
+			@Override
+			int[] order(List<? extends E> rows, boolean ascending) {
+				final int size = rows.size();
+				final long[] packed = new long[size];
+				forEachIndex(size, (i) -> {
+					final int k = key.applyAsInt(rows.get(i));
+					/** ~k reverses the order of the keys, and does not overflow. */
+					packed[i] = ((long) (ascending ? k : ~k) << 32) | i;
+				});
+				if (size >= PARALLEL_THRESHOLD) {
+					Arrays.parallelSort(packed);
+				} else {
+					Arrays.sort(packed);
+				}
+				final int[] order = new int[size];
+				for (int i = 0; i < size; ++i) {
+					order[i] = (int) packed[i];
+				}
+				return order;
+			}
+		};
+	}
+
+	/**
+	 * Returns a sorter according to the labels of the given column, as given by
+	 * {@link TypedEditingSupport#getLabelTyped(Object)}, in the order of the
+	 * given collator. The collation key of each label is computed once.
+	 */
+	public static <E> TypedSorter<E> byLabel(TypedEditingSupport<E, ?> editingSupport, Collator collator) {
+		return byLabel(editingSupport::getLabelTyped, collator);
+	}
+
+	/**
+	 * Returns a sorter according to the given labels, in the order of the given
+	 * collator. The collation key of each label is computed once.
+	 *
+	 * @param collator
+	 *            is cloned for use by each thread computing keys, as collators
+	 *            are not thread-safe.
+	 */
+	public static <E> TypedSorter<E> byLabel(Function<? super E, String> label, Collator collator) {
+		requireNonNull(label);
+		final Collator prototype = (Collator) collator.clone();
+		final ThreadLocal<Collator> collators = ThreadLocal.withInitial(() -> (Collator) prototype.clone());
+		return byKey((row) -> {
+			final String text = label.apply(row);
+			return collators.get().getCollationKey(text == null ? "" : text);
+		}, Comparator.naturalOrder());
+	}
+
+	/**
+	 * Returns a sorter according to the values of the given column, as given by
+	 * {@link LongEditingSupport#getLongValue(Object)}.
+	 */
+	public static <E> TypedSorter<E> byLong(LongEditingSupport<E> editingSupport) {
+		return byLong(editingSupport::getLongValue);
+	}
+
+	/**
+	 * Returns a sorter according to the given keys.
+	 */
+	public static <E> TypedSorter<E> byLong(ToLongFunction<? super E> key) {
+		requireNonNull(key);
+		return new TypedSorter<E>() {
+			@Override
+			int[] order(List<? extends E> rows, boolean ascending) {
+				final int size = rows.size();
+				final LongKeyed[] keyed = new LongKeyed[size];
+				forEachIndex(size, (i) -> {
+					final long k = key.applyAsLong(rows.get(i));
+					keyed[i] = new LongKeyed(ascending ? k : ~k, i);
+				});
+				if (size >= PARALLEL_THRESHOLD) {
+					Arrays.parallelSort(keyed);
+				} else {
+					Arrays.sort(keyed);
+				}
+				final int[] order = new int[size];
+				for (int i = 0; i < size; ++i) {
+					order[i] = keyed[i].index;
+				}
+				return order;
+			}
+		};
+	}
+
+	/**
+	 * Returns a sorter according to the values of the given column, as given by
+	 * {@link TypedEditingSupport#getValueTyped(Object)}, in their natural
+	 * order, <code>null</code> values first.
+	 */
+	public static <E, V extends Comparable<? super V>> TypedSorter<E> byValue(
+			TypedEditingSupport<E, V> editingSupport) {
+		return byKey(editingSupport::getValueTyped, Comparator.nullsFirst(Comparator.<V> naturalOrder()));
+	}
+
+	/**
+	 * Returns a sorter according to the given keys, compared using the given
+	 * comparator.
+	 */
+	public static <E, K> TypedSorter<E> byKey(Function<? super E, ? extends K> key,
+			Comparator<? super K> comparator) {
+		requireNonNull(key);
+		requireNonNull(comparator);
+		return new TypedSorter<E>() {
+			@Override
+			int[] order(List<? extends E> rows, boolean ascending) {
+				final int size = rows.size();
+				final Keyed[] keyed = new Keyed[size];
+				forEachIndex(size, (i) -> keyed[i] = new Keyed(key.apply(rows.get(i)), i));
+				final Comparator<? super K> direction = ascending ? comparator : comparator.reversed();
+				final Comparator<Keyed> byKey = (k1, k2) -> {
+					@SuppressWarnings("unchecked")
+					final int compared = direction.compare((K) k1.key, (K) k2.key);
+					return compared != 0 ? compared : Integer.compare(k1.index, k2.index);
+				};
+				if (size >= PARALLEL_THRESHOLD) {
+					Arrays.parallelSort(keyed, byKey);
+				} else {
+					Arrays.sort(keyed, byKey);
+				}
+				final int[] order = new int[size];
+				for (int i = 0; i < size; ++i) {
+					order[i] = keyed[i].index;
+				}
+				return order;
+			}
+		};
+	}
+
+	private static void forEachIndex(int size, IntConsumer action) {
+		if (size >= PARALLEL_THRESHOLD) {
+			IntStream.range(0, size).parallel().forEach(action);
+		} else {
+			for (int i = 0; i < size; ++i) {
+				action.accept(i);
+			}
+		}
+	}
+
+	TypedSorter() {
+		/** Subclassed only in this class. */
+	}
+
+	/**
+	 * Returns the given rows, sorted, in a new list. This may be called from
+	 * any thread.
+	 *
+	 * @param rows
+	 *            not <code>null</code>, should support fast random access.
+	 * @param ascending
+	 *            <code>false</code> to sort in descending order (rows with
+	 *            equal keys still keep their relative order).
+	 */
+	public <F extends E> List<F> sort(List<F> rows, boolean ascending) {
+		final int[] order = order(rows, ascending);
+		final List<F> sorted = new ArrayList<>(order.length);
+		for (int position : order) {
+			sorted.add(rows.get(position));
+		}
+		return sorted;
+	}
+
+	/**
+	 * <p>
+	 * Sorts the given rows using the given executor, then, from the UI thread,
+	 * sets them as input of the given viewer (see
+	 * {@link JFace#setRows(TableViewer, List)}) and shows the given column as the
+	 * sort column. Must be called from the UI thread. The given rows must not
+	 * be modified while being sorted.
+	 * </p>
+	 * <p>
+	 * If an other sort is started in background for the same viewer (by any
+	 * sorter) before this one completes, only the most recent one sets the
+	 * input and the sort indicator, so that a stale order can't replace a newer
+	 * one.
+	 * </p>
+	 *
+	 * @param column
+	 *            <code>null</code> to leave the sort indicator of the table
+	 *            unchanged.
+	 * @param executor
+	 *            computes the keys and sorts them.
+	 * @return a future completing, from the UI thread, with the sorted rows,
+	 *         once they have been set as input of the viewer (unless a more
+	 *         recent sort has been started).
+	 */
+	public <F extends E> CompletableFuture<List<F>> sortInBackground(TableViewer viewer, TableColumn column,
+			List<F> rows, boolean ascending, Executor executor) {
+		final Display display = viewer.getControl().getDisplay();
+		final Object token = new Object();
+		viewer.getControl().setData(LATEST_SORT_KEY, token);
+		final CompletableFuture<List<F>> sorted = CompletableFuture.supplyAsync(() -> sort(rows, ascending),
+				executor);
+		return sorted.thenApplyAsync((result) -> {
+			if (!viewer.getControl().isDisposed() && viewer.getControl().getData(LATEST_SORT_KEY) == token) {
+				JFace.setRows(viewer, result);
+				if (column != null) {
+					viewer.getTable().setSortColumn(column);
+					viewer.getTable().setSortDirection(ascending ? SWT.UP : SWT.DOWN);
+				}
+			}
+			return result;
+		}, display::asyncExec);
+	}
+
+	/**
+	 * Returns the positions of the given rows in sorted order.
+	 */
+	abstract int[] order(List<? extends E> rows, boolean ascending);
+}
@@ -0,0 +1,330 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.jface.viewers.ColumnViewer;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Collects, from any thread, elements whose labels must be updated, and
+ * updates them in the viewer in batches: at most one
+ * {@link Display#asyncExec(Runnable)} is pending at any time, and the viewer is
+ * updated at most a given number of times per second (60 by default, see
+ * {@link #setMaxFramesPerSecond(int)}), with all the elements collected in the
+ * meantime. This permits models changed by background threads thousands of
+ * times per second to be shown without flooding the event queue.
+ * </p>
+ * <p>
+ * The requests for an element collected before a batch are merged: the
+ * element is updated once, with the union of the properties asked for (see
+ * {@link #update(Object, String...)}), or fully if any request asked for a
+ * full update. Properties are passed to the viewer through
+ * {@link JFace#update(ColumnViewer, Object[], String...)}, thus only the
+ * columns concerned are refreshed. Requests are collected without blocking
+ * the calling threads (except on contention for the same element). The
+ * number of requests received and merged is counted (see
+ * {@link ViewerUpdateSchedulerMXBean}), and may be exposed through JMX, using
+ * {@link #registerMBean(String)}.
+ * </p>
+ * <p>
+ * Use {@link #of(ColumnViewer)} to obtain the instance associated with a
+ * viewer.
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ */
+public class ViewerUpdateScheduler implements ViewerUpdateSchedulerMXBean {
+	/**
+	 * The requests pending for an element.
+	 */
+	private static class Pending {
+		/**
+		 * Whether a full update has been asked for.
+		 */
+		volatile boolean all;
+
+		final Set<String> properties;
+
+		/**
+		 * Set once this object has been taken out of the pending requests: the
+		 * requests added afterwards must be added again.
+		 */
+		volatile boolean taken;
+
+		Pending() {
+			all = false;
+			properties = ConcurrentHashMap.newKeySet();
+			taken = false;
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(ViewerUpdateScheduler.class);
+
+	/**
+	 * Returns the instance associated with the given viewer, creating it if
+	 * necessary. Must be called from the UI thread; the instance may then be
+	 * used from any thread.
+	 */
+	public static ViewerUpdateScheduler of(ColumnViewer viewer) {
+		final Control control = viewer.getControl();
+		final String key = ViewerUpdateScheduler.class.getName();
+		ViewerUpdateScheduler scheduler = (ViewerUpdateScheduler) control.getData(key);
+		if (scheduler == null) {
+			scheduler = new ViewerUpdateScheduler(viewer);
+			control.setData(key, scheduler);
+		}
+		return scheduler;
+	}
+
+	private final Display display;
+
+	private final LongAdder flushCount;
+
+	private final LongAdder flushedCount;
+
+	/**
+	 * The minimal duration between two batches.
+	 */
+	private volatile long frameNanos;
+
+	/**
+	 * Accessed from the UI thread only.
+	 */
+	private long lastFlushNanos;
+
+	private final LongAdder mergedCount;
+
+	private ObjectName objectName;
+
+	private final ConcurrentHashMap<Object, Pending> pending;
+
+	private final LongAdder requestedCount;
+
+	private final AtomicBoolean scheduled;
+
+	private final ColumnViewer viewer;
+
+	private ViewerUpdateScheduler(ColumnViewer viewer) {
+		this.viewer = requireNonNull(viewer);
+		display = viewer.getControl().getDisplay();
+		pending = new ConcurrentHashMap<>();
+		scheduled = new AtomicBoolean(false);
+		requestedCount = new LongAdder();
+		mergedCount = new LongAdder();
+		flushCount = new LongAdder();
+		flushedCount = new LongAdder();
+		objectName = null;
+		frameNanos = 1_000_000_000L / 60;
+		lastFlushNanos = System.nanoTime() - frameNanos;
+	}
+
+	@Override
+	public long getFlushCount() {
+		return flushCount.sum();
+	}
+
+	@Override
+	public long getFlushedCount() {
+		return flushedCount.sum();
+	}
+
+	@Override
+	public int getMaxFramesPerSecond() {
+		return (int) (1_000_000_000L / frameNanos);
+	}
+
+	@Override
+	public long getMergedCount() {
+		return mergedCount.sum();
+	}
+
+	@Override
+	public int getPendingCount() {
+		return pending.size();
+	}
+
+	@Override
+	public long getRequestedCount() {
+		return requestedCount.sum();
+	}
+
+	/**
+	 * Registers this object to the platform MBean server, under the domain of
+	 * this package, with type <code>ViewerUpdateScheduler</code> and the given
+	 * name.
+	 *
+	 * @param name
+	 *            identifies the viewer of this object among the viewers whose
+	 *            scheduler is registered.
+	 * @return the name this object is registered under.
+	 * @throws JMException
+	 *             if the registration fails, for example because some object
+	 *             is already registered under that name.
+	 */
+	public synchronized ObjectName registerMBean(String name) throws JMException {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName objectName = new ObjectName(ViewerUpdateScheduler.class.getPackage().getName() + ":type="
+				+ ViewerUpdateScheduler.class.getSimpleName() + ",name=" + ObjectName.quote(name));
+		server.registerMBean(this, objectName);
+		this.objectName = objectName;
+		return objectName;
+	}
+
+	@Override
+	public void reset() {
+		requestedCount.reset();
+		mergedCount.reset();
+		flushCount.reset();
+		flushedCount.reset();
+	}
+
+	/**
+	 * Sets the maximal number of batches sent to the viewer per second. May be
+	 * called from any thread.
+	 *
+	 * @param framesPerSecond
+	 *            a positive number, at most 1000.
+	 */
+	public void setMaxFramesPerSecond(int framesPerSecond) {
+		checkArgument(framesPerSecond > 0 && framesPerSecond <= 1000);
+		frameNanos = 1_000_000_000L / framesPerSecond;
+	}
+
+	/**
+	 * Unregisters this object from the platform MBean server, if it has been
+	 * registered using {@link #registerMBean(String)}.
+	 *
+	 * @throws JMException
+	 *             if the unregistration fails.
+	 */
+	public synchronized void unregisterMBean() throws JMException {
+		if (objectName != null) {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			objectName = null;
+		}
+	}
+
+	/**
+	 * Asks for the labels of the given element to be updated in the next batch.
+	 * May be called from any thread.
+	 *
+	 * @param element
+	 *            not <code>null</code>.
+	 * @param properties
+	 *            the properties that changed, as in
+	 *            {@link ColumnViewer#update(Object, String[])}; none (or
+	 *            <code>null</code>) for a full update.
+	 */
+	public void update(Object element, String... properties) {
+		requireNonNull(element);
+		requestedCount.increment();
+		final boolean all = properties == null || properties.length == 0;
+		while (true) {
+			Pending created = null;
+			Pending p = pending.get(element);
+			if (p == null) {
+				created = new Pending();
+				p = pending.putIfAbsent(element, created);
+				if (p == null) {
+					p = created;
+				}
+			}
+			if (all) {
+				p.all = true;
+			} else {
+				p.properties.addAll(Arrays.asList(properties));
+			}
+			/**
+			 * The batch marks p as taken before reading it, thus reads this
+			 * request unless p is seen as taken, in which case p is no more in
+			 * the map and the request must be added again.
+			 */
+			if (!p.taken) {
+				if (p != created) {
+					mergedCount.increment();
+				}
+				break;
+			}
+		}
+		if (scheduled.compareAndSet(false, true) && !display.isDisposed()) {
+			display.asyncExec(this::schedule);
+		}
+	}
+
+	private void flush() {
+		scheduled.set(false);
+		lastFlushNanos = System.nanoTime();
+		final boolean disposed = viewer.getControl().isDisposed();
+		final List<Object> full = new ArrayList<>();
+		final Map<Set<String>, List<Object>> byProperties = new HashMap<>();
+		for (Object element : pending.keySet()) {
+			final Pending p = pending.remove(element);
+			if (p == null) {
+				continue;
+			}
+			p.taken = true;
+			if (disposed) {
+				continue;
+			}
+			if (p.all) {
+				full.add(element);
+			} else {
+				byProperties.computeIfAbsent(new TreeSet<>(p.properties), (s) -> new ArrayList<>()).add(element);
+			}
+		}
+		if (disposed) {
+			return;
+		}
+		if (!full.isEmpty()) {
+			viewer.update(full.toArray(), null);
+		}
+		int count = full.size();
+		for (Map.Entry<Set<String>, List<Object>> entry : byProperties.entrySet()) {
+			final List<Object> elements = entry.getValue();
+			JFace.update(viewer, elements.toArray(), entry.getKey().toArray(new String[0]));
+			count += elements.size();
+		}
+		if (count > 0) {
+			flushCount.increment();
+			flushedCount.add(count);
+		}
+	}
+
+	/**
+	 * Flushes now if the previous flush is older than a frame, and otherwise at
+	 * the end of the current frame.
+	 */
+	private void schedule() {
+		final long sinceLastFlushNanos = System.nanoTime() - lastFlushNanos;
+		final long frame = frameNanos;
+		if (sinceLastFlushNanos >= frame) {
+			flush();
+		} else {
+			final int delayMillis = (int) Math.max(1, (frame - sinceLastFlushNanos) / 1_000_000);
+			display.timerExec(delayMillis, this::flush);
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package io.github.oliviercailloux.swt_tools;
+
+/**
+ * The JMX view of a {@link ViewerUpdateScheduler}.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+public interface ViewerUpdateSchedulerMXBean {
+	/**
+	 * Returns the number of batches sent to the viewer.
+	 */
+	public long getFlushCount();
+
+	/**
+	 * Returns the number of elements updated in the viewer, over all batches.
+	 */
+	public long getFlushedCount();
+
+	public int getMaxFramesPerSecond();
+
+	/**
+	 * Returns the number of requests merged into a request for the same
+	 * element already pending.
+	 */
+	public long getMergedCount();
+
+	/**
+	 * Returns the number of elements waiting for the next batch.
+	 */
+	public int getPendingCount();
+
+	/**
+	 * Returns the number of update requests received.
+	 */
+	public long getRequestedCount();
+
+	public void reset();
+}
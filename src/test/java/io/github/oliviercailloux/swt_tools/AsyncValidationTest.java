@@ -0,0 +1,111 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests the asynchronous validation against an in-memory store of existing
+ * names, with a queue standing for the UI thread.
+ */
+public class AsyncValidationTest {
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+	private final Set<String> store = ConcurrentHashMap.newKeySet();
+
+	private final LinkedBlockingQueue<Runnable> ui = new LinkedBlockingQueue<>();
+
+	private final AtomicInteger checks = new AtomicInteger();
+
+	private final CopyOnWriteArrayList<String> checked = new CopyOnWriteArrayList<>();
+
+	@After
+	public void tearDown() {
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void testDebounceAndCache() throws Exception {
+		store.addAll(ImmutableSet.of("alice", "bob"));
+		final Executor uiExecutor = ui::add;
+		final AtomicInteger results = new AtomicInteger();
+		final AsyncValidation<String> validation = new AsyncValidation<>(this::isUnique, 50, scheduler, uiExecutor,
+				results::incrementAndGet);
+		assertEquals(AsyncValidation.PENDING_MESSAGE, validation.validate("a"));
+		assertEquals(AsyncValidation.PENDING_MESSAGE, validation.validate("al"));
+		assertEquals(AsyncValidation.PENDING_MESSAGE, validation.validate("alice"));
+		final String[] committed = new String[1];
+		validation.whenResolved("alice", (m) -> committed[0] = m);
+		ui.poll(5, TimeUnit.SECONDS).run();
+		assertEquals("Already used.", committed[0]);
+		assertEquals(1, checks.get());
+		assertEquals("alice", checked.get(0));
+		assertEquals(1, results.get());
+		assertNull(validation.getPendingValue());
+
+		assertEquals("Already used.", validation.validate("alice"));
+		assertEquals(1, checks.get());
+
+		assertEquals(AsyncValidation.PENDING_MESSAGE, validation.validate("carol"));
+		assertEquals("carol", validation.getPendingValue());
+		ui.poll(5, TimeUnit.SECONDS).run();
+		assertNull(validation.validate("carol"));
+		assertEquals(2, checks.get());
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		final AsyncValidation<String> validation = new AsyncValidation<>(this::isUnique, 10_000, scheduler, ui::add,
+				() -> {
+				});
+		validation.validate("dave");
+		validation.cancel();
+		assertNull(validation.getPendingValue());
+		assertNull(validation.validate(null));
+		assertNull(ui.poll(100, TimeUnit.MILLISECONDS));
+		assertEquals(0, checks.get());
+	}
+
+	@Test
+	public void testWaitedCheckOutlivesOtherValue() throws Exception {
+		store.add("alice");
+		final AtomicInteger results = new AtomicInteger();
+		final AsyncValidation<String> validation = new AsyncValidation<>(this::isUnique, 50, scheduler, ui::add,
+				results::incrementAndGet);
+		validation.validate("alice");
+		final String[] committed = new String[1];
+		validation.whenResolved("alice", (m) -> committed[0] = m);
+		/** The end-user edits an other cell, then cancels that edit. */
+		validation.validate("b");
+		validation.cancel();
+		assertNull(validation.getPendingValue());
+		ui.poll(5, TimeUnit.SECONDS).run();
+		assertEquals("Already used.", committed[0]);
+		assertEquals(ImmutableList.of("alice"), checked);
+		assertEquals(1, results.get());
+	}
+
+	private CompletableFuture<String> isUnique(String name) {
+		checks.incrementAndGet();
+		checked.add(name);
+		return CompletableFuture.supplyAsync(() -> store.contains(name) ? "Already used." : null);
+	}
+
+}
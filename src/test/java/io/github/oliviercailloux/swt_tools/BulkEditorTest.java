@@ -0,0 +1,207 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class BulkEditorTest {
+	private static class Row {
+		boolean locked;
+
+		String name;
+
+		int quantity;
+
+		Row(String name, int quantity) {
+			this.name = name;
+			this.quantity = quantity;
+			locked = false;
+		}
+	}
+
+	private BulkEditor<Row> editor;
+
+	/**
+	 * The names sent through the editing support of the first column.
+	 */
+	private List<String> namesSent;
+
+	private List<Row> rows;
+
+	private Shell shell;
+
+	@After
+	public void tearDown() {
+		if (shell != null) {
+			shell.dispose();
+		}
+	}
+
+	@Test
+	public void testFillDown() {
+		createEditor();
+		rows.get(1).locked = true;
+		final List<BulkEditor.CellError> errors = editor.fillDown(rows, 1, "9");
+		assertEquals(1, errors.size());
+		assertEquals(1, errors.get(0).getRow());
+		assertEquals(1, errors.get(0).getColumn());
+		assertEquals("The cell can't be edited.", errors.get(0).getMessage());
+		assertEquals(9, rows.get(0).quantity);
+		assertEquals(2, rows.get(1).quantity);
+
+		final List<BulkEditor.CellError> invalid = editor.fillDown(rows, 1, "x");
+		assertEquals(2, invalid.size());
+		assertEquals("Integer required.", invalid.get(0).getMessage());
+		assertEquals("x", invalid.get(1).getText());
+		assertEquals(9, rows.get(0).quantity);
+		assertEquals(2, rows.get(1).quantity);
+
+		assertEquals(ImmutableList.of(), editor.fillDown(rows, 0, "z"));
+		assertEquals(ImmutableList.of("z", "z"), namesSent);
+	}
+
+	@Test
+	public void testPasteFromItemSource() {
+		final List<String> catalog = ImmutableList.of("Lyon", "Paris", "Parma", "Pau");
+		final ComboBoxEditingSupport<Row, String> cities = new ComboBoxEditingSupport<Row, String>(
+				new HeadlessColumnViewer(), Row.class, String.class) {
+			@Override
+			public boolean canEditTyped(Row element) {
+				return !element.locked;
+			}
+
+			@Override
+			public String getValueTyped(Row element) {
+				return element.name;
+			}
+
+			@Override
+			public void setValueTyped(Row element, String value) {
+				element.name = value;
+			}
+		};
+		cities.setItemSource(new PagedItemSource<>((text, offset, limit) -> catalog.stream()
+				.filter((c) -> c.startsWith(text)).skip(offset).limit(limit).collect(Collectors.toList()), 2, 10,
+				MoreExecutors.directExecutor()));
+		final BulkEditor<Row> bulkEditor = new BulkEditor<>(cities.getViewer());
+		bulkEditor.addColumn(cities);
+		final List<Row> locked = ImmutableList.of(new Row("a", 1), new Row("b", 2), new Row("c", 3));
+		for (Row row : locked) {
+			row.locked = true;
+		}
+		/** The cells are not edited, thus the viewer, which has no control, is not updated. */
+		final List<BulkEditor.CellError> errors = bulkEditor.paste(locked, 0, "Paris\nPar\nPau");
+		assertEquals(3, errors.size());
+		/** Found in the source, though not among the items set. */
+		assertEquals("The cell can't be edited.", errors.get(0).getMessage());
+		assertEquals("The text must be one of the provided choices.", errors.get(1).getMessage());
+		assertEquals("The cell can't be edited.", errors.get(2).getMessage());
+	}
+
+	@Test
+	public void testParseTsv() {
+		assertEquals(ImmutableList.of(), BulkEditor.parseTsv(""));
+		assertEquals(ImmutableList.of(ImmutableList.of("a", "b"), ImmutableList.of("c", "")),
+				BulkEditor.parseTsv("a\tb\r\nc\t\r\n"));
+		assertEquals(ImmutableList.of(ImmutableList.of("a", ""), ImmutableList.of("")),
+				BulkEditor.parseTsv("a\t\n\n"));
+		assertEquals(ImmutableList.of(ImmutableList.of("x\ty", "2\n\"3\""), ImmutableList.of("z")),
+				BulkEditor.parseTsv("\"x\ty\"\t\"2\n\"\"3\"\"\"\r\nz"));
+		assertEquals(ImmutableList.of(ImmutableList.of("1", "2", "")), BulkEditor.parseTsv("1\t2\t"));
+	}
+
+	@Test
+	public void testPaste() {
+		createEditor();
+		rows.get(0).locked = true;
+		final List<BulkEditor.CellError> errors = editor.paste(rows, 0, "c\t3\nd\t-4\ne\t5\n");
+		assertEquals(4, errors.size());
+
+		assertEquals(0, errors.get(0).getRow());
+		assertEquals(1, errors.get(0).getColumn());
+		assertEquals("3", errors.get(0).getText());
+		assertEquals("The cell can't be edited.", errors.get(0).getMessage());
+
+		assertEquals(1, errors.get(1).getRow());
+		assertEquals(1, errors.get(1).getColumn());
+		assertEquals("Must be non-negative.", errors.get(1).getMessage());
+
+		assertEquals(2, errors.get(2).getRow());
+		assertEquals(0, errors.get(2).getColumn());
+		assertEquals("Beyond the table.", errors.get(2).getMessage());
+		assertEquals(2, errors.get(3).getRow());
+		assertEquals(1, errors.get(3).getColumn());
+
+		assertEquals("c", rows.get(0).name);
+		assertEquals(1, rows.get(0).quantity);
+		assertEquals("d", rows.get(1).name);
+		assertEquals(2, rows.get(1).quantity);
+		assertEquals(ImmutableList.of("c", "d"), namesSent);
+
+		final List<BulkEditor.CellError> beyond = editor.paste(rows, 1, "6\t\t7");
+		assertEquals(3, beyond.size());
+		assertEquals("The cell can't be edited.", beyond.get(0).getMessage());
+		assertEquals(2, beyond.get(1).getColumn());
+		assertEquals("Beyond the table.", beyond.get(1).getMessage());
+		assertEquals("7", beyond.get(2).getText());
+		assertEquals(1, rows.get(0).quantity);
+
+		final List<BulkEditor.CellError> empty = editor.paste(rows.subList(1, 2), 0, "\t8");
+		assertEquals(1, empty.size());
+		assertEquals("Name required.", empty.get(0).getMessage());
+		assertEquals("d", rows.get(1).name);
+		assertEquals(8, rows.get(1).quantity);
+	}
+
+	private void createEditor() {
+		shell = new Shell(Display.getDefault());
+		final TableViewer viewer = new TableViewer(shell);
+		final TextEditingSupport<Row> names = new TextEditingSupport<Row>(viewer, Row.class) {
+			@Override
+			public String getValueTyped(Row element) {
+				return element.name;
+			}
+
+			@Override
+			public void setValueTyped(Row element, String value) {
+				element.name = value;
+			}
+		};
+		names.setValidator((v) -> v.isEmpty() ? "Name required." : null);
+		namesSent = new ArrayList<>();
+		names.addEditListener((e, oldValue, newValue) -> namesSent.add(newValue));
+		final IntEditingSupport<Row> quantities = new IntEditingSupport<Row>(viewer, Row.class) {
+			@Override
+			public boolean canEditTyped(Row element) {
+				return !element.locked;
+			}
+
+			@Override
+			public int getIntValue(Row element) {
+				return element.quantity;
+			}
+
+			@Override
+			public void setIntValue(Row element, int value) {
+				element.quantity = value;
+			}
+		};
+		quantities.setIntValidator((v) -> v < 0 ? "Must be non-negative." : null);
+		editor = new BulkEditor<>(viewer);
+		editor.addColumn(names);
+		editor.addColumn(quantities);
+		rows = ImmutableList.of(new Row("a", 1), new Row("b", 2));
+	}
+
+}
@@ -0,0 +1,110 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class BulkValidatorTest {
+	/**
+	 * More than one task validates the rows.
+	 */
+	private static final int SIZE = 10_000;
+
+	/**
+	 * The texts of the quantities, by row, with one more row than in the list
+	 * validated.
+	 */
+	private String[] quantities;
+
+	@Test
+	public void testValidateAndRevalidate() {
+		quantities = new String[SIZE + 1];
+		final String[] names = new String[SIZE];
+		for (int i = 0; i < SIZE; ++i) {
+			quantities[i] = Integer.toString(i);
+			names[i] = "r" + i;
+		}
+		quantities[SIZE] = "0";
+		quantities[100] = "x";
+		quantities[5000] = "-1";
+		quantities[SIZE - 1] = "12a";
+		names[64] = "";
+
+		final IntEditingSupport<Integer> quantitySupport = new IntEditingSupport<Integer>(new HeadlessColumnViewer(),
+				Integer.class) {
+			@Override
+			public int getIntValue(Integer element) {
+				return Integer.parseInt(quantities[element]);
+			}
+
+			/**
+			 * Returns the text as imported, which may not represent an integer.
+			 */
+			@Override
+			public String getValueTyped(Integer element) {
+				return quantities[element];
+			}
+
+			@Override
+			public void setIntValue(Integer element, int value) {
+				quantities[element] = Integer.toString(value);
+			}
+		};
+		quantitySupport.setIntValidator((v) -> v < 0 ? "Must be non-negative." : null);
+		final TextEditingSupport<Integer> nameSupport = new TextEditingSupport<Integer>(new HeadlessColumnViewer(),
+				Integer.class) {
+			@Override
+			public String getValueTyped(Integer element) {
+				return names[element];
+			}
+
+			@Override
+			public void setValueTyped(Integer element, String value) {
+				names[element] = value;
+			}
+		};
+		nameSupport.setValidator((v) -> v.isEmpty() ? "Name required." : null);
+
+		final List<Integer> rows = IntStream.range(0, SIZE).boxed().collect(Collectors.toList());
+		final BulkValidator<Integer> validator = new BulkValidator<>(rows, (e) -> e < SIZE ? e : -1,
+				ForkJoinPool.commonPool());
+		validator.addColumn(quantitySupport);
+		validator.addColumn(nameSupport);
+		assertEquals(4, validator.validateAll());
+		final BitSet invalid = new BitSet();
+		invalid.set(100);
+		invalid.set(5000);
+		invalid.set(SIZE - 1);
+		assertEquals(invalid, validator.getInvalidRows(0));
+		assertEquals(BitSet.valueOf(new long[] { 0, 1 }), validator.getInvalidRows(1));
+		assertTrue(validator.isInvalid(64, 1));
+		assertFalse(validator.isInvalid(64, 0));
+		assertEquals("Integer required.", validator.getMessage(100, 0));
+		assertEquals("Must be non-negative.", validator.getMessage(5000, 0));
+		assertNull(validator.getMessage(0, 0));
+
+		quantitySupport.setValue(100, "7");
+		nameSupport.setValue(3, "c");
+		/** A row that is not in the list. */
+		quantitySupport.setValue(SIZE, "8");
+		quantities[5000] = "3";
+		validator.markChanged(5000);
+		/** The cells of the row marked, in both columns, and the two cells edited. */
+		assertEquals(4, validator.revalidateChanged());
+		assertEquals(2, validator.getInvalidCount());
+		assertFalse(validator.isInvalid(100, 0));
+		assertFalse(validator.isInvalid(5000, 0));
+		assertTrue(validator.isInvalid(SIZE - 1, 0));
+		assertEquals(0, validator.revalidateChanged());
+	}
+
+}
@@ -0,0 +1,106 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class ColumnAutoSizerTest {
+	private Font font;
+
+	private Shell shell;
+
+	@After
+	public void tearDown() {
+		if (shell != null) {
+			shell.dispose();
+		}
+		if (font != null) {
+			font.dispose();
+		}
+	}
+
+	@Test
+	public void testPackAndWiden() {
+		final Display display = Display.getDefault();
+		shell = new Shell(display);
+		final TableViewer viewer = new TableViewer(shell);
+		final String[] names = { "a", "a", "a", "b" };
+		final TextEditingSupport<Integer> editingSupport = new TextEditingSupport<Integer>(viewer, Integer.class) {
+			@Override
+			public String getValueTyped(Integer element) {
+				return names[element];
+			}
+
+			@Override
+			public void setValueTyped(Integer element, String value) {
+				names[element] = value;
+			}
+		};
+		final TableColumn column = new TableColumn(viewer.getTable(), SWT.NONE);
+		column.setText("Name");
+		JFace.addTextTableViewerColumn(viewer, column, editingSupport);
+		viewer.setContentProvider(ArrayContentProvider.getInstance());
+		viewer.setInput(ImmutableList.of(0, 1, 2, 3));
+
+		final ColumnAutoSizer<Integer> sizer = new ColumnAutoSizer<>(viewer, 10);
+		sizer.addColumn(column, editingSupport);
+		sizer.pack();
+		final Table table = viewer.getTable();
+		/** The header, "a" and "b". */
+		assertEquals(3, sizer.getCachedWidthCount(table.getFont()));
+		final int packed = column.getWidth();
+		assertTrue(packed > ColumnAutoSizer.MARGIN);
+
+		final Font defaultFont = table.getFont();
+		font = new Font(display, defaultFont.getFontData()[0].getName(), 40, SWT.BOLD);
+		table.setFont(font);
+		assertTrue(sizer.computeWidth(column) > packed);
+		assertEquals(3, sizer.getCachedWidthCount(font));
+		assertEquals(3, sizer.getCachedWidthCount(defaultFont));
+		table.setFont(defaultFont);
+		assertEquals(packed, sizer.computeWidth(column));
+
+		editingSupport.setValue(3, "A name much longer than the header");
+		dispatch(display);
+		final int widened = column.getWidth();
+		assertTrue(widened > packed);
+		assertEquals(sizer.computeWidth(column), widened);
+
+		editingSupport.setValue(3, "c");
+		dispatch(display);
+		assertEquals(widened, column.getWidth());
+	}
+
+	@Test
+	public void testSample() {
+		assertArrayEquals(new int[] {}, ColumnAutoSizer.sample(0, 0, 10, 5));
+		assertArrayEquals(new int[] { 0, 1, 2 }, ColumnAutoSizer.sample(3, 0, 10, 5));
+		assertArrayEquals(new int[] { 0, 24, 49, 50, 51, 74, 99 }, ColumnAutoSizer.sample(100, 49, 3, 5));
+		assertArrayEquals(new int[] { 0 }, ColumnAutoSizer.sample(100, 0, 1, 1));
+		assertArrayEquals(new int[] { 0, 999_999_999, 1_999_999_999 },
+				ColumnAutoSizer.sample(2_000_000_000, 0, 0, 3));
+	}
+
+	/**
+	 * Runs the pending UI events, among which the widening of the columns.
+	 */
+	private static void dispatch(Display display) {
+		while (display.readAndDispatch()) {
+			/** Keep dispatching. */
+		}
+	}
+
+}
@@ -0,0 +1,30 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ColumnStatisticsTest {
+
+	@Test
+	public void testPercentiles() {
+		final ColumnStatistics statistics = new ColumnStatistics("col");
+		for (int i = 0; i < 99; ++i) {
+			statistics.record(HotPath.LABEL, 100);
+		}
+		statistics.record(HotPath.LABEL, 5000);
+		assertEquals(100, statistics.getCount(HotPath.LABEL));
+		assertEquals(0, statistics.getCount(HotPath.GET_VALUE));
+		assertEquals(5000, statistics.getMaxNanos(HotPath.LABEL));
+		assertEquals(149d, statistics.getMeanNanos(HotPath.LABEL), 1e-6);
+		/** 100 is in [64, 128). */
+		assertEquals(127, statistics.getPercentileNanos(HotPath.LABEL, 50d));
+		assertEquals(127, statistics.getPercentileNanos(HotPath.LABEL, 99d));
+		assertEquals(5000, statistics.getPercentileNanos(HotPath.LABEL, 100d));
+		assertEquals(Long.valueOf(100), statistics.getCounts().get("LABEL"));
+		statistics.reset();
+		assertEquals(0, statistics.getCount(HotPath.LABEL));
+		assertEquals(0, statistics.getPercentileNanos(HotPath.LABEL, 50d));
+	}
+
+}
@@ -0,0 +1,37 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ColumnarTableTest {
+
+	@Test
+	public void testGrowByChunks() {
+		final ColumnarTable table = new ColumnarTable();
+		final ColumnarTable.IntColumn ints = table.addIntColumn();
+		assertEquals(0, table.addRows(ColumnarTable.CHUNK_SIZE - 1));
+		ints.set(ColumnarTable.CHUNK_SIZE - 2, 42);
+		assertEquals(ColumnarTable.CHUNK_SIZE - 1, table.addRows(3));
+		ints.set(ColumnarTable.CHUNK_SIZE + 1, -7);
+		final ColumnarTable.DoubleColumn doubles = table.addDoubleColumn();
+		doubles.set(ColumnarTable.CHUNK_SIZE, 1.5d);
+		assertEquals(ColumnarTable.CHUNK_SIZE + 2, table.getRowCount());
+		assertEquals(42, ints.get(ColumnarTable.CHUNK_SIZE - 2));
+		assertEquals(-7, ints.get(ColumnarTable.CHUNK_SIZE + 1));
+		assertEquals(0, ints.get(ColumnarTable.CHUNK_SIZE));
+		assertEquals(1.5d, doubles.get(ColumnarTable.CHUNK_SIZE), 0d);
+		assertEquals(0d, doubles.get(0), 0d);
+		assertEquals(table.getRowCount(), table.getRows().size());
+		assertEquals(Integer.valueOf(ColumnarTable.CHUNK_SIZE), table.getRows().get(ColumnarTable.CHUNK_SIZE));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testBeyondRows() {
+		final ColumnarTable table = new ColumnarTable();
+		final ColumnarTable.LongColumn longs = table.addLongColumn();
+		table.addRows(2);
+		longs.get(2);
+	}
+
+}
@@ -0,0 +1,148 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EditJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * The model: the value of each row.
+	 */
+	private String[] values;
+
+	@Test
+	public void testCheckpoint() throws IOException {
+		final Path path = folder.newFile().toPath();
+		values = new String[] { "a", "b" };
+		final TextEditingSupport<Integer> support = newEditingSupport();
+		try (EditJournal<Integer> journal = open(path, 4, support)) {
+			support.setValue(0, "x");
+			journal.flush();
+			support.setValue(1, "y");
+			journal.checkpoint();
+			assertEquals(0, Files.size(path));
+			support.setValue(1, "z");
+			journal.undo();
+			assertEquals("y", values[1]);
+		}
+		assertEquals(EditJournal.encodeLine(1L, 0, "y", "z") + EditJournal.encodeLine(1L, 0, "z", "y"),
+				new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testLineRoundTrip() {
+		final String line = EditJournal.encodeLine(-3L, 2, null, "a\tb\\c\nd");
+		assertEquals("-3\t2\t\\N\ta\\tb\\\\c\\nd\n", line);
+		assertArrayEquals(new String[] { "-3", "2", null, "a\tb\\c\nd" },
+				EditJournal.decodeLine(line.substring(0, line.length() - 1)));
+		final String escaped = EditJournal.encodeLine(7L, 0, "", "\\N");
+		assertArrayEquals(new String[] { "7", "0", "", "\\N" },
+				EditJournal.decodeLine(escaped.substring(0, escaped.length() - 1)));
+		assertNull(EditJournal.decodeLine("7\t0\tx"));
+	}
+
+	@Test
+	public void testReplay() throws IOException {
+		final Path path = folder.newFile().toPath();
+		final String written = EditJournal.encodeLine(0L, 0, "a", "x") + EditJournal.encodeLine(1L, 0, "b", null)
+				+ EditJournal.encodeLine(0L, 0, "x", "y");
+		/** The last line, truncated by a crash. */
+		Files.write(path, written.substring(0, written.length() - 2).getBytes(StandardCharsets.UTF_8));
+		values = new String[] { "a", "b" };
+		final TextEditingSupport<Integer> support = newEditingSupport();
+		try (EditJournal<Integer> journal = open(path, 4, support)) {
+			assertEquals(2, journal.replay());
+			assertFalse(journal.canUndo());
+		}
+		assertArrayEquals(new String[] { "x", null }, values);
+	}
+
+	@Test
+	public void testRingOverflow() throws IOException {
+		values = new String[] { "a" };
+		final TextEditingSupport<Integer> support = newEditingSupport();
+		try (EditJournal<Integer> journal = open(folder.newFile().toPath(), 2, support)) {
+			support.setValue(0, "b");
+			support.setValue(0, "c");
+			support.setValue(0, "d");
+			journal.undo();
+			journal.undo();
+			assertEquals("b", values[0]);
+			assertFalse(journal.canUndo());
+			journal.redo();
+			journal.redo();
+			assertEquals("d", values[0]);
+			assertFalse(journal.canRedo());
+		}
+	}
+
+	@Test
+	public void testUndoRedo() throws IOException {
+		final Path path = folder.newFile().toPath();
+		values = new String[] { "a", "b" };
+		final TextEditingSupport<Integer> support = newEditingSupport();
+		try (EditJournal<Integer> journal = open(path, 4, support)) {
+			assertFalse(journal.canUndo());
+			support.setValue(0, "x");
+			support.setValue(1, "y");
+			journal.undo();
+			assertArrayEquals(new String[] { "x", "b" }, values);
+			journal.undo();
+			assertArrayEquals(new String[] { "a", "b" }, values);
+			assertFalse(journal.canUndo());
+			journal.redo();
+			assertArrayEquals(new String[] { "x", "b" }, values);
+			assertTrue(journal.canRedo());
+
+			/** A new edit discards the edit undone. */
+			support.setValue(0, "z");
+			assertFalse(journal.canRedo());
+			journal.undo();
+			journal.undo();
+			assertArrayEquals(new String[] { "a", "b" }, values);
+			assertFalse(journal.canUndo());
+		}
+		values = new String[] { "a", "b" };
+		try (EditJournal<Integer> journal = open(path, 4, newEditingSupport())) {
+			assertEquals(8, journal.replay());
+		}
+		assertArrayEquals(new String[] { "a", "b" }, values);
+	}
+
+	private TextEditingSupport<Integer> newEditingSupport() {
+		return new TextEditingSupport<Integer>(new HeadlessColumnViewer(), Integer.class) {
+			@Override
+			public String getValueTyped(Integer element) {
+				return values[element];
+			}
+
+			@Override
+			public void setValueTyped(Integer element, String value) {
+				values[element] = value;
+			}
+		};
+	}
+
+	private EditJournal<Integer> open(Path path, int capacity, TextEditingSupport<Integer> support)
+			throws IOException {
+		final EditJournal<Integer> journal = EditJournal.open(path, capacity, 3, (e) -> e, (k) -> (int) k);
+		journal.addColumn(support);
+		return journal;
+	}
+
+}
@@ -0,0 +1,95 @@
+package io.github.oliviercailloux.swt_tools;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jface.viewers.ColumnViewer;
+import org.eclipse.jface.viewers.ColumnViewerEditor;
+import org.eclipse.jface.viewers.ViewerRow;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Item;
+import org.eclipse.swt.widgets.Widget;
+
+/**
+ * A column viewer without any underlying widget, that permits to create editing
+ * supports without a display. It does nothing, and must only be used to
+ * exercise the non-widget logic of the editing supports.
+ *
+ * @author Olivier Cailloux
+ *
+ */
+class HeadlessColumnViewer extends ColumnViewer {
+
+	@Override
+	public Control getControl() {
+		return null;
+	}
+
+	@Override
+	public void reveal(Object element) {
+		/** Nothing to reveal. */
+	}
+
+	@Override
+	public void update(Object element, String[] properties) {
+		/** Nothing to update. */
+	}
+
+	@Override
+	protected ColumnViewerEditor createViewerEditor() {
+		return null;
+	}
+
+	@Override
+	protected Widget doFindInputItem(Object element) {
+		return null;
+	}
+
+	@Override
+	protected Widget doFindItem(Object element) {
+		return null;
+	}
+
+	@Override
+	protected int doGetColumnCount() {
+		return 0;
+	}
+
+	@Override
+	protected void doUpdateItem(Widget item, Object element, boolean fullMap) {
+		/** No items. */
+	}
+
+	@Override
+	protected Widget getColumnViewerOwner(int columnIndex) {
+		return null;
+	}
+
+	@Override
+	protected Item getItemAt(Point point) {
+		return null;
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	protected List getSelectionFromWidget() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	protected ViewerRow getViewerRowFromItem(Widget item) {
+		return null;
+	}
+
+	@Override
+	protected void internalRefresh(Object element) {
+		/** Nothing to refresh. */
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	protected void setSelectionToWidget(List l, boolean reveal) {
+		/** No selection is kept. */
+	}
+}
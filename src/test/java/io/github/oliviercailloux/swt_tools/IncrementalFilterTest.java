@@ -0,0 +1,56 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class IncrementalFilterTest {
+
+	@Test
+	public void test() throws Exception {
+		final List<String> rows = ImmutableList.of("Alpha", "Beta", "alps", "Gamma", "Alpine");
+		final AtomicInteger labelled = new AtomicInteger();
+		final IncrementalFilter<String> filter = new IncrementalFilter<>(rows, (s) -> {
+			labelled.incrementAndGet();
+			return s;
+		}, MoreExecutors.directExecutor());
+		assertEquals(rows, filter.filter("").get());
+		assertEquals(0, labelled.get());
+		assertEquals(ImmutableList.of("Alpha", "alps", "Alpine"), filter.filter("AL").get());
+		assertEquals(5, labelled.get());
+		assertEquals(ImmutableList.of("alps"), filter.filter("alps").get());
+		assertEquals(ImmutableList.of("Alpha", "alps", "Alpine"), filter.filter("al").get());
+		assertEquals(5, labelled.get());
+		filter.invalidate(1);
+		assertEquals(ImmutableList.of("Beta"), filter.filter("et").get());
+		assertEquals(6, labelled.get());
+		assertEquals(ImmutableList.of(), filter.filter("zz").get());
+	}
+
+	@Test
+	public void testInvalidateWhileRunning() throws Exception {
+		final List<String> rows = new ArrayList<>(Arrays.asList("Alpha", "Beta"));
+		final List<IncrementalFilter<String>> filters = new ArrayList<>();
+		final IncrementalFilter<String> filter = new IncrementalFilter<>(rows, (s) -> {
+			if (s.equals("Alpha")) {
+				/** The row changes while its old label is being computed. */
+				rows.set(0, "Gamma");
+				filters.get(0).invalidate(0);
+			}
+			return s;
+		}, MoreExecutors.directExecutor());
+		filters.add(filter);
+		filter.filter("a");
+		assertEquals(ImmutableList.of("Gamma"), filter.filter("gam").get());
+		assertEquals(ImmutableList.of(), filter.filter("alp").get());
+	}
+
+}
@@ -0,0 +1,35 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class IntEditingSupportTest {
+
+	@Test
+	public void testParse() {
+		assertEquals(0, IntEditingSupport.parseInt("0"));
+		assertEquals(12, IntEditingSupport.parseInt("0012"));
+		assertEquals(-42, IntEditingSupport.parseInt("-42"));
+		assertEquals(Integer.MAX_VALUE, IntEditingSupport.parseInt("2147483647"));
+		assertEquals(Integer.MIN_VALUE, IntEditingSupport.parseInt("-2147483648"));
+		assertEquals(IntEditingSupport.NOT_AN_INT, IntEditingSupport.parseInt("2147483648"));
+		assertEquals(IntEditingSupport.NOT_AN_INT, IntEditingSupport.parseInt("-2147483649"));
+		assertEquals(IntEditingSupport.NOT_AN_INT, IntEditingSupport.parseInt("99999999999999999999999"));
+		assertEquals(IntEditingSupport.NOT_AN_INT, IntEditingSupport.parseInt(""));
+		assertEquals(IntEditingSupport.NOT_AN_INT, IntEditingSupport.parseInt("-"));
+		assertEquals(IntEditingSupport.NOT_AN_INT, IntEditingSupport.parseInt("+3"));
+		assertEquals(IntEditingSupport.NOT_AN_INT, IntEditingSupport.parseInt("12a"));
+		assertEquals(IntEditingSupport.NOT_AN_INT, IntEditingSupport.parseInt("1-2"));
+	}
+
+	@Test
+	public void testValidate() {
+		assertNull(IntEditingSupport.validateInteger(IntEditingSupport.parseInt("-2147483648")));
+		assertNotNull(IntEditingSupport.validateInteger(IntEditingSupport.parseInt("2147483648")));
+		assertNotNull(IntEditingSupport.validateInteger(IntEditingSupport.parseInt(" 1")));
+	}
+
+}
@@ -0,0 +1,29 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class ItemIndexTest {
+
+	@Test
+	public void test() {
+		final List<String> items = ImmutableList.of("Beta", "alpha", "Alpine", "gamma", "Alps", "delta");
+		final ItemIndex<String> index = ItemIndex.create(items, (s) -> s);
+		assertEquals(6, index.size());
+		assertEquals(ImmutableList.of("alpha", "Alpine", "Alps"), index.startingWith("AL", 10));
+		assertEquals(ImmutableList.of("alpha", "Alpine"), index.startingWith("al", 2));
+		assertEquals(ImmutableList.of("Alps"), index.startingWith("alps", 10));
+		assertEquals(ImmutableList.of(), index.startingWith("alpsx", 10));
+		assertEquals(ImmutableList.of(), index.startingWith("zz", 10));
+		assertEquals(ImmutableList.of("alpha", "Alpine"), index.startingWith("", 2));
+		assertEquals(ImmutableList.of("alpha", "Alpine", "Alps"), index.containing("LP", 10));
+		assertEquals(ImmutableList.of("Beta", "delta"), index.containing("ta", 10));
+		assertEquals(ImmutableList.of("Beta", "alpha"), index.containing("", 2));
+	}
+
+}
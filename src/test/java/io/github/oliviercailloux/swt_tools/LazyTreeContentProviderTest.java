@@ -0,0 +1,53 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class LazyTreeContentProviderTest {
+	/**
+	 * The elements whose children have been loaded, in order.
+	 */
+	private final List<String> loaded = new ArrayList<>();
+
+	@Test
+	public void testLoadAndInvalidate() {
+		final LazyTreeContentProvider<String> provider = new LazyTreeContentProvider<>(String.class, this::load,
+				(e) -> e.length() < 3);
+		assertEquals(ImmutableList.of("r0", "r1"), provider.getChildren("r"));
+		assertEquals(ImmutableList.of("r"), loaded);
+		assertTrue(provider.isLoaded("r"));
+		assertFalse(provider.isLoaded("r0"));
+		assertEquals("r", provider.getParent("r1"));
+		assertNull(provider.getParent("r00"));
+
+		assertEquals(ImmutableList.of("r00", "r01"), provider.getChildren("r0"));
+		provider.getChildren("r0");
+		provider.getChildren("r");
+		assertEquals(ImmutableList.of("r", "r0"), loaded);
+		assertEquals("r0", provider.getParent("r01"));
+
+		provider.invalidate("r");
+		assertFalse(provider.isLoaded("r"));
+		assertFalse(provider.isLoaded("r0"));
+		assertNull(provider.getParent("r1"));
+		assertNull(provider.getParent("r01"));
+		provider.getChildren("r");
+		assertEquals(ImmutableList.of("r", "r0", "r"), loaded);
+		assertFalse(provider.isLoaded("r0"));
+	}
+
+	private List<String> load(String element) {
+		loaded.add(element);
+		return element.length() < 3 ? ImmutableList.of(element + "0", element + "1") : ImmutableList.of();
+	}
+
+}
@@ -0,0 +1,39 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class LocalizedNumbersTest {
+
+	@Test
+	public void testEnglish() {
+		final LocalizedNumbers numbers = LocalizedNumbers.of(Locale.ENGLISH);
+		assertEquals("-1234.5", numbers.normalize("-1,234.5"));
+		assertEquals(".5", numbers.normalize(".5"));
+		assertNull(numbers.normalize(""));
+		assertNull(numbers.normalize("-"));
+		assertNull(numbers.normalize("1.2.3"));
+		assertNull(numbers.normalize(",1"));
+		assertNull(numbers.normalize("1.2,3"));
+		assertNull(numbers.normalize("1e3"));
+		assertEquals("1,234.5", numbers.format(1234.5d));
+		assertEquals("0.1", numbers.format(0.1d));
+		assertEquals("1,234.50", numbers.format(new BigDecimal("1234.50")));
+		assertEquals(1234.5d, Double.parseDouble(numbers.normalize(numbers.format(1234.5d))), 0d);
+	}
+
+	@Test
+	public void testFrench() {
+		final LocalizedNumbers numbers = LocalizedNumbers.of(Locale.FRENCH);
+		assertEquals("1234.5", numbers.normalize("1 234,5"));
+		assertEquals("1234.5", numbers.normalize(numbers.format(1234.5d)));
+		final String formatted = numbers.format(new BigDecimal("1234.50"));
+		assertEquals(new BigDecimal("1234.50"), new BigDecimal(numbers.normalize(formatted)));
+	}
+
+}
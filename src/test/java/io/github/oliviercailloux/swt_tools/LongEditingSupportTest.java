@@ -0,0 +1,31 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LongEditingSupportTest {
+
+	@Test
+	public void testParse() {
+		assertEquals(0, parse("0"));
+		assertEquals(0, parse("-0"));
+		assertEquals(12, parse("0012"));
+		assertEquals(-42, parse("-42"));
+		assertEquals(Long.MAX_VALUE, parse("9223372036854775807"));
+		assertEquals(Long.MIN_VALUE, parse("-9223372036854775808"));
+		assertEquals(LongEditingSupport.NOT_A_LONG, LongEditingSupport.parseNegativeMagnitude("9223372036854775808"));
+		assertEquals(LongEditingSupport.NOT_A_LONG, LongEditingSupport.parseNegativeMagnitude("-9223372036854775809"));
+		assertEquals(LongEditingSupport.NOT_A_LONG, LongEditingSupport.parseNegativeMagnitude("99999999999999999999999"));
+		assertEquals(LongEditingSupport.NOT_A_LONG, LongEditingSupport.parseNegativeMagnitude(""));
+		assertEquals(LongEditingSupport.NOT_A_LONG, LongEditingSupport.parseNegativeMagnitude("-"));
+		assertEquals(LongEditingSupport.NOT_A_LONG, LongEditingSupport.parseNegativeMagnitude("+3"));
+		assertEquals(LongEditingSupport.NOT_A_LONG, LongEditingSupport.parseNegativeMagnitude("12a"));
+		assertEquals(LongEditingSupport.NOT_A_LONG, LongEditingSupport.parseNegativeMagnitude("1-2"));
+	}
+
+	private static long parse(String text) {
+		return LongEditingSupport.toLong(text, LongEditingSupport.parseNegativeMagnitude(text));
+	}
+
+}
@@ -0,0 +1,68 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedRecordFileTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testEditable() throws IOException {
+		final Path path = folder.newFile().toPath();
+		Files.write(path, new byte[2 * 16]);
+		for (boolean writable : new boolean[] { false, true }) {
+			try (MappedRecordFile file = MappedRecordFile.open(path, 16, ByteOrder.LITTLE_ENDIAN, writable)) {
+				final HeadlessColumnViewer viewer = new HeadlessColumnViewer();
+				assertEquals(writable, file.intField(0).newEditingSupport(viewer).canEditTyped(1));
+				assertEquals(writable, file.longField(4).newEditingSupport(viewer).canEditTyped(1));
+				assertEquals(writable, file.doubleField(4).newEditingSupport(viewer).canEditTyped(1));
+				assertEquals(writable, file.textField(12, 4).newEditingSupport(viewer).canEditTyped(1));
+			}
+		}
+	}
+
+	@Test
+	public void testReadAndWriteInPlace() throws IOException {
+		final Path path = folder.newFile().toPath();
+		final ByteBuffer content = ByteBuffer.allocate(3 * 16).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < 3; ++i) {
+			content.putInt(i * 10);
+			content.putDouble(i + 0.5d);
+			content.put(String.format("r%-3d", i).getBytes(StandardCharsets.UTF_8));
+		}
+		Files.write(path, content.array());
+
+		try (MappedRecordFile file = MappedRecordFile.open(path, 16, ByteOrder.LITTLE_ENDIAN, true)) {
+			file.setRowCacheSize(2);
+			final MappedRecordFile.IntField ints = file.intField(0);
+			final MappedRecordFile.DoubleField doubles = file.doubleField(4);
+			final MappedRecordFile.TextField texts = file.textField(12, 4);
+			assertEquals(3, file.getRows().size());
+			assertEquals(20, ints.get(2));
+			assertEquals(1.5d, doubles.get(1), 0d);
+			assertEquals("r1", texts.get(1));
+			ints.set(1, -4);
+			texts.set(1, "ab");
+			assertEquals("ab", texts.get(1));
+			file.force();
+		}
+
+		final ByteBuffer written = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(-4, written.getInt(16));
+		assertEquals("ab  ", new String(written.array(), 28, 4, StandardCharsets.UTF_8));
+		assertEquals(20, written.getInt(32));
+	}
+
+}
@@ -0,0 +1,123 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class PagedItemSourceTest {
+	/**
+	 * An in-memory source, matching the items starting with the text, ignoring
+	 * case, and counting the fetches.
+	 */
+	private static class ListItemSource implements ItemSource<String> {
+		int fetches = 0;
+
+		private final List<String> items;
+
+		ListItemSource(List<String> items) {
+			this.items = items;
+		}
+
+		@Override
+		public List<String> fetch(String text, int offset, int limit) {
+			++fetches;
+			final String lower = text.toLowerCase(Locale.ROOT);
+			return items.stream().filter((s) -> s.toLowerCase(Locale.ROOT).startsWith(lower)).skip(offset)
+					.limit(limit).collect(Collectors.toList());
+		}
+	}
+
+	@Test
+	public void testPages() {
+		final List<String> items = new ArrayList<>();
+		for (int i = 0; i < 25; ++i) {
+			items.add("item" + i);
+		}
+		items.add("other");
+		final ListItemSource fake = new ListItemSource(items);
+		final PagedItemSource<String> source = new PagedItemSource<>(fake, 10, 100,
+				MoreExecutors.directExecutor());
+
+		assertEquals(items.subList(0, 10), source.getPage("", 0));
+		/** The page and the next one. */
+		assertEquals(2, fake.fetches);
+		assertEquals(items.subList(10, 20), source.getPage("", 1));
+		assertEquals(3, fake.fetches);
+		assertEquals(ImmutableList.of("item20", "item21", "item22", "item23", "item24", "other"),
+				source.getPage("", 2));
+		/** The last page is not full: nothing to prefetch. */
+		assertEquals(3, fake.fetches);
+		assertEquals(ImmutableList.of(), source.getPage("", 3));
+		assertEquals(4, fake.fetches);
+
+		assertEquals(ImmutableList.of("item1", "item10", "item11", "item12", "item13", "item14", "item15", "item16",
+				"item17", "item18"), source.getPage("ITEM1", 0));
+		assertEquals(ImmutableList.of("item19"), source.getPage("item1", 1));
+		assertEquals(ImmutableList.of("other"), source.getPage("o", 0));
+		assertEquals(8, fake.fetches);
+	}
+
+	@Test
+	public void testAsync() {
+		final List<String> items = new ArrayList<>();
+		for (int i = 0; i < 10; ++i) {
+			items.add("item" + i);
+		}
+		final ListItemSource fake = new ListItemSource(items);
+		/** Stands for the prefetching threads. */
+		final List<Runnable> tasks = new ArrayList<>();
+		final PagedItemSource<String> source = new PagedItemSource<>(fake, 5, 100, tasks::add);
+
+		final CompletableFuture<List<String>> first = source.getPageAsync("", 0);
+		assertFalse(first.isDone());
+		assertEquals(0, fake.fetches);
+		tasks.remove(0).run();
+		assertEquals(items.subList(0, 5), first.getNow(null));
+		assertEquals(1, fake.fetches);
+
+		final CompletableFuture<List<String>> kept = source.getPageAsync("", 0);
+		assertTrue(kept.isDone());
+		assertEquals(items.subList(0, 5), kept.getNow(null));
+		assertEquals(1, fake.fetches);
+	}
+
+	@Test
+	public void testEviction() {
+		final List<String> items = new ArrayList<>();
+		for (int i = 0; i < 100; ++i) {
+			items.add("item" + i);
+		}
+		final ListItemSource fake = new ListItemSource(items);
+		final PagedItemSource<String> source = new PagedItemSource<>(fake, 5, 3, (r) -> {
+			/** No prefetch. */
+		});
+		source.getPage("", 0);
+		source.getPage("", 1);
+		source.getPage("", 2);
+		source.getPage("", 0);
+		assertEquals(3, fake.fetches);
+		source.getPage("", 3);
+		assertEquals(3, source.getCachedPageCount());
+		/** Page 1 is the least recently used. */
+		source.getPage("", 0);
+		source.getPage("", 2);
+		assertEquals(4, fake.fetches);
+		source.getPage("", 1);
+		assertEquals(5, fake.fetches);
+
+		source.invalidateAll();
+		assertEquals(items.subList(0, 5), source.getPage("", 0));
+		assertEquals(6, fake.fetches);
+	}
+}
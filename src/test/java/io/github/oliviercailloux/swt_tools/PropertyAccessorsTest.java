@@ -0,0 +1,64 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.invoke.MethodHandles;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+
+import org.junit.Test;
+
+public class PropertyAccessorsTest {
+
+	public static class Person {
+		private int age;
+
+		private String name;
+
+		public int getAge() {
+			return age;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getId() {
+			return 42L;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	@Test
+	public void test() {
+		final PropertyAccessors<Person> accessors = new PropertyAccessors<>(MethodHandles.lookup(), Person.class);
+		final Person person = new Person();
+		final ObjIntConsumer<Person> ageSetter = accessors.intSetter("age");
+		ageSetter.accept(person, 31);
+		assertEquals(31, accessors.intGetter("age").applyAsInt(person));
+		final BiConsumer<Person, String> nameSetter = accessors.setter("name", String.class);
+		nameSetter.accept(person, "Ada");
+		final Function<Person, String> nameGetter = accessors.getter("name", String.class);
+		assertEquals("Ada", nameGetter.apply(person));
+		assertEquals(Integer.valueOf(31), accessors.getter("age", Integer.class).apply(person));
+		accessors.setter("age", Integer.class).accept(person, 32);
+		assertEquals(32, person.getAge());
+		assertEquals(42L, accessors.longGetter("id").applyAsLong(person));
+		assertNull(accessors.longSetter("id"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongType() {
+		new PropertyAccessors<>(MethodHandles.lookup(), Person.class).getter("name", Integer.class);
+	}
+
+}
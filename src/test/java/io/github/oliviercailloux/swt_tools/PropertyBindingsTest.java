@@ -0,0 +1,39 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import io.github.oliviercailloux.swt_tools.PropertyAccessorsTest.Person;
+
+public class PropertyBindingsTest {
+
+	@Test
+	public void testUpdate() {
+		final List<Object> updated = new ArrayList<>();
+		final HeadlessColumnViewer viewer = new HeadlessColumnViewer() {
+			@Override
+			public void update(Object element, String[] properties) {
+				updated.add(element);
+			}
+		};
+		final PropertyBindings<Person> bindings = PropertyBindings.of(viewer, Person.class, MethodHandles.lookup());
+		assertEquals("age", bindings.integer("age").getProperty());
+		assertEquals("name", bindings.text("name").getProperty());
+
+		final TextEditingSupport<Person> names = bindings.text(Person::getName, Person::setName);
+		assertNull(names.getProperty());
+		final Person person = new Person();
+		names.setValue(person, "Ada");
+		assertEquals("Ada", person.getName());
+		assertEquals(ImmutableList.of(person), updated);
+	}
+
+}
@@ -0,0 +1,54 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class TableExporterTest {
+
+	@Test
+	public void testCsv() throws IOException {
+		final TableExporter<String> exporter = TableExporter.csv();
+		exporter.addColumn("Text", (s) -> s);
+		exporter.addColumn("Length", (s) -> s == null ? null : String.valueOf(s.length()));
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exporter.export(ImmutableList.of("plain", "a,b", "say \"hé\""), Channels.newChannel(out),
+				StandardCharsets.UTF_8);
+		assertEquals("Text,Length\r\nplain,5\r\n\"a,b\",3\r\n\"say \"\"hé\"\"\",8\r\n",
+				new String(out.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testParallelSameAsSequential() throws IOException {
+		final TableExporter<Integer> exporter = TableExporter.tsv();
+		exporter.addColumn("Row", String::valueOf);
+		exporter.addColumn("Square", (i) -> String.valueOf((long) i * i));
+		final List<Integer> rows = IntStream.range(0, 3 * TableExporter.BLOCK_ROWS + 17).boxed()
+				.collect(Collectors.toList());
+		final ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+		exporter.export(rows, Channels.newChannel(sequential), StandardCharsets.UTF_8);
+		final ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			exporter.export(rows, Channels.newChannel(parallel), StandardCharsets.UTF_8, executor, 2);
+		} finally {
+			executor.shutdown();
+		}
+		final String text = new String(parallel.toByteArray(), StandardCharsets.UTF_8);
+		assertEquals(new String(sequential.toByteArray(), StandardCharsets.UTF_8), text);
+		assertEquals(rows.size() + 1, text.split("\n").length);
+	}
+
+}
@@ -0,0 +1,159 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.TextCellEditor;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.Text;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class TextEditingSupportTest {
+	private Shell shell;
+
+	private TableViewer viewer;
+
+	@After
+	public void tearDown() {
+		if (shell != null) {
+			shell.dispose();
+		}
+	}
+
+	@Test
+	public void testCommitWhilePending() throws Exception {
+		createViewer();
+		final String[] names = { "a", "b" };
+		final TextEditingSupport<Integer> editingSupport = new TextEditingSupport<Integer>(viewer, Integer.class) {
+			@Override
+			public String getValueTyped(Integer element) {
+				return names[element];
+			}
+
+			@Override
+			public void setValueTyped(Integer element, String value) {
+				names[element] = value;
+			}
+		};
+		/** The checks, completed by this test. */
+		final Map<String, CompletableFuture<String>> checks = new ConcurrentHashMap<>();
+		editingSupport.setAsyncValidator((v) -> checks.computeIfAbsent(v, (k) -> new CompletableFuture<>()), 0);
+		final List<String> rejected = new ArrayList<>();
+		editingSupport.addRejectionListener((e, v, m) -> rejected.add(e + " " + v + ": " + m));
+		JFace.addTextTableViewerColumn(viewer, new TableColumn(viewer.getTable(), SWT.NONE), editingSupport);
+		viewer.setContentProvider(ArrayContentProvider.getInstance());
+		viewer.setInput(ImmutableList.of(0, 1));
+
+		/** Applies a value, then edits an other cell before the result comes. */
+		apply(editingSupport, 0, "carol");
+		viewer.editElement(1, 0);
+		dispatchUntil(() -> checks.containsKey("carol"));
+		checks.get("carol").complete(null);
+		dispatchUntil(() -> names[0].equals("carol"));
+		assertEquals("carol", names[0]);
+		assertEquals("b", names[1]);
+		viewer.cancelEditing();
+
+		apply(editingSupport, 1, "alice");
+		viewer.editElement(0, 0);
+		dispatchUntil(() -> checks.containsKey("alice"));
+		checks.get("alice").complete("Already used.");
+		dispatchUntil(() -> !rejected.isEmpty());
+		assertEquals(ImmutableList.of("1 alice: Already used."), rejected);
+		assertEquals("b", names[1]);
+	}
+
+	@Test
+	public void testOwnCellEditor() {
+		createViewer();
+		final TextEditingSupport<String> first = newEditingSupport("First required.");
+		final TextEditingSupport<String> second = newEditingSupport("Second required.");
+		final TextCellEditor firstEditor = first.getTextCellEditor();
+		assertNotSame(firstEditor, second.getTextCellEditor());
+		assertSame(firstEditor, first.getCellEditorTyped("a"));
+		assertEquals("First required.", firstEditor.getValidator().isValid(""));
+		assertEquals("Second required.", second.getTextCellEditor().getValidator().isValid(""));
+	}
+
+	@Test
+	public void testSharedCellEditor() {
+		createViewer();
+		final TextEditingSupport<String> first = newEditingSupport("First required.");
+		final TextEditingSupport<String> second = newEditingSupport("Second required.");
+		first.setSharedCellEditor(true);
+		second.setSharedCellEditor(true);
+		final TextCellEditor editor = first.getTextCellEditor();
+		assertSame(editor, second.getTextCellEditor());
+		assertNull(editor.getValidator());
+
+		assertSame(editor, first.getCellEditorTyped("a"));
+		assertEquals("First required.", editor.getValidator().isValid(""));
+		/** The getter does not take the editor from the column that uses it. */
+		second.getTextCellEditor();
+		assertEquals("First required.", editor.getValidator().isValid(""));
+		second.getCellEditorTyped("a");
+		assertEquals("Second required.", editor.getValidator().isValid(""));
+		assertNull(editor.getValidator().isValid("b"));
+	}
+
+	/**
+	 * Activates the cell editor on the given row, types the given text, and
+	 * applies it as if the end-user hit enter.
+	 */
+	private void apply(TextEditingSupport<Integer> editingSupport, int row, String text) {
+		viewer.editElement(row, 0);
+		final Text control = (Text) editingSupport.getTextCellEditor().getControl();
+		control.setText(text);
+		control.notifyListeners(SWT.DefaultSelection, new Event());
+	}
+
+	private void createViewer() {
+		shell = new Shell(Display.getDefault());
+		viewer = new TableViewer(shell);
+	}
+
+	private void dispatchUntil(BooleanSupplier condition) throws InterruptedException {
+		final Display display = shell.getDisplay();
+		final long end = System.nanoTime() + 5_000_000_000L;
+		while (!condition.getAsBoolean() && System.nanoTime() < end) {
+			if (!display.readAndDispatch()) {
+				Thread.sleep(1);
+			}
+		}
+	}
+
+	private TextEditingSupport<String> newEditingSupport(String emptyMessage) {
+		final TextEditingSupport<String> editingSupport = new TextEditingSupport<String>(viewer, String.class) {
+			@Override
+			public String getValueTyped(String element) {
+				return element;
+			}
+
+			@Override
+			public void setValueTyped(String element, String value) {
+				/** The elements are immutable. */
+			}
+		};
+		editingSupport.setValidator((v) -> v.isEmpty() ? emptyMessage : null);
+		return editingSupport;
+	}
+
+}
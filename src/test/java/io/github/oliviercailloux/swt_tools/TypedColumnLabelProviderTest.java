@@ -0,0 +1,122 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TableColumn;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multiset;
+
+public class TypedColumnLabelProviderTest {
+	private static class Row {
+		String city;
+
+		String name;
+
+		Row(String name, String city) {
+			this.name = name;
+			this.city = city;
+		}
+	}
+
+	/**
+	 * The properties of the labels computed.
+	 */
+	private Multiset<String> labelled;
+
+	private TextEditingSupport<Row> names;
+
+	private List<Row> rows;
+
+	private Shell shell;
+
+	private TableViewer viewer;
+
+	@After
+	public void tearDown() {
+		if (shell != null) {
+			shell.dispose();
+		}
+	}
+
+	@Test
+	public void testBulkEdit() {
+		createViewer();
+		final BulkEditor<Row> editor = new BulkEditor<>(viewer);
+		editor.addColumn(names);
+		assertEquals(ImmutableList.of(), editor.fillDown(rows, 0, "c"));
+		assertEquals(2, labelled.count("name"));
+		assertEquals(0, labelled.count("city"));
+		assertEquals("c", viewer.getTable().getItem(1).getText(0));
+	}
+
+	@Test
+	public void testUpdate() {
+		createViewer();
+		rows.get(0).name = "c";
+		rows.get(0).city = "Namur";
+		JFace.update(viewer, new Object[] { rows.get(0) }, "name");
+		assertEquals(1, labelled.count("name"));
+		assertEquals(0, labelled.count("city"));
+		assertEquals("c", viewer.getTable().getItem(0).getText(0));
+		assertEquals("Paris", viewer.getTable().getItem(0).getText(1));
+
+		JFace.update(viewer, new Object[] { rows.get(0) }, "other");
+		assertEquals(1, labelled.size());
+
+		viewer.update(rows.get(0), null);
+		assertEquals(2, labelled.count("name"));
+		assertEquals(1, labelled.count("city"));
+		assertEquals("Namur", viewer.getTable().getItem(0).getText(1));
+	}
+
+	private TextEditingSupport<Row> addColumn(String property) {
+		final TextEditingSupport<Row> editingSupport = new TextEditingSupport<Row>(viewer, Row.class) {
+			@Override
+			public String getLabelTyped(Row element) {
+				labelled.add(property);
+				return super.getLabelTyped(element);
+			}
+
+			@Override
+			public String getValueTyped(Row element) {
+				return property.equals("name") ? element.name : element.city;
+			}
+
+			@Override
+			public void setValueTyped(Row element, String value) {
+				if (property.equals("name")) {
+					element.name = value;
+				} else {
+					element.city = value;
+				}
+			}
+		};
+		editingSupport.setProperty(property);
+		JFace.addTextTableViewerColumn(viewer, new TableColumn(viewer.getTable(), SWT.NONE), editingSupport);
+		return editingSupport;
+	}
+
+	private void createViewer() {
+		shell = new Shell(Display.getDefault());
+		viewer = new TableViewer(shell);
+		labelled = HashMultiset.create();
+		names = addColumn("name");
+		addColumn("city");
+		viewer.setContentProvider(ArrayContentProvider.getInstance());
+		rows = ImmutableList.of(new Row("a", "Paris"), new Row("b", "Lyon"));
+		viewer.setInput(rows);
+		labelled.clear();
+	}
+
+}
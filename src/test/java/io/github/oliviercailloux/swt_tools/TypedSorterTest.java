@@ -0,0 +1,57 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class TypedSorterTest {
+
+	@Test
+	public void testByInt() {
+		final List<String> rows = ImmutableList.of("b3", "a-1", "c3", "d" + Integer.MIN_VALUE, "e" + Integer.MAX_VALUE);
+		final TypedSorter<String> sorter = TypedSorter.byInt((s) -> Integer.parseInt(s.substring(1)));
+		assertEquals(ImmutableList.of("d" + Integer.MIN_VALUE, "a-1", "b3", "c3", "e" + Integer.MAX_VALUE),
+				sorter.sort(rows, true));
+		assertEquals(ImmutableList.of("e" + Integer.MAX_VALUE, "b3", "c3", "a-1", "d" + Integer.MIN_VALUE),
+				sorter.sort(rows, false));
+	}
+
+	@Test
+	public void testByDouble() {
+		final List<Double> rows = ImmutableList.of(2d, -0d, Double.NaN, -3.5d, 0d, Double.NEGATIVE_INFINITY);
+		assertEquals(ImmutableList.of(Double.NEGATIVE_INFINITY, -3.5d, -0d, 0d, 2d, Double.NaN),
+				TypedSorter.<Double> byDouble((d) -> d).sort(rows, true));
+	}
+
+	@Test
+	public void testByLabel() {
+		final List<String> rows = ImmutableList.of("b", "B", "a", "é", "e");
+		final TypedSorter<String> sorter = TypedSorter.byLabel((s) -> s, Collator.getInstance(Locale.FRENCH));
+		assertEquals(ImmutableList.of("a", "b", "B", "e", "é"), sorter.sort(rows, true));
+	}
+
+	@Test
+	public void testParallel() {
+		final Random random = new Random(0);
+		final List<Long> rows = new ArrayList<>();
+		for (int i = 0; i < TypedSorter.PARALLEL_THRESHOLD * 4; ++i) {
+			rows.add(random.nextLong() % 1000);
+		}
+		final List<Long> expected = new ArrayList<>(rows);
+		expected.sort(Comparator.reverseOrder());
+		assertEquals(expected, TypedSorter.<Long> byLong((l) -> l).sort(rows, false));
+		assertEquals(expected, TypedSorter.<Long, Long> byKey((l) -> l, Comparator.naturalOrder()).sort(rows, false));
+		expected.sort(Comparator.naturalOrder());
+		assertEquals(expected, TypedSorter.<Long> byInt((l) -> l.intValue()).sort(rows, true));
+	}
+
+}
@@ -0,0 +1,303 @@
+package io.github.oliviercailloux.swt_tools;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * <p>
+ * Measures the responsiveness of virtual tables built with {@link JFace}:
+ * repaint time per scrolled frame, latency of opening a cell editor and of
+ * committing a value, and heap usage. This needs a display; on a headless
+ * machine, run it under Xvfb, typically with
+ * <code>xvfb-run -a mvn -Pui-perf verify</code>. It is not a unit test, and is
+ * not run by the usual build.
+ * </p>
+ * <p>
+ * Arguments: the numbers of rows to try, separated by commas (default:
+ * <code>10000,100000,1000000</code>), then the path of the JSON report to
+ * write (default: <code>target/ui-perf.json</code>).
+ * </p>
+ *
+ * @author Olivier Cailloux
+ *
+ */
+public class UiPerformanceHarness {
+	private static class Row {
+		String choice;
+
+		int count;
+
+		final String name;
+
+		Row(String name, int count, String choice) {
+			this.name = name;
+			this.count = count;
+			this.choice = choice;
+		}
+	}
+
+	/**
+	 * Durations, in nanoseconds.
+	 */
+	private static class Samples {
+		private long[] values = new long[64];
+
+		private int size = 0;
+
+		void add(long nanos) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = nanos;
+		}
+
+		String toJson() {
+			final long[] sorted = Arrays.copyOf(values, size);
+			Arrays.sort(sorted);
+			return String.format(Locale.ROOT, "{\"count\": %d, \"p50Nanos\": %d, \"p95Nanos\": %d, \"maxNanos\": %d}",
+					size, percentile(sorted, 0.5d), percentile(sorted, 0.95d), size == 0 ? 0 : sorted[size - 1]);
+		}
+
+		private static long percentile(long[] sorted, double p) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+			return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static final Logger LOGGER = LoggerFactory.getLogger(UiPerformanceHarness.class);
+
+	private static final List<String> CHOICES = ImmutableList.of("Alpha", "Beta", "Gamma", "Delta", "Epsilon", "Zeta",
+			"Eta", "Theta", "Iota", "Kappa");
+
+	private static final int EDITS = 100;
+
+	private static final int FRAMES = 300;
+
+	public static void main(String[] args) throws IOException {
+		final List<Integer> sizes = new ArrayList<>();
+		for (String size : Splitter.on(',').trimResults().omitEmptyStrings()
+				.split(args.length >= 1 ? args[0] : "10000,100000,1000000")) {
+			sizes.add(Integer.valueOf(size));
+		}
+		final Path report = Paths.get(args.length >= 2 ? args[1] : "target/ui-perf.json");
+		final Display display = new Display();
+		final List<String> runs = new ArrayList<>();
+		try {
+			for (int size : sizes) {
+				LOGGER.info("Measuring with {} rows.", size);
+				runs.add(new UiPerformanceHarness(display, size).run());
+			}
+		} finally {
+			display.dispose();
+		}
+		if (report.getParent() != null) {
+			Files.createDirectories(report.getParent());
+		}
+		Files.write(report, ("[\n" + String.join(",\n", runs) + "\n]\n").getBytes(StandardCharsets.UTF_8));
+		LOGGER.info("Report written to {}.", report.toAbsolutePath());
+	}
+
+	private static long usedHeap() {
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private final Samples commit = new Samples();
+
+	private IntEditingSupport<Row> countSupport;
+
+	private final Display display;
+
+	private final Samples editorOpen = new Samples();
+
+	private final Samples frames = new Samples();
+
+	private final ColumnStatistics statistics = new ColumnStatistics("count");
+
+	private final int size;
+
+	private TableViewer viewer;
+
+	private UiPerformanceHarness(Display display, int size) {
+		this.display = display;
+		this.size = size;
+	}
+
+	private String run() {
+		final long heapBefore = usedHeap();
+		final Shell shell = new Shell(display);
+		shell.setLayout(new FillLayout());
+		shell.setSize(1280, 800);
+		final long buildStart = System.nanoTime();
+		final List<Row> rows = build(shell);
+		shell.open();
+		drain();
+		final long buildNanos = System.nanoTime() - buildStart;
+		final long heapAfterBuild = usedHeap();
+		scroll();
+		final long heapAfterScroll = usedHeap();
+		edit(rows);
+		final long heapAfterEdit = usedHeap();
+		shell.dispose();
+		drain();
+		return String.format(Locale.ROOT,
+				"{\"rows\": %d, \"buildNanos\": %d, \"frames\": %s, \"editorOpen\": %s, \"commit\": %s,"
+						+ " \"labelP95Nanos\": %d, \"heapBytes\": {\"before\": %d, \"afterBuild\": %d, \"afterScroll\": %d,"
+						+ " \"afterEdit\": %d}}",
+				size, buildNanos, frames.toJson(), editorOpen.toJson(), commit.toJson(),
+				statistics.getPercentileNanos(HotPath.LABEL, 95d), heapBefore, heapAfterBuild, heapAfterScroll,
+				heapAfterEdit);
+	}
+
+	private List<Row> build(Shell shell) {
+		final List<Row> rows = new ArrayList<>(size);
+		for (int i = 0; i < size; ++i) {
+			rows.add(new Row("Row " + i, i, CHOICES.get(i % CHOICES.size())));
+		}
+		viewer = JFace.newVirtualTableViewer(shell, SWT.BORDER | SWT.FULL_SELECTION);
+		final Table table = viewer.getTable();
+		table.setHeaderVisible(true);
+		final TextEditingSupport<Row> nameSupport = new TextEditingSupport<Row>(viewer, Row.class) {
+			@Override
+			public boolean canEditTyped(Row element) {
+				return false;
+			}
+
+			@Override
+			public String getValueTyped(Row element) {
+				return element.name;
+			}
+
+			@Override
+			public void setValueTyped(Row element, String value) {
+				/** The names can't be edited. */
+			}
+		};
+		countSupport = new IntEditingSupport<Row>(viewer, Row.class) {
+			@Override
+			public int getIntValue(Row element) {
+				return element.count;
+			}
+
+			@Override
+			public void setIntValue(Row element, int value) {
+				element.count = value;
+			}
+		};
+		countSupport.setProperty("count");
+		countSupport.setRecorder(statistics);
+		final ComboBoxEditingSupport<Row, String> choiceSupport = new ComboBoxEditingSupport<Row, String>(viewer,
+				Row.class, String.class) {
+			@Override
+			public String getValueTyped(Row element) {
+				return element.choice;
+			}
+
+			@Override
+			public void setValueTyped(Row element, String value) {
+				element.choice = value;
+			}
+		};
+		choiceSupport.setItems(CHOICES);
+		choiceSupport.setProperty("choice");
+		JFace.addTextTableViewerColumn(viewer, newColumn(table, "Name"), nameSupport);
+		JFace.addTextTableViewerColumn(viewer, newColumn(table, "Count"), countSupport);
+		JFace.addComboBoxTableViewerColumn(viewer, newColumn(table, "Choice"), choiceSupport);
+		JFace.setVirtualInput(viewer, rows);
+		return rows;
+	}
+
+	/**
+	 * Processes the pending events, including the paint events.
+	 */
+	private void drain() {
+		if (!viewer.getTable().isDisposed()) {
+			viewer.getTable().update();
+		}
+		while (display.readAndDispatch()) {
+			/** Continue. */
+		}
+	}
+
+	/**
+	 * Opens the cell editor of the count column on visible rows, and commits a
+	 * new value through it.
+	 */
+	private void edit(List<Row> rows) {
+		final Table table = viewer.getTable();
+		final int top = table.getTopIndex();
+		final int visible = Math.max(1, table.getClientArea().height / table.getItemHeight() - 1);
+		for (int i = 0; i < EDITS; ++i) {
+			final Row row = rows.get(Math.min(size - 1, top + i % visible));
+			final long openStart = System.nanoTime();
+			viewer.editElement(row, 1);
+			drain();
+			editorOpen.add(System.nanoTime() - openStart);
+			if (!viewer.isCellEditorActive()) {
+				LOGGER.warn("Editor not activated for {}.", row.name);
+				continue;
+			}
+			final Text text = (Text) countSupport.getTextCellEditor().getControl();
+			final long commitStart = System.nanoTime();
+			text.setText(String.valueOf(row.count + 1));
+			text.notifyListeners(SWT.DefaultSelection, new Event());
+			drain();
+			commit.add(System.nanoTime() - commitStart);
+		}
+	}
+
+	private TableColumn newColumn(Table table, String name) {
+		final TableColumn column = new TableColumn(table, SWT.NONE);
+		column.setText(name);
+		column.setWidth(200);
+		return column;
+	}
+
+	/**
+	 * Scrolls through the table, by pages then by jumps across the whole
+	 * table, and measures the time to repaint each frame.
+	 */
+	private void scroll() {
+		final Table table = viewer.getTable();
+		final int visible = Math.max(1, table.getClientArea().height / table.getItemHeight());
+		final int maxTop = Math.max(0, size - visible);
+		for (int frame = 0; frame < FRAMES; ++frame) {
+			final int top;
+			if (frame < FRAMES / 2) {
+				top = Math.min(maxTop, frame * visible);
+			} else {
+				top = (int) ((long) maxTop * (frame - FRAMES / 2) / (FRAMES - FRAMES / 2));
+			}
+			final long start = System.nanoTime();
+			table.setTopIndex(top);
+			drain();
+			frames.add(System.nanoTime() - start);
+		}
+	}
+}
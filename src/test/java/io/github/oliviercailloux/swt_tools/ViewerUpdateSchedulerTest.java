@@ -0,0 +1,106 @@
+package io.github.oliviercailloux.swt_tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.ObjectName;
+
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TableColumn;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multiset;
+
+public class ViewerUpdateSchedulerTest {
+	/**
+	 * The properties of the labels computed.
+	 */
+	private Multiset<String> labelled;
+
+	private Shell shell;
+
+	private TableViewer viewer;
+
+	@After
+	public void tearDown() {
+		if (shell != null) {
+			shell.dispose();
+		}
+	}
+
+	@Test
+	public void testMerge() throws Exception {
+		final Display display = Display.getDefault();
+		shell = new Shell(display);
+		viewer = new TableViewer(shell);
+		labelled = HashMultiset.create();
+		addColumn("name");
+		addColumn("city");
+		viewer.setContentProvider(ArrayContentProvider.getInstance());
+		final List<String> rows = ImmutableList.of("a", "b", "c");
+		viewer.setInput(rows);
+		labelled.clear();
+
+		final ViewerUpdateScheduler scheduler = ViewerUpdateScheduler.of(viewer);
+		scheduler.setMaxFramesPerSecond(1000);
+		scheduler.update("a", "name");
+		scheduler.update("a", "city");
+		scheduler.update("b", "name");
+		scheduler.update("b");
+		scheduler.update("c", "name");
+		assertEquals(3, scheduler.getPendingCount());
+		final long end = System.nanoTime() + 5_000_000_000L;
+		while (scheduler.getFlushCount() == 0 && System.nanoTime() < end) {
+			if (!display.readAndDispatch()) {
+				Thread.sleep(1);
+			}
+		}
+		assertEquals(1, scheduler.getFlushCount());
+		assertEquals(3, scheduler.getFlushedCount());
+		assertEquals(2, scheduler.getMergedCount());
+		/** The union of the properties for a, a full update for b. */
+		assertEquals(3, labelled.count("name"));
+		assertEquals(2, labelled.count("city"));
+
+		final ObjectName name = scheduler.registerMBean("test");
+		try {
+			assertEquals(5L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "RequestedCount"));
+		} finally {
+			scheduler.unregisterMBean();
+		}
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+	}
+
+	private void addColumn(String property) {
+		final TextEditingSupport<String> editingSupport = new TextEditingSupport<String>(viewer, String.class) {
+			@Override
+			public String getLabelTyped(String element) {
+				labelled.add(property);
+				return super.getLabelTyped(element);
+			}
+
+			@Override
+			public String getValueTyped(String element) {
+				return element + " " + property;
+			}
+
+			@Override
+			public void setValueTyped(String element, String value) {
+				/** The elements are immutable. */
+			}
+		};
+		editingSupport.setProperty(property);
+		JFace.addTextTableViewerColumn(viewer, new TableColumn(viewer.getTable(), SWT.NONE), editingSupport);
+	}
+
+}